@@ -0,0 +1,88 @@
+package nl.suriani.verifyj.benchmark;
+
+import nl.suriani.verifyj.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the cost of evaluating the guards of a {@link NamedAction} and applying it, for accepted and rejected steps,
+ * through the throwing contract and through {@link ActionResult}s.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class NamedActionBenchmark {
+    /**
+     * The number of guards of the action.
+     */
+    @Param({"0", "1", "4"})
+    public int guardCount;
+
+    private NamedAction<Integer> action;
+    private Integer enabledState;
+    private Integer disabledState;
+
+    /**
+     * Builds an action whose guards all pass on even states, and whose first guard fails on odd ones.
+     */
+    @Setup
+    public void setUp() {
+        var guards = new ArrayList<Expression<Integer, Boolean>>();
+        for (var i = 0; i < guardCount; i++) {
+            var bound = -i;
+            guards.add(n -> n % 2 == 0 && n >= bound);
+        }
+        action = new NamedAction<>("increment", n -> n + 2, guards);
+        enabledState = 1_000;
+        disabledState = guardCount == 0 ? 1_000 : 1_001;
+    }
+
+    /**
+     * Applies the action to a state it is enabled in.
+     *
+     * @return the new state
+     */
+    @Benchmark
+    public Integer applyEnabled() {
+        return action.apply(enabledState);
+    }
+
+    /**
+     * Applies the action to a state it is disabled in, paying for the exception.
+     *
+     * @return the new state, or null when rejected
+     */
+    @Benchmark
+    public Integer applyDisabled() {
+        try {
+            return action.apply(disabledState);
+        } catch (IllegalStateException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Attempts the action on a state it is disabled in, without exception.
+     *
+     * @return the result of the attempt
+     */
+    @Benchmark
+    public ActionResult<Integer> tryApplyDisabled() {
+        return action.tryApply(disabledState);
+    }
+
+    /**
+     * Evaluates the guards only.
+     *
+     * @return true if the action is enabled
+     */
+    @Benchmark
+    public boolean isEnabled() {
+        return action.isEnabled(enabledState);
+    }
+}
@@ -0,0 +1,75 @@
+package nl.suriani.verifyj.benchmark;
+
+import nl.suriani.verifyj.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the hot loop of the {@link Simulator} on a synthetic specification, and how it scales with the number
+ * of properties and the length of the traces. Every operation is one simulation of exactly {@code traceLength} transitions,
+ * so the allocation rate per transition is {@code gc.alloc.rate.norm} (with {@code -prof gc}) divided by {@code traceLength}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SimulatorBenchmark {
+    /**
+     * The number of state properties, and of temporal properties, of the specification.
+     */
+    @Param({"0", "8", "32"})
+    public int propertyCount;
+
+    /**
+     * The number of transitions of every trace.
+     */
+    @Param({"100", "1000"})
+    public int traceLength;
+
+    private Simulator<Integer> simulator;
+    private Specification<Integer> specification;
+
+    /**
+     * Builds a random walk whose properties always hold, so that every simulation runs to its last transition.
+     */
+    @Setup
+    public void setUp() {
+        var init = new Init<>(() -> NonDet.withinRange(0, 10));
+        var step = new Step<>(
+                new NamedAction<Integer>("up", n -> n + NonDet.withinRange(1, 3)),
+                new NamedAction<Integer>("down", n -> n - NonDet.withinRange(1, 3), n -> n > 3),
+                new NamedAction<Integer>("reset", n -> 0, n -> n > 1000));
+
+        var stateProperties = new ArrayList<StateProperty<Integer>>();
+        var temporalProperties = new ArrayList<TemporalProperty<Integer>>();
+        for (var i = 0; i < propertyCount; i++) {
+            var bound = -i - 1;
+            stateProperties.add(new StateProperty<>("above " + bound, n -> n > bound));
+            temporalProperties.add(i % 2 == 0
+                    ? TemporalProperties.<Integer>always("always above " + bound, n -> n > bound)
+                    : TemporalProperties.<Integer>never("never below " + bound, n -> n < bound));
+        }
+
+        specification = new Specification<>(init, step)
+                .withStateProperty(stateProperties)
+                .withTemporalProperties(temporalProperties);
+        simulator = new Simulator<>(new SimulationOptions(1, traceLength, traceLength, false)
+                .withSeed(42L)
+                .withTraceRetention(TraceRetention.FAILURES, 1));
+    }
+
+    /**
+     * Runs a single simulation.
+     *
+     * @param counter the counter of transitions
+     * @return the report, consumed by JMH
+     */
+    @Benchmark
+    public Report<Integer> simulate(TransitionCounter counter) {
+        return simulator.run(specification, counter::count);
+    }
+}
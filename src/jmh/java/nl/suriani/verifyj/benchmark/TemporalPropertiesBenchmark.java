@@ -0,0 +1,104 @@
+package nl.suriani.verifyj.benchmark;
+
+import nl.suriani.verifyj.*;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the evaluation of {@link TemporalProperties} over a recorded trace, depending on its length,
+ * through their monitors and through a predicate over the whole list of transitions.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class TemporalPropertiesBenchmark {
+    /**
+     * The number of transitions of every trace.
+     */
+    @Param({"100", "1000", "10000"})
+    public int traceLength;
+
+    private List<Transition<Integer>> transitions;
+    private TemporalProperty<Integer> always;
+    private TemporalProperty<Integer> eventually;
+    private TemporalProperty<Integer> xThenEventuallyY;
+    private TemporalProperty<Integer> conjunction;
+    private TemporalProperty<Integer> buffered;
+
+    /**
+     * Records a trace counting up to {@code traceLength}, and properties that only settle at its end.
+     */
+    @Setup
+    public void setUp() {
+        transitions = new ArrayList<>(traceLength);
+        for (var i = 0; i < traceLength; i++) {
+            transitions.add(new Transition<>(i, i + 1, "increment", i + 1, i + 1));
+        }
+        var last = traceLength;
+        always = TemporalProperties.always("nonNegative", n -> n >= 0);
+        eventually = TemporalProperties.eventually("reachesTheEnd", n -> n == last);
+        xThenEventuallyY = TemporalProperties.xAndThenThenEventuallyY("evenThenOdd", n -> n % 2 == 0, n -> n % 2 == 1);
+        conjunction = always.and(eventually);
+        buffered = new TemporalProperty<>("allNonNegative", trace -> trace.stream().allMatch(t -> t.to() >= 0));
+    }
+
+    /**
+     * Evaluates an always property.
+     *
+     * @return the verdict
+     */
+    @Benchmark
+    public boolean always() {
+        return always.test(transitions);
+    }
+
+    /**
+     * Evaluates an eventually property, satisfied on the last transition.
+     *
+     * @return the verdict
+     */
+    @Benchmark
+    public boolean eventually() {
+        return eventually.test(transitions);
+    }
+
+    /**
+     * Evaluates a property whose trigger fires on every other transition.
+     *
+     * @return the verdict
+     */
+    @Benchmark
+    public boolean xThenEventuallyY() {
+        return xThenEventuallyY.test(transitions);
+    }
+
+    /**
+     * Evaluates the conjunction of two properties.
+     *
+     * @return the verdict
+     */
+    @Benchmark
+    public boolean conjunction() {
+        return conjunction.test(transitions);
+    }
+
+    /**
+     * Evaluates a property defined over the whole list of transitions, through its buffering monitor.
+     *
+     * @return the verdict
+     */
+    @Benchmark
+    public boolean buffered() {
+        var monitor = buffered.monitor().get();
+        for (var transition : transitions) {
+            monitor.next(transition);
+        }
+        return monitor.holds();
+    }
+}
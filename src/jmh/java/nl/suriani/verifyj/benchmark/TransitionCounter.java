@@ -0,0 +1,39 @@
+package nl.suriani.verifyj.benchmark;
+
+import nl.suriani.verifyj.OutcomeSimulation;
+import org.openjdk.jmh.annotations.AuxCounters;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Counts the transitions of the simulations run by a benchmark, reported by JMH as transitions per second
+ * next to the benchmark score.
+ */
+@State(Scope.Thread)
+@AuxCounters(AuxCounters.Type.OPERATIONS)
+public class TransitionCounter {
+    /**
+     * The number of transitions of the current iteration.
+     */
+    public long transitions;
+
+    /**
+     * Resets the counter at the start of every iteration.
+     */
+    @Setup(Level.Iteration)
+    public void reset() {
+        transitions = 0;
+    }
+
+    /**
+     * Counts the transitions of the given outcome simulation.
+     *
+     * @param outcomeSimulation the outcome simulation
+     * @param <M> the model type
+     */
+    public <M> void count(OutcomeSimulation<M> outcomeSimulation) {
+        transitions += outcomeSimulation.transitions().size();
+    }
+}
@@ -0,0 +1,43 @@
+package nl.suriani.verifyj.example.lift;
+
+import nl.suriani.verifyj.*;
+import nl.suriani.verifyj.benchmark.TransitionCounter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the simulation throughput of the {@link LiftSpecification} example.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LiftBenchmark {
+    private Simulator<Lift> simulator;
+    private Specification<Lift> specification;
+
+    /**
+     * Builds the specification of the example, running its simulations to their bounds.
+     */
+    @Setup
+    public void setUp() {
+        specification = LiftSpecification.specification();
+        simulator = new Simulator<>(new SimulationOptions(10, 6000, 2000, false)
+                .withSeed(42L)
+                .withTraceRetention(TraceRetention.FAILURES, 1));
+    }
+
+    /**
+     * Runs ten simulations.
+     *
+     * @param counter the counter of transitions
+     * @return the report, consumed by JMH
+     */
+    @Benchmark
+    public Report<Lift> simulate(TransitionCounter counter) {
+        return simulator.run(specification, counter::count);
+    }
+}
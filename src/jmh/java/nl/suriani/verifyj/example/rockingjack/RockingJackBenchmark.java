@@ -0,0 +1,75 @@
+package nl.suriani.verifyj.example.rockingjack;
+
+import nl.suriani.verifyj.*;
+import nl.suriani.verifyj.benchmark.TransitionCounter;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the simulation throughput of the {@link RockingJackSpecification} example, and the distinct states
+ * found per second, with and without coverage guidance.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RockingJackBenchmark {
+    /**
+     * How the simulations pick their actions.
+     */
+    @Param({"UNIFORM", "COVERAGE"})
+    public Guidance guidance;
+
+    private Simulator<RockingJack> simulator;
+    private Specification<RockingJack> specification;
+
+    /**
+     * Builds the specification of the example, running its simulations to their bounds.
+     */
+    @Setup
+    public void setUp() {
+        specification = RockingJackSpecification.specification();
+        simulator = new Simulator<>(new SimulationOptions(50, 500, 250, false)
+                .withSeed(42L)
+                .withTraceRetention(TraceRetention.FAILURES, 1)
+                .withCoverage(true)
+                .withGuidance(guidance));
+    }
+
+    /**
+     * Runs fifty simulations.
+     *
+     * @param counter the counter of transitions
+     * @param distinctStates the counter of distinct states
+     * @return the report, consumed by JMH
+     */
+    @Benchmark
+    public Report<RockingJack> simulate(TransitionCounter counter, DistinctStates distinctStates) {
+        var report = simulator.run(specification, counter::count);
+        distinctStates.states += report.coverage().distinctStates();
+        return report;
+    }
+
+    /**
+     * Counts the distinct states found by every run, reported by JMH as distinct states per second.
+     */
+    @State(Scope.Thread)
+    @AuxCounters(AuxCounters.Type.OPERATIONS)
+    public static class DistinctStates {
+        /**
+         * The number of distinct states found in the current iteration, summed over its runs.
+         */
+        public long states;
+
+        /**
+         * Resets the counter at the start of every iteration.
+         */
+        @Setup(Level.Iteration)
+        public void reset() {
+            states = 0;
+        }
+    }
+}
@@ -0,0 +1,70 @@
+package nl.suriani.verifyj;
+
+/**
+ * Represents the expression of an action that reports whether it applies through an {@link ActionResult}
+ * instead of throwing, so that rejected steps do not pay for exceptions.
+ * It can be used wherever an {@link Expression} is expected, for example in a {@link NamedAction}:
+ * <pre>{@code
+ * ActionExpression<Integer> decrement = n -> n > 0
+ *         ? ActionResult.applied(n - 1)
+ *         : ActionResult.preconditionRejected();
+ * var action = new NamedAction<>("decrement", decrement);
+ * }</pre>
+ *
+ * @param <M> the model type
+ */
+@FunctionalInterface
+public interface ActionExpression<M> extends Expression<M, M> {
+    /**
+     * Attempts to apply the expression to the given model.
+     *
+     * @param model the model to apply the expression to
+     * @return the result of the attempt
+     */
+    ActionResult<M> attempt(M model);
+
+    /**
+     * Applies the expression to the given model, throwing if it is not applicable.
+     *
+     * @param model the model to apply the expression to
+     * @return the new model
+     * @see ActionResult#orElseThrow()
+     */
+    @Override
+    default M apply(M model) {
+        return attempt(model).orElseThrow();
+    }
+
+    /**
+     * Attempts to apply any expression to the given model. Expressions that throw are adapted: an
+     * {@link IllegalArgumentException} or an {@link IllegalStateException} is a precondition rejection,
+     * a null result is a precondition rejection too, and any other exception is an error.
+     * An {@link ActionExpression} that throws instead of returning a result is an error, whatever the exception.
+     *
+     * @param expression the expression to apply
+     * @param model the model to apply the expression to
+     * @return the result of the attempt
+     * @param <M> the model type
+     */
+    static <M> ActionResult<M> attempt(Expression<M, M> expression, M model) {
+        if (expression instanceof ActionExpression<M> actionExpression) {
+            try {
+                return actionExpression.attempt(model);
+            } catch (TimeBudget.Exceeded e) {
+                throw e;
+            } catch (Exception e) {
+                return ActionResult.error(e);
+            }
+        }
+        try {
+            var newModel = expression.apply(model);
+            return newModel == null ? ActionResult.preconditionRejected() : ActionResult.applied(newModel);
+        } catch (TimeBudget.Exceeded e) {
+            throw e;
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            return ActionResult.preconditionRejected(e.getMessage());
+        } catch (Exception e) {
+            return ActionResult.error(e);
+        }
+    }
+}
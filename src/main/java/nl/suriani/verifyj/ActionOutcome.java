@@ -0,0 +1,29 @@
+package nl.suriani.verifyj;
+
+/**
+ * Enum representing the categories of the outcome of an attempt to apply an action, see {@link ActionResult}.
+ */
+public enum ActionOutcome {
+    /** The action was applied and produced a new state. */
+    APPLIED("Applied"),
+    /** A guard of the action did not pass. */
+    GUARD_REJECTED("Guard rejected"),
+    /** The action refused the state it was applied to. */
+    PRECONDITION_REJECTED("Precondition rejected"),
+    /** The action failed unexpectedly. */
+    ERROR("Error");
+
+    private final String value;
+
+    ActionOutcome(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the string value of the outcome.
+     * @return the outcome value
+     */
+    public String value() {
+        return value;
+    }
+}
@@ -0,0 +1,188 @@
+package nl.suriani.verifyj;
+
+import java.util.Objects;
+
+/**
+ * Represents the result of an attempt to apply an action, without throwing when the action is not applicable.
+ * Rejections that carry no information are shared instances, so rejecting a step allocates nothing.
+ *
+ * @param <M> the model type
+ * @see ActionExpression
+ */
+public sealed interface ActionResult<M> {
+    /**
+     * Returns the category of the result.
+     *
+     * @return the action outcome
+     */
+    ActionOutcome outcome();
+
+    /**
+     * Returns the new state if the action was applied, or throws the exception the action would have thrown otherwise:
+     * an {@link IllegalStateException} for a guard rejection, an {@link IllegalArgumentException} for a precondition
+     * rejection, and the cause of an error.
+     *
+     * @return the new state
+     */
+    M orElseThrow();
+
+    /**
+     * Returns the new state if the action was applied, or null otherwise.
+     *
+     * @return the new state, or null
+     */
+    default M orElseNull() {
+        return this instanceof Applied<M> applied ? applied.state() : null;
+    }
+
+    /**
+     * Creates the result of an action that was applied.
+     *
+     * @param state the new state
+     * @return an applied result
+     * @param <M> the model type
+     */
+    static <M> ActionResult<M> applied(M state) {
+        return new Applied<>(state);
+    }
+
+    /**
+     * Returns the result of an action whose guard did not pass.
+     *
+     * @return a guard rejection
+     * @param <M> the model type
+     */
+    @SuppressWarnings("unchecked")
+    static <M> ActionResult<M> guardRejected() {
+        return (ActionResult<M>) GuardRejected.INSTANCE;
+    }
+
+    /**
+     * Returns the result of an action that refused the state it was applied to.
+     *
+     * @return a precondition rejection
+     * @param <M> the model type
+     */
+    @SuppressWarnings("unchecked")
+    static <M> ActionResult<M> preconditionRejected() {
+        return (ActionResult<M>) PreconditionRejected.INSTANCE;
+    }
+
+    /**
+     * Creates the result of an action that refused the state it was applied to, for the given reason.
+     *
+     * @param reason the reason of the rejection
+     * @return a precondition rejection
+     * @param <M> the model type
+     */
+    static <M> ActionResult<M> preconditionRejected(String reason) {
+        return new PreconditionRejected<>(reason);
+    }
+
+    /**
+     * Creates the result of an action that failed unexpectedly.
+     *
+     * @param cause the exception thrown by the action
+     * @return an error
+     * @param <M> the model type
+     */
+    static <M> ActionResult<M> error(Exception cause) {
+        return new Failed<>(cause);
+    }
+
+    /**
+     * The result of an action that was applied.
+     *
+     * @param state the new state
+     * @param <M> the model type
+     */
+    record Applied<M>(M state) implements ActionResult<M> {
+        /**
+         * Constructs an Applied result with validation.
+         *
+         * @param state the new state
+         */
+        public Applied {
+            Objects.requireNonNull(state, "state is null");
+        }
+
+        @Override
+        public ActionOutcome outcome() {
+            return ActionOutcome.APPLIED;
+        }
+
+        @Override
+        public M orElseThrow() {
+            return state;
+        }
+    }
+
+    /**
+     * The result of an action whose guard did not pass.
+     *
+     * @param <M> the model type
+     */
+    record GuardRejected<M>() implements ActionResult<M> {
+        private static final GuardRejected<?> INSTANCE = new GuardRejected<>();
+
+        @Override
+        public ActionOutcome outcome() {
+            return ActionOutcome.GUARD_REJECTED;
+        }
+
+        @Override
+        public M orElseThrow() {
+            throw new IllegalStateException();
+        }
+    }
+
+    /**
+     * The result of an action that refused the state it was applied to.
+     *
+     * @param reason the reason of the rejection, possibly null
+     * @param <M> the model type
+     */
+    record PreconditionRejected<M>(String reason) implements ActionResult<M> {
+        private static final PreconditionRejected<?> INSTANCE = new PreconditionRejected<>(null);
+
+        @Override
+        public ActionOutcome outcome() {
+            return ActionOutcome.PRECONDITION_REJECTED;
+        }
+
+        @Override
+        public M orElseThrow() {
+            throw new IllegalArgumentException(reason);
+        }
+    }
+
+    /**
+     * The result of an action that failed unexpectedly.
+     *
+     * @param cause the exception thrown by the action
+     * @param <M> the model type
+     */
+    record Failed<M>(Exception cause) implements ActionResult<M> {
+        /**
+         * Constructs a Failed result with validation.
+         *
+         * @param cause the exception thrown by the action
+         */
+        public Failed {
+            Objects.requireNonNull(cause, "cause is null");
+        }
+
+        @Override
+        public ActionOutcome outcome() {
+            return ActionOutcome.ERROR;
+        }
+
+        @Override
+        public M orElseThrow() {
+            if (cause instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(cause);
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package nl.suriani.verifyj;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Explores every state reachable from the initial states, level by level, enumerating every action of the step
+ * and every combination of the {@link NonDet} choices they make.
+ * Visited states are kept as fingerprints only (see {@link Specification#canonicalFingerprint()}), together with the fingerprint
+ * of their predecessor, from which counterexamples are rebuilt.
+ * State properties are checked on every initial state and every state reached by a transition, and the first violation
+ * found comes with a shortest counterexample, which is empty if an initial state violates them. Temporal properties are not checked, as they are defined over single traces.
+ * <p>
+ * The visited fingerprints and the frontier are kept by a {@link StateStorage}, on the heap by default,
+ * or spilling to disk for state spaces that do not fit in memory.
+ *
+ * @param <M> the model type
+ */
+public class BreadthFirstExplorer<M> implements ExecutionModel<M, ExplorationReport<M>> {
+    private final ExplorationOptions explorationOptions;
+    private final StateStorage<M> storage;
+
+    /**
+     * Constructs a BreadthFirstExplorer with the given exploration options, keeping its states on the heap.
+     *
+     * @param explorationOptions the exploration options
+     */
+    public BreadthFirstExplorer(ExplorationOptions explorationOptions) {
+        this(explorationOptions, StateStorage.inMemory());
+    }
+
+    /**
+     * Constructs a BreadthFirstExplorer with the given exploration options and storage.
+     *
+     * @param explorationOptions the exploration options
+     * @param storage the storage of the visited states and the frontier
+     */
+    public BreadthFirstExplorer(ExplorationOptions explorationOptions, StateStorage<M> storage) {
+        this.explorationOptions = explorationOptions;
+        this.storage = Objects.requireNonNull(storage);
+    }
+
+    /**
+     * Explores the state space of the given specification and returns a report.
+     *
+     * @param spec the specification to explore
+     * @return the report of the exploration
+     */
+    @Override
+    public ExplorationReport<M> run(Specification<M> spec) {
+        try (var visited = storage.visited(1); var frontier = storage.frontier()) {
+            return explore(spec, visited, frontier, System.nanoTime());
+        }
+    }
+
+    private ExplorationReport<M> explore(Specification<M> spec, FingerprintStore visited, Frontier<M> frontier, long start) {
+        var fingerprint = spec.canonicalFingerprint();
+
+        var initialStates = new ChoiceEnumerator<M>();
+        initialStates.reset(() -> spec.init().apply(null));
+        var transitionsCount = 0L;
+        var depth = 0;
+        while (initialStates.advance()) {
+            var state = initialStates.current();
+            var stateFingerprint = fingerprint.of(state);
+            if (isBeyondLimit(visited, stateFingerprint)) {
+                return report(spec, ExplorationStatus.INCOMPLETE, visited, frontier, transitionsCount, depth,
+                        List.of(), List.of(), start);
+            }
+            if (!visited.add(stateFingerprint, FingerprintPaths.ROOT)) {
+                continue;
+            }
+
+            var failingStateProperties = failingStateProperties(spec, state);
+            if (!failingStateProperties.isEmpty()) {
+                return report(spec, ExplorationStatus.FAILED_STATE_PROPERTIES, visited, frontier, transitionsCount,
+                        depth, List.of(), failingStateProperties, start);
+            }
+            frontier.add(state);
+        }
+
+        if (frontier.isEmpty()) {
+            return new ExplorationReport<>(ExplorationStatus.FAILED_INIT, 0, 0, 0, List.of(), List.of(), 0.0);
+        }
+
+        var successors = new Successors<M>(spec.step());
+        var level = 0;
+
+        while (!frontier.isEmpty() && level < explorationOptions.maxDepth()) {
+            level++;
+
+            for (var remaining = frontier.size(); remaining > 0; remaining--) {
+                var state = frontier.poll();
+                var stateFingerprint = fingerprint.of(state);
+                successors.reset(state);
+
+                while (successors.advance()) {
+                    transitionsCount++;
+                    var newState = successors.successor();
+                    var newFingerprint = fingerprint.of(newState);
+                    if (isBeyondLimit(visited, newFingerprint)) {
+                        return report(spec, ExplorationStatus.INCOMPLETE, visited, frontier, transitionsCount, depth,
+                                List.of(), List.of(), start);
+                    }
+                    if (!visited.add(newFingerprint, stateFingerprint)) {
+                        continue;
+                    }
+                    depth = level;
+
+                    var failingStateProperties = failingStateProperties(spec, newState);
+                    if (!failingStateProperties.isEmpty()) {
+                        var path = FingerprintPaths.chain(newFingerprint, f -> visited.get(f, FingerprintPaths.ROOT));
+                        return report(spec, ExplorationStatus.FAILED_STATE_PROPERTIES, visited, frontier, transitionsCount,
+                                depth, FingerprintPaths.replay(spec, path), failingStateProperties, start);
+                    }
+
+                    frontier.add(newState);
+                }
+            }
+        }
+
+        var status = frontier.isEmpty() ? ExplorationStatus.COMPLETE : ExplorationStatus.INCOMPLETE;
+        return report(spec, status, visited, frontier, transitionsCount, depth, List.of(), List.of(), start);
+    }
+
+    /**
+     * Tells whether the state with the given fingerprint is new while the maximum number of states is already visited,
+     * so that the exploration is only reported incomplete if some state is actually left out.
+     */
+    private boolean isBeyondLimit(FingerprintStore visited, long fingerprint) {
+        return visited.size() >= explorationOptions.maxStates() && !visited.contains(fingerprint);
+    }
+
+    private ExplorationReport<M> report(Specification<M> spec, ExplorationStatus status, FingerprintStore visited,
+                                        Frontier<M> frontier, long transitions, int depth, List<Transition<M>> counterExample,
+                                        List<String> failedStateProperties, long start) {
+        return new ExplorationReport<>(status, visited.size(), transitions, depth, counterExample, failedStateProperties,
+                visited.collisionProbability(spec.fingerprint().bits()), Duration.ofNanos(System.nanoTime() - start),
+                visited.metrics().plus(frontier.metrics()));
+    }
+
+    private List<String> failingStateProperties(Specification<M> spec, M state) {
+        return spec.stateProperties().stream()
+                .filter(stateProperty -> !stateProperty.test(state))
+                .map(StateProperty::name)
+                .toList();
+    }
+}
@@ -0,0 +1,62 @@
+package nl.suriani.verifyj;
+
+import java.util.function.Supplier;
+
+/**
+ * Enumerates the values a supplier produces across every combination of the {@link NonDet} choices it makes.
+ * Combinations for which the supplier throws or returns null are skipped, like rejected attempts of a simulation.
+ *
+ * @param <T> the type of the produced values
+ */
+final class ChoiceEnumerator<T> {
+    private final EnumeratedChoices choices = new EnumeratedChoices();
+    private Supplier<T> supplier;
+    private boolean exhausted = true;
+    private T current;
+
+    /**
+     * Restarts the enumeration over the given supplier.
+     *
+     * @param supplier the supplier whose values to enumerate
+     */
+    void reset(Supplier<T> supplier) {
+        this.supplier = supplier;
+        this.choices.reset();
+        this.exhausted = false;
+        this.current = null;
+    }
+
+    /**
+     * Moves to the next value produced by the supplier.
+     *
+     * @return true if a value was produced, false if all the combinations of choices were enumerated
+     */
+    boolean advance() {
+        while (!exhausted) {
+            T value;
+            try {
+                value = NonDetContext.callWith(choices, supplier);
+            } catch (RuntimeException e) {
+                if (choices.randomRequested()) {
+                    throw e;
+                }
+                value = null;
+            }
+            exhausted = !choices.advance();
+            if (value != null) {
+                current = value;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the value produced by the last successful call to {@link #advance()}.
+     *
+     * @return the current value
+     */
+    T current() {
+        return current;
+    }
+}
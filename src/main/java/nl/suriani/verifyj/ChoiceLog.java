@@ -0,0 +1,130 @@
+package nl.suriani.verifyj;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * A choice source recording every value drawn from another one, so that a simulation can be replayed
+ * by a {@link ChoiceReplay} without drawing anything at random.
+ * Choices are recorded as {@code long}s: the alternative chosen, or the bits of a value drawn from {@link #random()}.
+ * <p>
+ * The generator returned by {@link #random()} records the values of its {@code nextInt}, {@code nextLong},
+ * {@code nextDouble} and {@code nextBoolean} methods. Other draws are derived from these, so they are recorded too,
+ * but may differ from the ones the unrecorded generator would have made.
+ */
+final class ChoiceLog implements ChoiceSource {
+    private static final int INITIAL_CAPACITY = 64;
+
+    private final ChoiceSource delegate;
+    private RandomGenerator random;
+    private long[] values = new long[INITIAL_CAPACITY];
+    private int size;
+
+    /**
+     * Constructs a ChoiceLog recording the choices drawn from the given source.
+     *
+     * @param delegate the source the choices are drawn from
+     */
+    ChoiceLog(ChoiceSource delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public int choose(int bound) {
+        return (int) record(delegate.choose(bound));
+    }
+
+    @Override
+    public RandomGenerator random() {
+        if (random == null) {
+            random = new Recording(delegate.random());
+        }
+        return random;
+    }
+
+    /**
+     * Returns the number of choices recorded.
+     *
+     * @return the number of choices
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Forgets the choices recorded after the given number of choices, such as the ones of a rejected attempt.
+     *
+     * @param size the number of choices to keep
+     */
+    void truncate(int size) {
+        this.size = size;
+    }
+
+    /**
+     * Returns a copy of the recorded choices.
+     *
+     * @return the recorded choices
+     */
+    long[] toArray() {
+        return Arrays.copyOf(values, size);
+    }
+
+    private long record(long value) {
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+        return value;
+    }
+
+    /**
+     * A generator recording the values drawn from another one.
+     */
+    private final class Recording implements RandomGenerator {
+        private final RandomGenerator generator;
+
+        Recording(RandomGenerator generator) {
+            this.generator = generator;
+        }
+
+        @Override
+        public long nextLong() {
+            return record(generator.nextLong());
+        }
+
+        @Override
+        public long nextLong(long bound) {
+            return record(generator.nextLong(bound));
+        }
+
+        @Override
+        public long nextLong(long origin, long bound) {
+            return record(generator.nextLong(origin, bound));
+        }
+
+        @Override
+        public int nextInt() {
+            return (int) record(generator.nextInt());
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return (int) record(generator.nextInt(bound));
+        }
+
+        @Override
+        public int nextInt(int origin, int bound) {
+            return (int) record(generator.nextInt(origin, bound));
+        }
+
+        @Override
+        public double nextDouble() {
+            return Double.longBitsToDouble(record(Double.doubleToRawLongBits(generator.nextDouble())));
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return record(generator.nextBoolean() ? 1L : 0L) != 0L;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+package nl.suriani.verifyj;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * A choice source handing out choices recorded by a {@link ChoiceLog}, in order, one range at a time.
+ * Running out of choices, or being asked a choice that does not fit its bound, means that the specification
+ * no longer makes the choices it made when they were recorded. A strict replay fails, while a lenient one,
+ * replaying a trace edited by a {@link Shrinker}, makes the closest valid choice instead: the first alternative
+ * once the choices run out, and the recorded choice wrapped around the bound when it does not fit.
+ */
+final class ChoiceReplay implements ChoiceSource {
+    private final long[] values;
+    private final boolean lenient;
+    private final RandomGenerator random = new Replaying();
+    private int position;
+    private int end;
+
+    /**
+     * Constructs a strict ChoiceReplay over the given recorded choices, with an empty range.
+     *
+     * @param values the recorded choices
+     */
+    ChoiceReplay(long[] values) {
+        this(values, false);
+    }
+
+    /**
+     * Constructs a ChoiceReplay over the given recorded choices, with an empty range.
+     *
+     * @param values the recorded choices
+     * @param lenient whether choices that do not fit are replaced rather than rejected
+     */
+    ChoiceReplay(long[] values, boolean lenient) {
+        this.values = values;
+        this.lenient = lenient;
+    }
+
+    /**
+     * Restricts the choices handed out to the given range of the recorded ones.
+     *
+     * @param from the index of the first choice, inclusive
+     * @param to the index of the last choice, exclusive
+     */
+    void seek(int from, int to) {
+        this.position = from;
+        this.end = to;
+    }
+
+    /**
+     * Returns true if every choice of the range was handed out.
+     *
+     * @return true if the range is exhausted
+     */
+    boolean exhausted() {
+        return position == end;
+    }
+
+    @Override
+    public int choose(int bound) {
+        return (int) bounded(next(), 0, bound);
+    }
+
+    @Override
+    public RandomGenerator random() {
+        return random;
+    }
+
+    private long next() {
+        if (position == end) {
+            if (lenient) {
+                return 0L;
+            }
+            throw new IllegalStateException("No recorded choice left");
+        }
+        return values[position++];
+    }
+
+    private long bounded(long value, long origin, long bound) {
+        if (value >= origin && value < bound) {
+            return value;
+        }
+        if (lenient) {
+            return origin + Math.floorMod(value - origin, bound - origin);
+        }
+        throw new IllegalStateException("Recorded choice " + value + " is out of range [" + origin + ", " + bound + ")");
+    }
+
+    /**
+     * A generator handing out the recorded values, mirroring the methods recorded by {@link ChoiceLog}.
+     */
+    private final class Replaying implements RandomGenerator {
+        @Override
+        public long nextLong() {
+            return next();
+        }
+
+        @Override
+        public long nextLong(long bound) {
+            return bounded(next(), 0, bound);
+        }
+
+        @Override
+        public long nextLong(long origin, long bound) {
+            return bounded(next(), origin, bound);
+        }
+
+        @Override
+        public int nextInt() {
+            return (int) next();
+        }
+
+        @Override
+        public int nextInt(int bound) {
+            return (int) bounded(next(), 0, bound);
+        }
+
+        @Override
+        public int nextInt(int origin, int bound) {
+            return (int) bounded(next(), origin, bound);
+        }
+
+        @Override
+        public double nextDouble() {
+            return Double.longBitsToDouble(next());
+        }
+
+        @Override
+        public boolean nextBoolean() {
+            return next() != 0L;
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package nl.suriani.verifyj;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Resolves the choices made through {@link NonDet}. A simulation draws them at random,
+ * while an exhaustive exploration enumerates them.
+ */
+interface ChoiceSource {
+    /**
+     * Returns a choice between 0 (inclusive) and the given bound (exclusive).
+     *
+     * @param bound the number of alternatives, at least 1
+     * @return the chosen alternative
+     */
+    int choose(int bound);
+
+    /**
+     * Returns the random generator behind this source, for draws that cannot be enumerated.
+     *
+     * @return the random generator
+     * @throws IllegalStateException if the choices are not drawn at random
+     */
+    RandomGenerator random();
+
+    /**
+     * Returns a source drawing every choice from the given generator.
+     *
+     * @param random the generator to draw from
+     * @return a random choice source
+     */
+    static ChoiceSource of(RandomGenerator random) {
+        return new ChoiceSource() {
+            @Override
+            public int choose(int bound) {
+                return random.nextInt(bound);
+            }
+
+            @Override
+            public RandomGenerator random() {
+                return random;
+            }
+        };
+    }
+}
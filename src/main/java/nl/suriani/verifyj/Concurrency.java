@@ -0,0 +1,16 @@
+package nl.suriani.verifyj;
+
+/**
+ * Enum representing how the simulations of a run are scheduled.
+ */
+public enum Concurrency {
+    /** Simulations are run one after the other on the calling thread. */
+    SEQUENTIAL,
+    /** Simulations are spread across a dedicated fork-join pool. */
+    FORK_JOIN,
+    /**
+     * Every simulation runs on a virtual thread of its own, with at most as many running at once as the parallelism.
+     * Suited to specifications whose actions block, as a blocked simulation releases its carrier thread to the others.
+     */
+    VIRTUAL_THREADS
+}
@@ -1,22 +1,40 @@
 package nl.suriani.verifyj;
 
+import java.util.List;
 import java.util.Objects;
 
 /**
- * Represents a counterexample found during verification, containing the failed property and the transition where it failed.
+ * Represents a counterexample found during verification, containing the failed property and the transition where it failed,
+ * together with the transitions leading to it, such as the minimal ones found by a {@link Shrinker}.
  *
+ * @param failedProperty the property that failed
+ * @param transition the transition where the failure occurred
+ * @param transitions the transitions of the counterexample, ending with the failing transition
  * @param <M> the model type
  */
 public record CounterExample<M>(Property failedProperty,
-                                Transition<M> transition) {
+                                Transition<M> transition,
+                                List<Transition<M>> transitions) {
     /**
-     * Constructs a CounterExample with the given failed property and transition.
+     * Constructs a CounterExample with the given failed property, transition and transitions leading to it.
      *
      * @param failedProperty the property that failed
      * @param transition the transition where the failure occurred
+     * @param transitions the transitions of the counterexample
      */
     public CounterExample {
         Objects.requireNonNull(failedProperty);
         Objects.requireNonNull(transition);
+        transitions = List.copyOf(transitions);
+    }
+
+    /**
+     * Constructs a CounterExample with the given failed property and transition.
+     *
+     * @param failedProperty the property that failed
+     * @param transition the transition where the failure occurred
+     */
+    public CounterExample(Property failedProperty, Transition<M> transition) {
+        this(failedProperty, transition, List.of(transition));
     }
 }
@@ -0,0 +1,26 @@
+package nl.suriani.verifyj;
+
+/**
+ * Represents the state-space coverage of a simulation run, measured through state fingerprints.
+ *
+ * @param distinctStates the number of distinct states reached across all simulations
+ * @param collisionProbability the estimated probability that two distinct states were counted as one
+ */
+public record Coverage(long distinctStates, double collisionProbability) {
+    /**
+     * The coverage of a run that did not track it.
+     */
+    public static final Coverage NONE = new Coverage(0, 0.0);
+
+    /**
+     * Constructs a Coverage record with validation.
+     *
+     * @param distinctStates the number of distinct states
+     * @param collisionProbability the estimated collision probability
+     */
+    public Coverage {
+        if (distinctStates < 0) {
+            throw new IllegalArgumentException("distinctStates must be non-negative");
+        }
+    }
+}
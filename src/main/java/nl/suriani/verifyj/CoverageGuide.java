@@ -0,0 +1,231 @@
+package nl.suriani.verifyj;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.random.RandomGenerator;
+
+/**
+ * Steers the simulations of a run toward the states no simulation reached yet, like a coverage-guided fuzzer
+ * steers its inputs. It is shared by the simulations of the run, possibly across threads.
+ * <p>
+ * Every action is weighted by the share of its transitions that reached a new state, so the actions that keep
+ * reaching known states are picked less and less often, though never ruled out. A simulation that reached new states
+ * leaves the prefix of its trace ending with the last of them in a bounded corpus, and half of the following simulations
+ * start by replaying a random part of one of these prefixes, with the choices it made, before walking on at random
+ * from the state it reached, which leaves room in their transition budget to go beyond it. As the prefix is part
+ * of the trace, counterexamples still start from the initialization.
+ */
+final class CoverageGuide {
+    private static final int CORPUS_SIZE = 1024;
+    private static final double MIN_WEIGHT = 0.05;
+
+    private final AtomicLongArray applied;
+    private final AtomicLongArray discovered;
+    private final Prefix[] corpus = new Prefix[CORPUS_SIZE];
+    private long corpusAdded;
+
+    /**
+     * Constructs a CoverageGuide for a specification with the given number of actions.
+     *
+     * @param actionCount the number of actions of the step
+     */
+    CoverageGuide(int actionCount) {
+        this.applied = new AtomicLongArray(actionCount);
+        this.discovered = new AtomicLongArray(actionCount);
+    }
+
+    /**
+     * Starts the walk of a simulation, replaying a prefix of the corpus or not.
+     *
+     * @param random the source the simulation draws from
+     * @return the walk, the choice source the simulation must draw from
+     */
+    Walk walk(ChoiceSource random) {
+        var prefix = random.random().nextBoolean() ? pickPrefix(random.random()) : null;
+        return new Walk(random, prefix);
+    }
+
+    /**
+     * Returns the number of prefixes in the corpus.
+     *
+     * @return the corpus size
+     */
+    synchronized int corpusSize() {
+        return (int) Math.min(corpusAdded, CORPUS_SIZE);
+    }
+
+    private synchronized Prefix pickPrefix(RandomGenerator random) {
+        var size = corpusSize();
+        return size == 0 ? null : corpus[random.nextInt(size)];
+    }
+
+    private synchronized void keep(Prefix prefix) {
+        corpus[(int) (corpusAdded++ % CORPUS_SIZE)] = prefix;
+    }
+
+    private double weight(int action) {
+        return MIN_WEIGHT + (discovered.get(action) + 1.0) / (applied.get(action) + 1.0);
+    }
+
+    /**
+     * The beginning of a simulation that reached a new state: its actions and the choices they made.
+     *
+     * @param actions the action index of every transition
+     * @param choices the choices of the initialization and the transitions
+     * @param choiceEnds where the choices of the initialization, then of every transition, end
+     */
+    private record Prefix(int[] actions, long[] choices, int[] choiceEnds) { }
+
+    /**
+     * The walk of a single simulation, and the source of its choices: the recorded ones while a prefix is replayed,
+     * then random ones.
+     */
+    final class Walk implements ChoiceSource {
+        private final ChoiceSource random;
+        private final Prefix prefix;
+        private final ChoiceReplay replay;
+        private final int replayed;
+        private final RandomGenerator generator = new Switching();
+        private boolean replaying;
+        private int forcedAt = -1;
+        private int lastDiscovery;
+
+        private Walk(ChoiceSource random, Prefix prefix) {
+            this.random = random;
+            this.prefix = prefix;
+            this.replay = prefix == null ? null : new ChoiceReplay(prefix.choices(), true);
+            this.replayed = prefix == null ? 0 : 1 + random.random().nextInt(prefix.actions().length);
+            this.replaying = prefix != null;
+            if (replaying) {
+                replay.seek(0, prefix.choiceEnds()[0]);
+            }
+        }
+
+        @Override
+        public int choose(int bound) {
+            return replaying ? replay.choose(bound) : random.choose(bound);
+        }
+
+        @Override
+        public RandomGenerator random() {
+            return generator;
+        }
+
+        /**
+         * Picks the action to attempt after the given number of transitions: the one of the prefix while it is
+         * replayed, otherwise one drawn at random by weight. The replay stops as soon as the prefix diverges,
+         * when its action is disabled or rejected.
+         *
+         * @param enabledActions the indexes of the enabled actions
+         * @param enabledCount the number of enabled actions
+         * @param position the number of transitions so far
+         * @return the index of the action to attempt
+         */
+        int pick(int[] enabledActions, int enabledCount, int position) {
+            if (replaying && position < replayed && position != forcedAt) {
+                var action = prefix.actions()[position];
+                for (var i = 0; i < enabledCount; i++) {
+                    if (enabledActions[i] == action) {
+                        forcedAt = position;
+                        replay.seek(prefix.choiceEnds()[position], prefix.choiceEnds()[position + 1]);
+                        return action;
+                    }
+                }
+            }
+            replaying = false;
+
+            var total = 0.0;
+            for (var i = 0; i < enabledCount; i++) {
+                total += weight(enabledActions[i]);
+            }
+            var target = random.random().nextDouble() * total;
+            for (var i = 0; i < enabledCount - 1; i++) {
+                target -= weight(enabledActions[i]);
+                if (target < 0) {
+                    return enabledActions[i];
+                }
+            }
+            return enabledActions[enabledCount - 1];
+        }
+
+        /**
+         * Records that the given action was applied, reaching the transition at the given position.
+         *
+         * @param action the index of the action applied
+         * @param position the number of transitions including this one
+         * @param novel whether the state reached was not reached by any simulation before
+         */
+        void applied(int action, int position, boolean novel) {
+            applied.incrementAndGet(action);
+            if (novel) {
+                discovered.incrementAndGet(action);
+                lastDiscovery = position;
+            }
+        }
+
+        /**
+         * Ends the walk, keeping the prefix of the trace ending with its last new state in the corpus,
+         * unless that state was reached while replaying.
+         *
+         * @param trace the trace of the simulation, with its choices
+         */
+        void finish(Trace<?> trace) {
+            if (lastDiscovery == 0 || lastDiscovery <= replayed) {
+                return;
+            }
+            var choiceEnds = Arrays.copyOf(trace.recordedChoiceEnds(), lastDiscovery + 1);
+            keep(new Prefix(Arrays.copyOf(trace.recordedActions(), lastDiscovery),
+                    Arrays.copyOf(trace.choices().toArray(), choiceEnds[lastDiscovery]), choiceEnds));
+        }
+
+        /**
+         * A generator drawing from the replayed prefix or at random, whichever the walk currently draws from,
+         * so that it can be cached by a {@link ChoiceLog}.
+         */
+        private final class Switching implements RandomGenerator {
+            private RandomGenerator current() {
+                return replaying ? replay.random() : random.random();
+            }
+
+            @Override
+            public long nextLong() {
+                return current().nextLong();
+            }
+
+            @Override
+            public long nextLong(long bound) {
+                return current().nextLong(bound);
+            }
+
+            @Override
+            public long nextLong(long origin, long bound) {
+                return current().nextLong(origin, bound);
+            }
+
+            @Override
+            public int nextInt() {
+                return current().nextInt();
+            }
+
+            @Override
+            public int nextInt(int bound) {
+                return current().nextInt(bound);
+            }
+
+            @Override
+            public int nextInt(int origin, int bound) {
+                return current().nextInt(origin, bound);
+            }
+
+            @Override
+            public double nextDouble() {
+                return current().nextDouble();
+            }
+
+            @Override
+            public boolean nextBoolean() {
+                return current().nextBoolean();
+            }
+        }
+    }
+}
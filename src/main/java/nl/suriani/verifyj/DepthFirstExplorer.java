@@ -0,0 +1,307 @@
+package nl.suriani.verifyj;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Explores every sequence of actions from the initial states up to the maximum depth, depth first, enumerating every
+ * combination of the {@link NonDet} choices the actions make, like {@link BreadthFirstExplorer} does level by level.
+ * Only the current path is kept, as a stack of successor enumerations and a {@link Trace} truncated on backtracking,
+ * so a search without pruning takes memory in the depth only, however wide the step is.
+ * State properties are checked on every initial state and every state reached by a transition.
+ * <p>
+ * Without pruning, every path is followed, and the temporal properties are checked on every path ending at
+ * the maximum depth or in a state without successors, the same way a simulation of that path would check them.
+ * The number of distinct states reported is then the number of states visited along all paths, as none is remembered.
+ * <p>
+ * With pruning, the fingerprint of every state is kept (see {@link Specification#canonicalFingerprint()}) with
+ * the smallest depth it was reached at, and a state is expanded again only when reached at a smaller depth, so that
+ * the states within the bound are all visited. Paths through visited states are cut, so temporal properties are not checked.
+ * <p>
+ * With iterative deepening, the search is run again with a depth bound growing by one up to the maximum depth,
+ * so that the first counterexample found is a shortest one, at the cost of re-exploring the shallower levels.
+ * The paths cut by a bound smaller than the maximum depth are not checked against the temporal properties,
+ * as the next iteration follows them further.
+ *
+ * @param <M> the model type
+ */
+public class DepthFirstExplorer<M> implements ExecutionModel<M, ExplorationReport<M>> {
+    private final ExplorationOptions explorationOptions;
+    private final boolean pruning;
+    private final boolean iterativeDeepening;
+
+    /**
+     * Constructs a DepthFirstExplorer with the given exploration options, pruning visited states, without
+     * iterative deepening.
+     *
+     * @param explorationOptions the exploration options
+     */
+    public DepthFirstExplorer(ExplorationOptions explorationOptions) {
+        this(explorationOptions, true, false);
+    }
+
+    /**
+     * Constructs a DepthFirstExplorer with the given exploration options.
+     *
+     * @param explorationOptions the exploration options, whose maximum depth bounds every path
+     * @param pruning whether the paths through states visited at a smaller or equal depth are cut
+     * @param iterativeDeepening whether the depth bound grows by one up to the maximum depth
+     */
+    public DepthFirstExplorer(ExplorationOptions explorationOptions, boolean pruning, boolean iterativeDeepening) {
+        this.explorationOptions = explorationOptions;
+        this.pruning = pruning;
+        this.iterativeDeepening = iterativeDeepening;
+    }
+
+    /**
+     * Explores the state space of the given specification and returns a report.
+     *
+     * @param spec the specification to explore
+     * @return the report of the exploration
+     */
+    @Override
+    public ExplorationReport<M> run(Specification<M> spec) {
+        var start = System.nanoTime();
+        var roots = new ArrayList<M>();
+        var initialStates = new ChoiceEnumerator<M>();
+        initialStates.reset(() -> spec.init().apply(null));
+        while (initialStates.advance()) {
+            roots.add(initialStates.current());
+        }
+        if (roots.isEmpty()) {
+            return new ExplorationReport<>(ExplorationStatus.FAILED_INIT, 0, 0, 0, List.of(), List.of(), 0.0);
+        }
+
+        var transitions = 0L;
+        var bound = iterativeDeepening ? 1 : explorationOptions.maxDepth();
+        while (true) {
+            var search = new Search(spec, bound);
+            search.explore(roots);
+            transitions += search.transitions;
+            if (!search.cut || search.status != ExplorationStatus.INCOMPLETE || bound == explorationOptions.maxDepth()
+                    || search.limited) {
+                return search.report(transitions, start);
+            }
+            bound++;
+        }
+    }
+
+    /**
+     * A single depth-first search with a given depth bound.
+     */
+    private final class Search {
+        private final Specification<M> spec;
+        private final Fingerprint<M> fingerprint;
+        private final int bound;
+        private final String[] actionNames;
+        private final StateProperty<M>[] stateProperties;
+        private final FingerprintSet visited;
+        private final List<Successors<M>> frames = new ArrayList<>();
+        private ExplorationStatus status = ExplorationStatus.COMPLETE;
+        private List<Transition<M>> counterExample = List.of();
+        private List<String> failedStateProperties = List.of();
+        private List<String> failedTemporalProperties = List.of();
+        private long states;
+        private long transitions;
+        private int depth;
+        private boolean cut;
+        private boolean limited;
+
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Search(Specification<M> spec, int bound) {
+            this.spec = spec;
+            this.fingerprint = spec.canonicalFingerprint();
+            this.bound = bound;
+            this.actionNames = spec.step().actions().stream()
+                    .map(NamedAction::name)
+                    .toArray(String[]::new);
+            this.stateProperties = spec.stateProperties().toArray(new StateProperty[0]);
+            this.visited = pruning ? new FingerprintSet(1, true) : null;
+        }
+
+        void explore(List<M> roots) {
+            var distinctRoots = new ArrayList<M>();
+            for (var root : roots) {
+                var rootFingerprint = pruning ? fingerprint.of(root) : 0L;
+                if (pruning && visited.contains(rootFingerprint)) {
+                    continue;
+                }
+                if (isFull()) {
+                    refuse();
+                    return;
+                }
+                if (pruning) {
+                    visited.add(rootFingerprint, 0L);
+                }
+                states++;
+                var failing = failingStateProperties(root);
+                if (!failing.isEmpty()) {
+                    status = ExplorationStatus.FAILED_STATE_PROPERTIES;
+                    failedStateProperties = failing;
+                    return;
+                }
+                distinctRoots.add(root);
+            }
+            for (var root : distinctRoots) {
+                if (!explore(root)) {
+                    return;
+                }
+            }
+        }
+
+        /**
+         * Explores the paths from the given initial state.
+         *
+         * @param root the initial state
+         * @return false if the search must stop
+         */
+        private boolean explore(M root) {
+            var trace = new Trace<>(actionNames, root, Math.min(bound, 1024));
+            var expanded = new boolean[Math.min(bound, 1024) + 1];
+            frame(0).reset(root);
+            var level = 0;
+
+            while (level >= 0) {
+                var frame = frames.get(level);
+                if (!frame.advance()) {
+                    if (!pruning && !expanded[level] && !checkTemporalProperties(trace)) {
+                        return false;
+                    }
+                    level--;
+                    if (level >= 0) {
+                        trace.truncate(level);
+                    }
+                    continue;
+                }
+                expanded[level] = true;
+                transitions++;
+
+                var newState = frame.successor();
+                var newLevel = level + 1;
+                if (pruning) {
+                    var newFingerprint = fingerprint.of(newState);
+                    if (visited.get(newFingerprint, Long.MAX_VALUE) <= newLevel) {
+                        continue;
+                    }
+                    if (!visited.contains(newFingerprint) && isFull()) {
+                        refuse();
+                        return false;
+                    }
+                    if (visited.put(newFingerprint, newLevel)) {
+                        states++;
+                    }
+                } else {
+                    if (isFull()) {
+                        refuse();
+                        return false;
+                    }
+                    states++;
+                }
+                depth = Math.max(depth, newLevel);
+
+                var failing = failingStateProperties(newState);
+                if (!failing.isEmpty()) {
+                    var path = new ArrayList<Transition<M>>(trace);
+                    path.add(new Transition<>(trace.state(level), newState, frame.action().name(), newLevel, newLevel));
+                    status = ExplorationStatus.FAILED_STATE_PROPERTIES;
+                    counterExample = path;
+                    failedStateProperties = failing;
+                    return false;
+                }
+                trace.append(newState, frame.actionIndex(), newLevel);
+                if (newLevel == bound) {
+                    cut = true;
+                    status = ExplorationStatus.INCOMPLETE;
+                    if (!pruning && bound == explorationOptions.maxDepth() && !checkTemporalProperties(trace)) {
+                        return false;
+                    }
+                    trace.truncate(level);
+                    continue;
+                }
+                if (newLevel == expanded.length) {
+                    expanded = Arrays.copyOf(expanded, expanded.length * 2);
+                }
+                expanded[newLevel] = false;
+                frame(newLevel).reset(newState);
+                level = newLevel;
+            }
+            return true;
+        }
+
+        /**
+         * Tells whether the maximum number of states is visited, so that a further new state would exceed it.
+         */
+        private boolean isFull() {
+            return states >= explorationOptions.maxStates();
+        }
+
+        /**
+         * Stops the search on a new state refused because of the maximum number of states.
+         */
+        private void refuse() {
+            limited = true;
+            status = ExplorationStatus.INCOMPLETE;
+        }
+
+        private Successors<M> frame(int level) {
+            while (frames.size() <= level) {
+                frames.add(new Successors<>(spec.step()));
+            }
+            return frames.get(level);
+        }
+
+        private List<String> failingStateProperties(M state) {
+            List<String> failing = List.of();
+            for (var stateProperty : stateProperties) {
+                if (!stateProperty.test(state)) {
+                    if (failing.isEmpty()) {
+                        failing = new ArrayList<>();
+                    }
+                    if (!failing.contains(stateProperty.name())) {
+                        failing.add(stateProperty.name());
+                    }
+                }
+            }
+            return failing;
+        }
+
+        /**
+         * Checks the temporal properties on the current path, ended, with fresh monitors.
+         *
+         * @param trace the current path
+         * @return false if a temporal property failed, which stops the search
+         */
+        private boolean checkTemporalProperties(Trace<M> trace) {
+            if (spec.temporalProperties().isEmpty()) {
+                return true;
+            }
+            var failing = new ArrayList<String>();
+            for (var temporalProperty : spec.temporalProperties()) {
+                var monitor = temporalProperty.monitor().get();
+                var verdict = Verdict.PENDING;
+                for (var i = 0; i < trace.size() && !verdict.isFinal(); i++) {
+                    verdict = monitor.next(trace, i);
+                }
+                if (verdict == Verdict.VIOLATED || !monitor.holds()) {
+                    failing.add(temporalProperty.name());
+                }
+            }
+            if (failing.isEmpty()) {
+                return true;
+            }
+            status = ExplorationStatus.FAILED_TEMPORAL_PROPERTIES;
+            counterExample = List.copyOf(trace);
+            failedTemporalProperties = failing;
+            return false;
+        }
+
+        ExplorationReport<M> report(long allTransitions, long start) {
+            var collisionProbability = pruning ? visited.collisionProbability(fingerprint.bits()) : 0.0;
+            var storage = pruning ? visited.metrics() : StorageMetrics.NONE;
+            return new ExplorationReport<>(status, states, allTransitions, depth, counterExample, failedStateProperties,
+                    collisionProbability, Duration.ofNanos(System.nanoTime() - start), storage, failedTemporalProperties);
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package nl.suriani.verifyj;
+
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
+
+/**
+ * Choice source enumerating every combination of choices, in lexicographic order.
+ * Each pass replays the current prefix of choices and takes the first alternative beyond it,
+ * recording the number of alternatives so that {@link #advance()} can backtrack to the next combination.
+ */
+final class EnumeratedChoices implements ChoiceSource {
+    private int[] values = new int[8];
+    private int[] bounds = new int[8];
+    private int length;
+    private int position;
+    private boolean randomRequested;
+
+    @Override
+    public int choose(int bound) {
+        if (position == length) {
+            if (length == values.length) {
+                values = Arrays.copyOf(values, length * 2);
+                bounds = Arrays.copyOf(bounds, length * 2);
+            }
+            values[length] = 0;
+            bounds[length] = bound;
+            length++;
+        } else if (bounds[position] != bound) {
+            throw new IllegalStateException("The number of alternatives of a choice changed between passes");
+        }
+        return values[position++];
+    }
+
+    @Override
+    public RandomGenerator random() {
+        randomRequested = true;
+        throw new IllegalStateException("NonDet.random() cannot be enumerated, use NonDet.oneOf or NonDet.withinRange");
+    }
+
+    /**
+     * Moves to the next combination of choices, discarding the choices that were not reached in the last pass.
+     *
+     * @return true if there is another combination, false if all of them were enumerated
+     */
+    boolean advance() {
+        length = position;
+        position = 0;
+        while (length > 0 && values[length - 1] + 1 >= bounds[length - 1]) {
+            length--;
+        }
+        if (length == 0) {
+            return false;
+        }
+        values[length - 1]++;
+        return true;
+    }
+
+    /**
+     * Returns true if the last pass asked for a random generator, which cannot be enumerated.
+     *
+     * @return true if a random generator was requested
+     */
+    boolean randomRequested() {
+        return randomRequested;
+    }
+
+    /**
+     * Restarts the enumeration from the first combination.
+     */
+    void reset() {
+        length = 0;
+        position = 0;
+        randomRequested = false;
+    }
+}
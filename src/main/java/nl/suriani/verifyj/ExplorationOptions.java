@@ -0,0 +1,30 @@
+package nl.suriani.verifyj;
+
+/**
+ * Represents the bounds of an exhaustive exploration of the state space.
+ *
+ * @param maxStates the maximum number of distinct states to visit
+ * @param maxDepth the maximum number of transitions from an initial state
+ */
+public record ExplorationOptions(long maxStates, int maxDepth) {
+    /**
+     * The default exploration options, visiting the whole reachable state space.
+     */
+    public static final ExplorationOptions DEFAULT = new ExplorationOptions(Long.MAX_VALUE, Integer.MAX_VALUE);
+
+    /**
+     * Constructs an ExplorationOptions record with validation.
+     *
+     * @param maxStates the maximum number of distinct states
+     * @param maxDepth the maximum depth
+     * @throws IllegalArgumentException if any parameter is less than 1
+     */
+    public ExplorationOptions {
+        if (maxStates < 1) {
+            throw new IllegalArgumentException("maxStates must be at least 1");
+        }
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("maxDepth must be at least 1");
+        }
+    }
+}
@@ -0,0 +1,151 @@
+package nl.suriani.verifyj;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Represents the result of an exhaustive exploration of the state space.
+ *
+ * @param status the exploration status
+ * @param distinctStates the number of distinct states visited
+ * @param transitions the number of transitions explored, including the ones leading to visited states
+ * @param depth the depth reached by the exploration
+ * @param counterExample the transitions leading from an initial state to the violating state, empty if no property failed
+ * @param failedStateProperties the names of the failed state properties
+ * @param collisionProbability the estimated probability that a state was skipped because of a fingerprint collision
+ * @param elapsed the wall-clock duration of the exploration
+ * @param storage the footprint and the disk traffic of the visited states and the frontier
+ * @param failedTemporalProperties the names of the failed temporal properties, checked by explorers following paths
+ * @param <M> the model type
+ */
+public record ExplorationReport<M>(ExplorationStatus status,
+                                   long distinctStates,
+                                   long transitions,
+                                   int depth,
+                                   List<Transition<M>> counterExample,
+                                   List<String> failedStateProperties,
+                                   double collisionProbability,
+                                   Duration elapsed,
+                                   StorageMetrics storage,
+                                   List<String> failedTemporalProperties) {
+    /**
+     * Constructs an ExplorationReport with validation.
+     *
+     * @param status the exploration status
+     * @param distinctStates the number of distinct states visited
+     * @param transitions the number of transitions explored
+     * @param depth the depth reached
+     * @param counterExample the transitions leading to the violating state
+     * @param failedStateProperties the names of the failed state properties
+     * @param collisionProbability the estimated fingerprint collision probability
+     * @param elapsed the duration of the exploration
+     * @param storage the storage metrics
+     * @param failedTemporalProperties the names of the failed temporal properties
+     */
+    public ExplorationReport {
+        Objects.requireNonNull(status);
+        Objects.requireNonNull(counterExample);
+        Objects.requireNonNull(failedStateProperties);
+        Objects.requireNonNull(elapsed);
+        Objects.requireNonNull(storage);
+        Objects.requireNonNull(failedTemporalProperties);
+    }
+
+    /**
+     * Constructs an ExplorationReport without failed temporal properties.
+     *
+     * @param status the exploration status
+     * @param distinctStates the number of distinct states visited
+     * @param transitions the number of transitions explored
+     * @param depth the depth reached
+     * @param counterExample the transitions leading to the violating state
+     * @param failedStateProperties the names of the failed state properties
+     * @param collisionProbability the estimated fingerprint collision probability
+     * @param elapsed the duration of the exploration
+     * @param storage the storage metrics
+     */
+    public ExplorationReport(ExplorationStatus status, long distinctStates, long transitions, int depth,
+                             List<Transition<M>> counterExample, List<String> failedStateProperties,
+                             double collisionProbability, Duration elapsed, StorageMetrics storage) {
+        this(status, distinctStates, transitions, depth, counterExample, failedStateProperties, collisionProbability,
+                elapsed, storage, List.of());
+    }
+
+    /**
+     * Constructs an ExplorationReport without timing nor storage metrics.
+     *
+     * @param status the exploration status
+     * @param distinctStates the number of distinct states visited
+     * @param transitions the number of transitions explored
+     * @param depth the depth reached
+     * @param counterExample the transitions leading to the violating state
+     * @param failedStateProperties the names of the failed state properties
+     * @param collisionProbability the estimated fingerprint collision probability
+     */
+    public ExplorationReport(ExplorationStatus status, long distinctStates, long transitions, int depth,
+                             List<Transition<M>> counterExample, List<String> failedStateProperties,
+                             double collisionProbability) {
+        this(status, distinctStates, transitions, depth, counterExample, failedStateProperties, collisionProbability,
+                Duration.ZERO, StorageMetrics.NONE);
+    }
+
+    /**
+     * Returns the number of distinct states visited per second.
+     *
+     * @return the exploration throughput, or 0 if the exploration was not timed
+     */
+    public double statesPerSecond() {
+        return elapsed.isZero() ? 0.0 : distinctStates * 1e9 / elapsed.toNanos();
+    }
+
+    /**
+     * Returns a string representation of the report, including the counterexample if any.
+     *
+     * @return the string representation of the report
+     */
+    @Override
+    public String toString() {
+        var builder = new StringBuilder();
+
+        for (Transition<M> transition : counterExample) {
+            builder.append(String.format(
+                    "(%d - %s) -> %s\n",
+                    transition.transitionNumber(),
+                    transition.actionName(),
+                    transition.to()
+            ));
+        }
+
+        builder.append(String.format("\nExploration: %s\n", status.value()))
+                .append(String.format("Distinct states: %d\n", distinctStates))
+                .append(String.format("Transitions: %d\n", transitions))
+                .append(String.format("Depth: %d\n", depth))
+                .append(String.format("Collision probability: %.3e\n", collisionProbability))
+                .append(String.format("Elapsed: %d ms (%.0f states/s)\n", elapsed.toMillis(), statesPerSecond()));
+
+        if (storage.spilled()) {
+            builder.append(String.format("Spilled: %d entries, %d bytes on disk in %d files, %d bytes written, %d bytes read, %d merges\n",
+                    storage.diskEntries(), storage.diskBytes(), storage.runs(), storage.bytesWritten(), storage.bytesRead(),
+                    storage.merges()));
+        }
+
+        if (!failedStateProperties.isEmpty()) {
+            builder.append("\nFailed state properties:");
+            for (var p : failedStateProperties) {
+                builder.append("\n\t - ").append(p);
+            }
+            builder.append("\n");
+        }
+
+        if (!failedTemporalProperties.isEmpty()) {
+            builder.append("\nFailed temporal properties:");
+            for (var p : failedTemporalProperties) {
+                builder.append("\n\t - ").append(p);
+            }
+            builder.append("\n");
+        }
+
+        return builder.toString();
+    }
+}
@@ -0,0 +1,47 @@
+package nl.suriani.verifyj;
+
+/**
+ * Enum representing the possible statuses of an exhaustive exploration.
+ */
+public enum ExplorationStatus {
+    /** Every reachable state was visited and no property failed. */
+    COMPLETE("Complete"),
+    /** The exploration stopped at its bounds before visiting every reachable state, and no property failed. */
+    INCOMPLETE("Incomplete"),
+    /** No initial state could be produced. */
+    FAILED_INIT("Failed initialization"),
+    /** A reachable state violates a state property. */
+    FAILED_STATE_PROPERTIES("Failed state properties"),
+    /** A path within the depth bound violates a temporal property. */
+    FAILED_TEMPORAL_PROPERTIES("Failed temporal properties");
+
+    private final String value;
+
+    ExplorationStatus(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns true if the status is COMPLETE.
+     * @return true if complete
+     */
+    public boolean isComplete() {
+        return this == COMPLETE;
+    }
+
+    /**
+     * Returns true if the status is FAILED_STATE_PROPERTIES.
+     * @return true if failed state properties
+     */
+    public boolean isFailedStateProperties() {
+        return this == FAILED_STATE_PROPERTIES;
+    }
+
+    /**
+     * Returns the string value of the status.
+     * @return the status value
+     */
+    public String value() {
+        return value;
+    }
+}
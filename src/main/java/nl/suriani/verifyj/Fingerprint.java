@@ -0,0 +1,109 @@
+package nl.suriani.verifyj;
+
+/**
+ * Represents a 64-bit hash of a model state, used to deduplicate states without retaining them.
+ * Two equal states must have the same fingerprint; two different states should have the same fingerprint
+ * only with negligible probability.
+ *
+ * @param <M> the model type
+ */
+@FunctionalInterface
+public interface Fingerprint<M> {
+    /**
+     * Returns the fingerprint of the given state.
+     *
+     * @param state the state to fingerprint
+     * @return the fingerprint
+     */
+    long of(M state);
+
+    /**
+     * Returns the number of bits of entropy in the fingerprints, used to estimate the probability of a collision.
+     *
+     * @return the number of bits, at most 64
+     */
+    default int bits() {
+        return 64;
+    }
+
+    /**
+     * Returns a fingerprint following the structure compared by {@code equals}, into 64 bits: records are fingerprinted
+     * component by component, lists element by element, sets and maps regardless of their iteration order, and strings,
+     * boxed primitives and enums by value. Any other object is fingerprinted by its {@link Object#hashCode()},
+     * with 32 bits of entropy, so its class must override {@code equals} and {@code hashCode} consistently.
+     * It is the default fingerprint of a {@link Specification}: equal states always have the same fingerprint, so
+     * explorations terminate on every finite state space, and distinct states built of records, collections and values
+     * only collide with negligible probability. Records overriding {@code equals} to ignore some of their components
+     * need a fingerprint of their own.
+     *
+     * @return a fingerprint consistent with equality
+     * @param <M> the model type
+     */
+    static <M> Fingerprint<M> ofStructure() {
+        return new StructuralFingerprint<>();
+    }
+
+    /**
+     * Returns a fingerprint derived from {@link Object#toString()}, hashing every character into 64 bits.
+     * It is only sound if equal states have the same string and distinct states distinct strings: a class printed
+     * as its identity never has two equal states, so explorations of it never terminate, and a string leaving out part
+     * of the state merges distinct states, so an exploration may report completion without visiting all of them.
+     *
+     * @return a fingerprint derived from the string representation
+     * @param <M> the model type
+     */
+    static <M> Fingerprint<M> ofToString() {
+        return state -> {
+            var string = state.toString();
+            var hash = 0xcbf29ce484222325L;
+            for (var i = 0; i < string.length(); i++) {
+                hash = (hash ^ string.charAt(i)) * 0x100000001b3L;
+            }
+            return mix(hash);
+        };
+    }
+
+    /**
+     * Returns a fingerprint derived from {@link Object#hashCode()}. It is cheap but only carries 32 bits of entropy,
+     * and hash codes of small records collide easily, so it only suits small state spaces with well-spread hash codes.
+     *
+     * @return a fingerprint derived from the hash code
+     * @param <M> the model type
+     */
+    static <M> Fingerprint<M> ofHashCode() {
+        return new Fingerprint<>() {
+            @Override
+            public long of(M state) {
+                return mix(0x9e3779b97f4a7c15L ^ state.hashCode());
+            }
+
+            @Override
+            public int bits() {
+                return 32;
+            }
+        };
+    }
+
+    /**
+     * Combines a fingerprint with a value, to build the fingerprint of a state from its fields.
+     *
+     * @param fingerprint the fingerprint so far
+     * @param value the value to combine
+     * @return the combined fingerprint
+     */
+    static long combine(long fingerprint, long value) {
+        return mix(fingerprint * 0x9e3779b97f4a7c15L + value);
+    }
+
+    /**
+     * Scrambles the bits of a value, so that close values have unrelated fingerprints.
+     *
+     * @param value the value to scramble
+     * @return the scrambled value
+     */
+    static long mix(long value) {
+        value = (value ^ (value >>> 33)) * 0xff51afd7ed558ccdL;
+        value = (value ^ (value >>> 33)) * 0xc4ceb9fe1a85ec53L;
+        return value ^ (value >>> 33);
+    }
+}
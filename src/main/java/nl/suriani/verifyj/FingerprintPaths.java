@@ -0,0 +1,82 @@
+package nl.suriani.verifyj;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Rebuilds counterexamples from fingerprints. Explorers only keep the fingerprint of the predecessor of every visited state,
+ * so a path is recovered by following those back to an initial state, then re-executing the specification forward
+ * and picking, at every step, the successor with the expected fingerprint.
+ */
+final class FingerprintPaths {
+    /**
+     * The predecessor recorded for initial states.
+     */
+    static final long ROOT = Long.MIN_VALUE;
+
+    private FingerprintPaths() {
+    }
+
+    /**
+     * Follows the predecessors of the given fingerprint back to an initial state.
+     *
+     * @param fingerprint the fingerprint of the last state
+     * @param predecessor returns the fingerprint of the predecessor of a state, or {@link #ROOT} for an initial state
+     * @return the fingerprints from an initial state to the last state
+     */
+    static long[] chain(long fingerprint, LongUnaryOperator predecessor) {
+        var reversed = new ArrayList<Long>();
+        for (var current = fingerprint; current != ROOT; current = predecessor.applyAsLong(current)) {
+            reversed.add(current);
+        }
+        var chain = new long[reversed.size()];
+        for (var i = 0; i < chain.length; i++) {
+            chain[i] = reversed.get(chain.length - 1 - i);
+        }
+        return chain;
+    }
+
+    /**
+     * Re-executes the specification along the given fingerprints.
+     *
+     * @param spec the specification
+     * @param fingerprints the fingerprints from an initial state to the last state
+     * @return the transitions leading from the initial state to the last state
+     * @param <M> the model type
+     * @throws IllegalStateException if the specification does not reproduce one of the states
+     */
+    static <M> List<Transition<M>> replay(Specification<M> spec, long[] fingerprints) {
+        var fingerprint = spec.canonicalFingerprint();
+        var initialStates = new ChoiceEnumerator<M>();
+        initialStates.reset(() -> spec.init().apply(null));
+
+        M state = null;
+        while (state == null && initialStates.advance()) {
+            if (fingerprint.of(initialStates.current()) == fingerprints[0]) {
+                state = initialStates.current();
+            }
+        }
+        if (state == null) {
+            throw new IllegalStateException("The initial state of the counterexample could not be reproduced");
+        }
+
+        var transitions = new ArrayList<Transition<M>>();
+        var successors = new Successors<M>(spec.step());
+        for (var i = 1; i < fingerprints.length; i++) {
+            successors.reset(state);
+            Transition<M> transition = null;
+            while (transition == null && successors.advance()) {
+                if (fingerprint.of(successors.successor()) == fingerprints[i]) {
+                    transition = new Transition<>(state, successors.successor(), successors.action().name(), i, i);
+                }
+            }
+            if (transition == null) {
+                throw new IllegalStateException("Transition " + i + " of the counterexample could not be reproduced");
+            }
+            transitions.add(transition);
+            state = transition.to();
+        }
+        return transitions;
+    }
+}
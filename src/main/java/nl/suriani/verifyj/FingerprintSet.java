@@ -0,0 +1,296 @@
+package nl.suriani.verifyj;
+
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * A set of state fingerprints stored in open-addressing {@code long[]} tables, optionally mapping each fingerprint to a value
+ * such as the fingerprint of its predecessor.
+ * It takes about 8 to 16 bytes per fingerprint, or twice as much with values, instead of retaining the states themselves.
+ * <p>
+ * The set is split into stripes, each guarded by its own lock, so it can be shared by several threads with little contention.
+ */
+public final class FingerprintSet implements FingerprintStore {
+    private static final long EMPTY = 0L;
+    private static final long ZERO_REPLACEMENT = 0x5bd1e9955bd1e995L;
+    private static final int INITIAL_CAPACITY = 1 << 10;
+    private static final int MAX_CAPACITY = 1 << 30;
+
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final boolean withValues;
+    private final LongAdder size = new LongAdder();
+
+    /**
+     * Constructs a single-stripe FingerprintSet without values.
+     */
+    public FingerprintSet() {
+        this(1, false);
+    }
+
+    /**
+     * Constructs a FingerprintSet with the given number of stripes.
+     *
+     * @param stripes the number of stripes, rounded up to a power of two
+     * @param withValues whether a value is stored with every fingerprint
+     */
+    public FingerprintSet(int stripes, boolean withValues) {
+        if (stripes < 1 || stripes > 1 << 16) {
+            throw new IllegalArgumentException("stripes must be between 1 and 65536");
+        }
+        var stripeBits = 32 - Integer.numberOfLeadingZeros(stripes - 1);
+        this.stripes = new Stripe[1 << stripeBits];
+        this.stripeShift = 64 - stripeBits;
+        this.withValues = withValues;
+        for (var i = 0; i < this.stripes.length; i++) {
+            this.stripes[i] = new Stripe();
+        }
+    }
+
+    /**
+     * Adds the given fingerprint.
+     *
+     * @param fingerprint the fingerprint to add
+     * @return true if the fingerprint was not in the set yet
+     */
+    public boolean add(long fingerprint) {
+        return add(fingerprint, 0L);
+    }
+
+    /**
+     * Adds the given fingerprint with the given value, leaving the value untouched if the fingerprint is already present.
+     *
+     * @param fingerprint the fingerprint to add
+     * @param value the value to store with it
+     * @return true if the fingerprint was not in the set yet
+     */
+    @Override
+    public boolean add(long fingerprint, long value) {
+        return stripeOf(fingerprint).put(normalise(fingerprint), value, Update.KEEP);
+    }
+
+    /**
+     * Adds the given fingerprint with the given value, replacing the value if the fingerprint is already present.
+     *
+     * @param fingerprint the fingerprint to add
+     * @param value the value to store with it
+     * @return true if the fingerprint was not in the set yet
+     */
+    public boolean put(long fingerprint, long value) {
+        return stripeOf(fingerprint).put(normalise(fingerprint), value, Update.REPLACE);
+    }
+
+    /**
+     * Adds the given fingerprint with the given value, or lowers its value to the given one if the fingerprint is already
+     * present with a greater value, atomically.
+     *
+     * @param fingerprint the fingerprint to add
+     * @param value the value to store with it
+     * @return true if the fingerprint was not in the set yet, or its value was lowered
+     */
+    boolean lower(long fingerprint, long value) {
+        return stripeOf(fingerprint).put(normalise(fingerprint), value, Update.LOWER);
+    }
+
+    /**
+     * Returns true if the set contains the given fingerprint.
+     *
+     * @param fingerprint the fingerprint to look up
+     * @return true if present
+     */
+    @Override
+    public boolean contains(long fingerprint) {
+        return stripeOf(fingerprint).indexOf(normalise(fingerprint)) >= 0;
+    }
+
+    /**
+     * Returns the value stored with the given fingerprint.
+     *
+     * @param fingerprint the fingerprint to look up
+     * @param defaultValue the value returned if the fingerprint is absent
+     * @return the stored value, or the default value
+     */
+    @Override
+    public long get(long fingerprint, long defaultValue) {
+        return stripeOf(fingerprint).get(normalise(fingerprint), defaultValue);
+    }
+
+    /**
+     * Returns the number of fingerprints in the set.
+     *
+     * @return the number of fingerprints
+     */
+    @Override
+    public long size() {
+        return size.sum();
+    }
+
+    /**
+     * Returns the number of bytes taken by the tables of the set.
+     *
+     * @return the memory footprint in bytes
+     */
+    public long memoryBytes() {
+        var bytes = 0L;
+        for (var stripe : stripes) {
+            bytes += stripe.capacity() * (withValues ? 16L : 8L);
+        }
+        return bytes;
+    }
+
+    @Override
+    public StorageMetrics metrics() {
+        return new StorageMetrics(memoryBytes(), 0, 0, 0, 0, 0, 0);
+    }
+
+    /**
+     * Copies every fingerprint, as stored, and its value to the given arrays.
+     * The set must not be modified meanwhile.
+     *
+     * @param keys the array receiving the fingerprints
+     * @param values the array receiving the values
+     * @return the number of entries copied
+     */
+    int copyTo(long[] keys, long[] values) {
+        var count = 0;
+        for (var stripe : stripes) {
+            count = stripe.copyTo(keys, values, count);
+        }
+        return count;
+    }
+
+    private Stripe stripeOf(long fingerprint) {
+        return stripes.length == 1 ? stripes[0] : stripes[(int) (fingerprint >>> stripeShift)];
+    }
+
+    /**
+     * Returns the fingerprint as stored in the tables, where zero marks an empty slot.
+     *
+     * @param fingerprint the fingerprint
+     * @return the stored fingerprint
+     */
+    static long normalise(long fingerprint) {
+        return fingerprint == EMPTY ? ZERO_REPLACEMENT : fingerprint;
+    }
+
+    /**
+     * What happens to the value of a fingerprint added again.
+     */
+    private enum Update { KEEP, REPLACE, LOWER }
+
+    private final class Stripe {
+        private final ReentrantLock lock = new ReentrantLock();
+        private long[] keys = new long[INITIAL_CAPACITY];
+        private long[] values = withValues ? new long[INITIAL_CAPACITY] : null;
+        private int count;
+
+        boolean put(long key, long value, Update update) {
+            lock.lock();
+            try {
+                var mask = keys.length - 1;
+                var index = (int) key & mask;
+                while (keys[index] != EMPTY) {
+                    if (keys[index] == key) {
+                        if (values == null || update == Update.KEEP) {
+                            return false;
+                        }
+                        if (update == Update.LOWER && values[index] <= value) {
+                            return false;
+                        }
+                        values[index] = value;
+                        return update == Update.LOWER;
+                    }
+                    index = (index + 1) & mask;
+                }
+                keys[index] = key;
+                if (values != null) {
+                    values[index] = value;
+                }
+                count++;
+                size.increment();
+                if (count * 4L > keys.length * 3L) {
+                    grow();
+                }
+                return true;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int indexOf(long key) {
+            lock.lock();
+            try {
+                var mask = keys.length - 1;
+                var index = (int) key & mask;
+                while (keys[index] != EMPTY) {
+                    if (keys[index] == key) {
+                        return index;
+                    }
+                    index = (index + 1) & mask;
+                }
+                return -1;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long get(long key, long defaultValue) {
+            lock.lock();
+            try {
+                var index = indexOf(key);
+                return index < 0 || values == null ? defaultValue : values[index];
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int copyTo(long[] targetKeys, long[] targetValues, int offset) {
+            lock.lock();
+            try {
+                for (var i = 0; i < keys.length; i++) {
+                    if (keys[i] != EMPTY) {
+                        targetKeys[offset] = keys[i];
+                        targetValues[offset] = values == null ? 0L : values[i];
+                        offset++;
+                    }
+                }
+                return offset;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int capacity() {
+            lock.lock();
+            try {
+                return keys.length;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        private void grow() {
+            if (keys.length >= MAX_CAPACITY) {
+                throw new IllegalStateException("Fingerprint stripe is full, use more stripes");
+            }
+            var oldKeys = keys;
+            var oldValues = values;
+            keys = new long[oldKeys.length * 2];
+            values = oldValues == null ? null : new long[oldKeys.length * 2];
+            var mask = keys.length - 1;
+            for (var i = 0; i < oldKeys.length; i++) {
+                if (oldKeys[i] == EMPTY) {
+                    continue;
+                }
+                var index = (int) oldKeys[i] & mask;
+                while (keys[index] != EMPTY) {
+                    index = (index + 1) & mask;
+                }
+                keys[index] = oldKeys[i];
+                if (values != null) {
+                    values[index] = oldValues[i];
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,68 @@
+package nl.suriani.verifyj;
+
+/**
+ * Stores the fingerprints of the visited states, each with a value such as the fingerprint of its predecessor.
+ * Implementations are safe for concurrent use.
+ *
+ * @see FingerprintSet
+ * @see SpillingFingerprintStore
+ */
+public interface FingerprintStore extends AutoCloseable {
+    /**
+     * Adds the given fingerprint with the given value, leaving the value untouched if the fingerprint is already present.
+     *
+     * @param fingerprint the fingerprint to add
+     * @param value the value to store with it
+     * @return true if the fingerprint was not in the store yet
+     */
+    boolean add(long fingerprint, long value);
+
+    /**
+     * Returns true if the store contains the given fingerprint.
+     *
+     * @param fingerprint the fingerprint to look up
+     * @return true if present
+     */
+    boolean contains(long fingerprint);
+
+    /**
+     * Returns the value stored with the given fingerprint.
+     *
+     * @param fingerprint the fingerprint to look up
+     * @param defaultValue the value returned if the fingerprint is absent
+     * @return the stored value, or the default value
+     */
+    long get(long fingerprint, long defaultValue);
+
+    /**
+     * Returns the number of fingerprints in the store.
+     *
+     * @return the number of fingerprints
+     */
+    long size();
+
+    /**
+     * Estimates the probability that two of the distinct states added so far share a fingerprint.
+     *
+     * @param bits the number of bits of entropy of the fingerprints
+     * @return the estimated collision probability, between 0 and 1
+     */
+    default double collisionProbability(int bits) {
+        var n = (double) size();
+        return Math.min(1.0, n * (n - 1) / Math.pow(2, bits + 1));
+    }
+
+    /**
+     * Returns the footprint and the traffic of the store.
+     *
+     * @return the storage metrics
+     */
+    StorageMetrics metrics();
+
+    /**
+     * Releases the resources held by the store, such as its files.
+     */
+    @Override
+    default void close() {
+    }
+}
@@ -0,0 +1,53 @@
+package nl.suriani.verifyj;
+
+/**
+ * The first-in first-out queue of the states that remain to be expanded by a breadth-first exploration.
+ *
+ * @param <M> the model type
+ * @see StateStorage#frontier()
+ */
+public interface Frontier<M> extends AutoCloseable {
+    /**
+     * Adds a state at the end of the queue.
+     *
+     * @param state the state to add
+     */
+    void add(M state);
+
+    /**
+     * Removes the state at the head of the queue.
+     *
+     * @return the state at the head, or null if the queue is empty
+     */
+    M poll();
+
+    /**
+     * Returns the number of states in the queue.
+     *
+     * @return the number of states
+     */
+    long size();
+
+    /**
+     * Returns true if the queue is empty.
+     *
+     * @return true if there is no state to expand
+     */
+    default boolean isEmpty() {
+        return size() == 0;
+    }
+
+    /**
+     * Returns the traffic of the queue to disk.
+     *
+     * @return the storage metrics
+     */
+    StorageMetrics metrics();
+
+    /**
+     * Releases the resources held by the queue, such as its files.
+     */
+    @Override
+    default void close() {
+    }
+}
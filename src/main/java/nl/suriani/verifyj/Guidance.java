@@ -0,0 +1,14 @@
+package nl.suriani.verifyj;
+
+/**
+ * Enum representing how a simulation picks the action to apply among the enabled ones.
+ */
+public enum Guidance {
+    /** Every enabled action is equally likely to be picked, and every simulation starts from the initialization. */
+    UNIFORM,
+    /**
+     * Actions are weighted by how often they reached states no simulation of the run reached before, and simulations
+     * may start by replaying the beginning of an earlier simulation that reached new states, like a coverage-guided fuzzer.
+     */
+    COVERAGE
+}
@@ -0,0 +1,87 @@
+package nl.suriani.verifyj;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Represents which actions of a step are independent: in every state where both are enabled, applying one neither
+ * enables nor disables the other nor changes the states it reaches, so that both orders reach the same states.
+ * Independent actions are interleaved in every order by an exhaustive exploration, which {@link PartialOrderExplorer}
+ * avoids. The relation must be symmetric; an action is never considered independent of itself.
+ *
+ * @param <M> the model type
+ */
+@FunctionalInterface
+public interface Independence<M> {
+    /**
+     * Returns true if the given actions are independent.
+     *
+     * @param first an action of the step
+     * @param second another action of the step
+     * @return true if the actions commute in every state where both are enabled
+     */
+    boolean independent(NamedAction<M> first, NamedAction<M> second);
+
+    /**
+     * Returns an independence relation where no action is independent of another, which disables any reduction.
+     *
+     * @return the empty independence relation
+     * @param <M> the model type
+     */
+    static <M> Independence<M> none() {
+        return (first, second) -> false;
+    }
+
+    /**
+     * Returns an independence relation declaring the actions with the given names pairwise independent,
+     * such as actions updating distinct parts of the model.
+     *
+     * @param actionNames the names of the actions
+     * @return the declared independence relation
+     * @param <M> the model type
+     */
+    static <M> Independence<M> among(String... actionNames) {
+        var names = Set.copyOf(Arrays.asList(actionNames));
+        return (first, second) -> !first.name().equals(second.name())
+                && names.contains(first.name()) && names.contains(second.name());
+    }
+
+    /**
+     * Returns an independence relation detected on a sample of the states of the given specification, visited by
+     * random walks from its initial states. Two actions are deemed independent if, in every sampled state where both
+     * are enabled, neither disables the other and both orders reach the same set of states, through every choice.
+     * <p>
+     * A sample cannot prove independence: actions that only interfere in states the walks did not reach are deemed
+     * independent, and an exploration using the relation may then miss states. Declare the relation when it matters.
+     *
+     * @param spec the specification whose actions to sample
+     * @param walks the number of random walks
+     * @param length the number of transitions of every walk
+     * @param seed the seed of the walks
+     * @return the sampled independence relation
+     * @param <M> the model type
+     * @throws IllegalArgumentException if walks or length is less than 1, or the step has more than 64 actions
+     */
+    static <M> Independence<M> sampled(Specification<M> spec, int walks, int length, long seed) {
+        Objects.requireNonNull(spec);
+        if (walks < 1) {
+            throw new IllegalArgumentException("walks must be at least 1");
+        }
+        if (length < 1) {
+            throw new IllegalArgumentException("length must be at least 1");
+        }
+        return new IndependenceSampler<>(spec).sample(walks, length, seed);
+    }
+
+    /**
+     * Returns an independence relation where two actions are independent if they are in this relation or the other.
+     *
+     * @param other the other independence relation
+     * @return the union of both relations
+     */
+    default Independence<M> or(Independence<M> other) {
+        Objects.requireNonNull(other);
+        return (first, second) -> independent(first, second) || other.independent(first, second);
+    }
+}
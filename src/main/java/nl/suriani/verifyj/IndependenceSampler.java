@@ -0,0 +1,137 @@
+package nl.suriani.verifyj;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.SplittableRandom;
+
+/**
+ * Detects the independent actions of a specification by checking whether they commute in the states visited
+ * by random walks, as described in {@link Independence#sampled(Specification, int, int, long)}.
+ *
+ * @param <M> the model type
+ */
+final class IndependenceSampler<M> {
+    private final Specification<M> spec;
+    private final List<NamedAction<M>> actions;
+    private final Successors<M> successors;
+
+    /**
+     * Constructs an IndependenceSampler for the given specification.
+     *
+     * @param spec the specification whose actions to sample
+     * @throws IllegalArgumentException if the step has more than 64 actions
+     */
+    IndependenceSampler(Specification<M> spec) {
+        this.spec = spec;
+        this.actions = spec.step().actions();
+        this.successors = new Successors<>(spec.step());
+        if (actions.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Independence can only be sampled for up to 64 actions");
+        }
+    }
+
+    /**
+     * Walks the state space at random and returns the pairs of actions that commuted in every state visited.
+     *
+     * @param walks the number of random walks
+     * @param length the number of transitions of every walk
+     * @param seed the seed of the walks
+     * @return the sampled independence relation
+     */
+    Independence<M> sample(int walks, int length, long seed) {
+        var roots = new ArrayList<M>();
+        var initialStates = new ChoiceEnumerator<M>();
+        initialStates.reset(() -> spec.init().apply(null));
+        while (initialStates.advance()) {
+            roots.add(initialStates.current());
+        }
+        if (roots.isEmpty()) {
+            return Independence.none();
+        }
+
+        var count = actions.size();
+        var independent = new boolean[count][count];
+        for (var a = 0; a < count; a++) {
+            for (var b = 0; b < count; b++) {
+                independent[a][b] = a != b;
+            }
+        }
+
+        var random = new SplittableRandom(seed);
+        for (var walk = 0; walk < walks; walk++) {
+            var state = roots.get(random.nextInt(roots.size()));
+            for (var position = 0; position < length; position++) {
+                var next = new ArrayList<List<M>>(count);
+                var all = new ArrayList<M>();
+                for (var a = 0; a < count; a++) {
+                    next.add(successors(state, a));
+                    all.addAll(next.get(a));
+                }
+                for (var a = 0; a < count; a++) {
+                    for (var b = a + 1; b < count; b++) {
+                        if (independent[a][b] && !commute(a, next.get(a), b, next.get(b))) {
+                            independent[a][b] = false;
+                            independent[b][a] = false;
+                        }
+                    }
+                }
+                if (all.isEmpty()) {
+                    break;
+                }
+                state = all.get(random.nextInt(all.size()));
+            }
+        }
+
+        var indexes = new HashMap<String, Integer>();
+        for (var a = 0; a < count; a++) {
+            indexes.put(actions.get(a).name(), a);
+        }
+        return (first, second) -> {
+            var a = indexes.get(first.name());
+            var b = indexes.get(second.name());
+            return a != null && b != null && independent[a][b];
+        };
+    }
+
+    private boolean commute(int a, List<M> fromA, int b, List<M> fromB) {
+        if (fromA.isEmpty() || fromB.isEmpty()) {
+            return true;
+        }
+        var throughA = reachedThrough(fromA, b);
+        var throughB = reachedThrough(fromB, a);
+        return throughA != null && throughA.equals(throughB);
+    }
+
+    /**
+     * Returns the fingerprints of the states the given action reaches from the given states.
+     *
+     * @param states the states to apply the action to
+     * @param action the index of the action
+     * @return the fingerprints reached, or null if the action is disabled in one of the states
+     */
+    private Set<Long> reachedThrough(List<M> states, int action) {
+        var reached = new HashSet<Long>();
+        for (var state : states) {
+            var next = successors(state, action);
+            if (next.isEmpty()) {
+                return null;
+            }
+            for (var successor : next) {
+                reached.add(spec.fingerprint().of(successor));
+            }
+        }
+        return reached;
+    }
+
+    private List<M> successors(M state, int action) {
+        var next = new ArrayList<M>();
+        successors.reset(state, ~(1L << action));
+        while (successors.advance()) {
+            next.add(successors.successor());
+        }
+        return next;
+    }
+}
@@ -8,6 +8,18 @@ import java.util.function.Supplier;
  * @param <M> the model type
  */
 public record Init<M>(Supplier<M> supplier) implements Action<M> {
+    /**
+     * Creates an Init whose supplier reports whether it produced a model through an {@link ActionResult}
+     * instead of throwing.
+     *
+     * @param supplier the supplier of the result of the initialization
+     * @return a new Init
+     * @param <M> the model type
+     */
+    public static <M> Init<M> attempting(Supplier<ActionResult<M>> supplier) {
+        return new Init<>(new Attempting<>(supplier));
+    }
+
     /**
      * Applies the initialization action, returning a new model instance.
      *
@@ -18,4 +30,31 @@ public record Init<M>(Supplier<M> supplier) implements Action<M> {
     public M apply(M m) {
         return supplier().get();
     }
+
+    /**
+     * Attempts to create a new model instance without throwing. Suppliers that throw are adapted
+     * as described in {@link ActionExpression#attempt(Expression, Object)}, and attempting suppliers that throw
+     * result in an error.
+     *
+     * @return the result of the initialization
+     */
+    public ActionResult<M> tryApply() {
+        if (supplier instanceof Attempting<M> attempting) {
+            try {
+                return attempting.supplier().get();
+            } catch (TimeBudget.Exceeded e) {
+                throw e;
+            } catch (Exception e) {
+                return ActionResult.error(e);
+            }
+        }
+        return ActionExpression.attempt(this, null);
+    }
+
+    private record Attempting<M>(Supplier<ActionResult<M>> supplier) implements Supplier<M> {
+        @Override
+        public M get() {
+            return supplier.get().orElseThrow();
+        }
+    }
 }
@@ -0,0 +1,32 @@
+package nl.suriani.verifyj;
+
+import java.util.ArrayDeque;
+
+/**
+ * A frontier kept entirely on the heap.
+ *
+ * @param <M> the model type
+ */
+final class MemoryFrontier<M> implements Frontier<M> {
+    private final ArrayDeque<M> states = new ArrayDeque<>();
+
+    @Override
+    public void add(M state) {
+        states.add(state);
+    }
+
+    @Override
+    public M poll() {
+        return states.poll();
+    }
+
+    @Override
+    public long size() {
+        return states.size();
+    }
+
+    @Override
+    public StorageMetrics metrics() {
+        return StorageMetrics.NONE;
+    }
+}
@@ -0,0 +1,82 @@
+package nl.suriani.verifyj;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Locale;
+import java.util.Objects;
+
+/**
+ * Receives the snapshots of the metrics of a run, periodically while it runs and once when it ends,
+ * see {@link MetricsReporting}. Snapshots are exported from a sampling thread, one at a time.
+ */
+@FunctionalInterface
+public interface MetricsExporter {
+    /**
+     * Exports a snapshot of the metrics of a run.
+     *
+     * @param metrics the snapshot
+     */
+    void export(RunMetrics metrics);
+
+    /**
+     * Returns an exporter appending every snapshot as a line of comma-separated values to the given file,
+     * with a header line when the file is created.
+     *
+     * @param file the file to append to
+     * @return the exporter
+     */
+    static MetricsExporter toFile(Path file) {
+        Objects.requireNonNull(file);
+        return metrics -> {
+            var line = String.format(Locale.ROOT, "%d,%d,%d,%.1f,%d,%d,%d%n", metrics.elapsed().toMillis(),
+                    metrics.simulations(), metrics.transitions(), metrics.transitionsPerSecond(), metrics.wastedAttempts(),
+                    metrics.distinctStates(), metrics.failures());
+            try {
+                if (Files.notExists(file)) {
+                    line = "elapsedMillis,simulations,transitions,transitionsPerSecond,wastedAttempts,distinctStates,failures"
+                            + System.lineSeparator() + line;
+                }
+                Files.writeString(file, line, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        };
+    }
+
+    /**
+     * Returns an exporter logging every snapshot at {@link System.Logger.Level#INFO} to the given logger,
+     * which the platform binds to the logging framework of the application.
+     *
+     * @param logger the logger
+     * @return the exporter
+     */
+    static MetricsExporter toLogger(System.Logger logger) {
+        Objects.requireNonNull(logger);
+        return metrics -> logger.log(System.Logger.Level.INFO, () -> String.format(Locale.ROOT,
+                "Simulations: %d (%d failed), transitions: %d (%.0f/s), wasted attempts: %d, distinct states: %d",
+                metrics.simulations(), metrics.failures(), metrics.transitions(), metrics.transitionsPerSecond(),
+                metrics.wastedAttempts(), metrics.distinctStates()));
+    }
+
+    /**
+     * Returns an exporter recording every snapshot in the given registry, under names prefixed with {@code verifyj.}.
+     *
+     * @param registry the registry
+     * @return the exporter
+     */
+    static MetricsExporter to(MetricsRegistry registry) {
+        Objects.requireNonNull(registry);
+        return metrics -> {
+            registry.counter("verifyj.simulations", metrics.simulations());
+            registry.counter("verifyj.transitions", metrics.transitions());
+            registry.counter("verifyj.attempts.wasted", metrics.wastedAttempts());
+            registry.counter("verifyj.failures", metrics.failures());
+            registry.gauge("verifyj.states.distinct", metrics.distinctStates());
+            registry.gauge("verifyj.transitions.rate", metrics.transitionsPerSecond());
+        };
+    }
+}
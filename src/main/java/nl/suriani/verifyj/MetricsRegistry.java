@@ -0,0 +1,24 @@
+package nl.suriani.verifyj;
+
+/**
+ * A registry of named metrics, in the style of Micrometer's {@code MeterRegistry}, to which the metrics of a run are
+ * exported by {@link MetricsExporter#to(MetricsRegistry)}. Bridging it to a metrics library takes a few lines,
+ * for instance registering a gauge backed by an {@code AtomicLong} per name on the first call and setting it afterwards.
+ */
+public interface MetricsRegistry {
+    /**
+     * Records the current value of a monotonically increasing count.
+     *
+     * @param name the name of the metric
+     * @param count the count since the run started
+     */
+    void counter(String name, long count);
+
+    /**
+     * Records the current value of a gauge.
+     *
+     * @param name the name of the metric
+     * @param value the value
+     */
+    void gauge(String name, double value);
+}
@@ -0,0 +1,57 @@
+package nl.suriani.verifyj;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * Represents whether and how often a {@link Simulator} exports the metrics of its runs while they run.
+ * The outcomes are counted by the workers in striped counters as they complete, and a sampling thread reads them
+ * at every interval, so the simulations never wait for an exporter. A last snapshot is exported when the run ends.
+ *
+ * @param exporter the exporter of the snapshots, or null to export nothing
+ * @param interval the time between two snapshots
+ */
+public record MetricsReporting(MetricsExporter exporter, Duration interval) {
+    /**
+     * Constructs a MetricsReporting record with validation.
+     *
+     * @param exporter the exporter, or null
+     * @param interval the time between two snapshots
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public MetricsReporting {
+        Objects.requireNonNull(interval, "interval is null");
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("interval must be positive");
+        }
+    }
+
+    /**
+     * Returns a reporting that exports nothing.
+     *
+     * @return a disabled reporting
+     */
+    public static MetricsReporting disabled() {
+        return new MetricsReporting(null, Duration.ofSeconds(1));
+    }
+
+    /**
+     * Returns a reporting exporting a snapshot to the given exporter at every interval.
+     *
+     * @param interval the time between two snapshots
+     * @param exporter the exporter
+     * @return the reporting
+     */
+    public static MetricsReporting every(Duration interval, MetricsExporter exporter) {
+        return new MetricsReporting(Objects.requireNonNull(exporter), interval);
+    }
+
+    /**
+     * Returns true if the metrics are exported.
+     *
+     * @return true if enabled
+     */
+    public boolean isEnabled() {
+        return exporter != null;
+    }
+}
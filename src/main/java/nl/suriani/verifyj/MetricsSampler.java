@@ -0,0 +1,69 @@
+package nl.suriani.verifyj;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * Exports snapshots of the metrics of a run from a daemon thread at the interval of a {@link MetricsReporting},
+ * and a last one from the thread of the run when closed.
+ * An exporter failing on the sampling thread stops the sampling, and its exception is rethrown when the sampler is closed.
+ */
+final class MetricsSampler implements AutoCloseable {
+    private final MetricsExporter exporter;
+    private final Supplier<RunMetrics> metrics;
+    private final ScheduledExecutorService executor;
+    private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+
+    private MetricsSampler(MetricsReporting reporting, Supplier<RunMetrics> metrics) {
+        this.exporter = reporting.exporter();
+        this.metrics = metrics;
+        this.executor = Executors.newSingleThreadScheduledExecutor(task -> Thread.ofPlatform()
+                .name("verifyj-metrics")
+                .daemon()
+                .unstarted(task));
+        var interval = reporting.interval().toNanos();
+        executor.scheduleAtFixedRate(this::sample, interval, interval, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Starts sampling the given metrics, if the reporting is enabled.
+     *
+     * @param reporting the reporting
+     * @param metrics the supplier of the snapshots
+     * @return the sampler, or null if the reporting is disabled
+     */
+    static MetricsSampler start(MetricsReporting reporting, Supplier<RunMetrics> metrics) {
+        return reporting.isEnabled() ? new MetricsSampler(reporting, metrics) : null;
+    }
+
+    private void sample() {
+        try {
+            exporter.export(metrics.get());
+        } catch (RuntimeException e) {
+            failure.compareAndSet(null, e);
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the sampling, letting a sample being exported finish uninterrupted, and exports the last snapshot.
+     *
+     * @throws RuntimeException the first exception thrown by the exporter
+     */
+    @Override
+    public void close() {
+        executor.shutdown();
+        try {
+            executor.awaitTermination(1, TimeUnit.MINUTES);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (failure.get() != null) {
+            throw failure.get();
+        }
+        exporter.export(metrics.get());
+    }
+}
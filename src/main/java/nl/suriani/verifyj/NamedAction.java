@@ -7,17 +7,26 @@ import java.util.Objects;
 /**
  * Represents a named action with optional guards and an expression to apply to a model.
  *
+ * @param name the name of the action
+ * @param expression the expression to apply
+ * @param guards the guard conditions
+ * @param memoized whether the transitions of the action may be taken from the transition cache of a simulation run,
+ *                 see {@link #withMemoization(boolean)}
  * @param <M> the model type
  */
-public record NamedAction<M>(String name, Expression<M, M> expression, List<Expression<M, Boolean>> guards) implements Action<M> {
+public record NamedAction<M>(String name,
+                             Expression<M, M> expression,
+                             List<Expression<M, Boolean>> guards,
+                             boolean memoized) implements Action<M> {
     /**
-     * Constructs a NamedAction with the given name, expression, and guards.
+     * Constructs a NamedAction with the given name, expression, guards, and memoization.
      *
      * @param name the name of the action
      * @param expression the expression to apply
      * @param guards the guard conditions
+     * @param memoized whether the transitions of the action may be memoized
      */
-    public NamedAction(String name, Expression<M, M> expression, List<Expression<M, Boolean>> guards) {
+    public NamedAction(String name, Expression<M, M> expression, List<Expression<M, Boolean>> guards, boolean memoized) {
         Objects.requireNonNull(name, "name is null");
         Objects.requireNonNull(expression, "expression is null");
         Objects.requireNonNull(guards, "guards is null");
@@ -25,6 +34,18 @@ public record NamedAction<M>(String name, Expression<M, M> expression, List<Expr
         this.name = name;
         this.expression = expression;
         this.guards = List.copyOf(guards);
+        this.memoized = memoized;
+    }
+
+    /**
+     * Constructs a NamedAction with the given name, expression, and guards, without memoization.
+     *
+     * @param name the name of the action
+     * @param expression the expression to apply
+     * @param guards the guard conditions
+     */
+    public NamedAction(String name, Expression<M, M> expression, List<Expression<M, Boolean>> guards) {
+        this(name, expression, guards, false);
     }
 
     /**
@@ -49,6 +70,36 @@ public record NamedAction<M>(String name, Expression<M, M> expression, List<Expr
         this(name, expression, List.of());
     }
 
+    /**
+     * Returns a NamedAction whose transitions may be memoized or not. A memoized action applied to a state it was
+     * applied to before, in a run with a transition cache (see {@link SimulationOptions#withTransitionCache(int)}),
+     * takes the next state from the cache instead of evaluating its expression. Only actions whose expression is pure
+     * may be memoized: its result must only depend on the state and the {@link NonDet} choices it makes, and the
+     * transitions that drew a choice are never cached. The expression is worth memoizing when it costs more than
+     * hashing the state and comparing it with the cached one.
+     *
+     * @param memoized whether the transitions of the action may be memoized
+     * @return a new NamedAction with updated memoization
+     */
+    public NamedAction<M> withMemoization(boolean memoized) {
+        return new NamedAction<>(name, expression, guards, memoized);
+    }
+
+    /**
+     * Returns true if all guards pass on the given model, so that the action can be applied to it.
+     *
+     * @param model the model to evaluate the guards on
+     * @return true if the action is enabled
+     */
+    public boolean isEnabled(M model) {
+        for (var guard : guards) {
+            if (!guard.apply(model)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /**
      * Applies the action to the given model if all guards pass.
      *
@@ -58,12 +109,31 @@ public record NamedAction<M>(String name, Expression<M, M> expression, List<Expr
      */
     @Override
     public M apply(M model) {
-        return guards.stream()
-                .allMatch(guard -> guard.apply(model))
+        return isEnabled(model)
                 ?   expression.apply(model)
                 :   failGuards(model);
     }
 
+    /**
+     * Attempts to apply the action to the given model without throwing. Expressions that throw are adapted
+     * as described in {@link ActionExpression#attempt(Expression, Object)}, and a guard that throws is an error.
+     *
+     * @param model the model to apply the action to
+     * @return the result of the attempt
+     */
+    public ActionResult<M> tryApply(M model) {
+        try {
+            if (!isEnabled(model)) {
+                return ActionResult.guardRejected();
+            }
+        } catch (TimeBudget.Exceeded e) {
+            throw e;
+        } catch (Exception e) {
+            return ActionResult.error(e);
+        }
+        return ActionExpression.attempt(expression, model);
+    }
+
     private M failGuards(M model) {
         throw new IllegalStateException();
     }
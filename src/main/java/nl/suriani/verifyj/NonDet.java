@@ -2,9 +2,13 @@ package nl.suriani.verifyj;
 
 import java.util.Arrays;
 import java.util.List;
+import java.util.random.RandomGenerator;
 
 /**
  * Utility interface for non-deterministic operations, such as random selection.
+ * When called from within a simulation, the values are drawn from the generator of that simulation,
+ * so they are reproducible from the seed in {@link SimulationOptions}.
+ * When called from within an exhaustive exploration, every value of {@link #oneOf} and {@link #withinRange} is enumerated.
  */
 public interface NonDet {
     /**
@@ -29,7 +33,7 @@ public interface NonDet {
         if (values == null || values.isEmpty()) {
             throw new IllegalArgumentException("At least one value must be provided");
         }
-        return values.get((int) (Math.random() * values.size()));
+        return values.get(NonDetContext.current().choose(values.size()));
     }
 
     /**
@@ -43,6 +47,21 @@ public interface NonDet {
         if (min >= max) {
             throw new IllegalArgumentException("min must be less than max");
         }
-        return min + (int) (Math.random() * (max - min));
+        var size = (long) max - min;
+        if (size > Integer.MAX_VALUE) {
+            return random().nextInt(min, max);
+        }
+        return min + NonDetContext.current().choose((int) size);
+    }
+
+    /**
+     * Returns the random generator of the current simulation, for draws not covered by the other methods.
+     * Outside a simulation a thread-local generator is returned.
+     *
+     * @return the current random generator
+     * @throws IllegalStateException if called within an exhaustive exploration
+     */
+    static RandomGenerator random() {
+        return NonDetContext.current().random();
     }
 }
@@ -0,0 +1,81 @@
+package nl.suriani.verifyj;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.Supplier;
+import java.util.random.RandomGenerator;
+
+/**
+ * Holds the source of the choices made by {@link NonDet} on the current thread.
+ * Every simulation binds its own generator, so parallel simulations never contend on a shared one,
+ * while an exhaustive exploration binds a source enumerating the choices.
+ */
+final class NonDetContext {
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+    private static final ThreadLocal<ChoiceSource> CURRENT = new ThreadLocal<>();
+
+    private NonDetContext() {
+    }
+
+    /**
+     * Returns the choice source bound to the current thread, or one drawing from a thread-local generator if none is bound.
+     *
+     * @return the current choice source
+     */
+    static ChoiceSource current() {
+        var choices = CURRENT.get();
+        return choices != null ? choices : ChoiceSource.of(ThreadLocalRandom.current());
+    }
+
+    /**
+     * Runs the given supplier with choices drawn from the given generator.
+     *
+     * @param random the generator to bind
+     * @param supplier the code to run
+     * @return the value returned by the supplier
+     * @param <T> the type of the returned value
+     */
+    static <T> T callWith(RandomGenerator random, Supplier<T> supplier) {
+        return callWith(ChoiceSource.of(random), supplier);
+    }
+
+    /**
+     * Runs the given supplier with the given choice source bound to the current thread.
+     *
+     * @param choices the choice source to bind
+     * @param supplier the code to run
+     * @return the value returned by the supplier
+     * @param <T> the type of the returned value
+     */
+    static <T> T callWith(ChoiceSource choices, Supplier<T> supplier) {
+        var previous = CURRENT.get();
+        CURRENT.set(choices);
+        try {
+            return supplier.get();
+        } finally {
+            if (previous == null) {
+                CURRENT.remove();
+            } else {
+                CURRENT.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Derives the generator of a single simulation from the master seed. The derivation only depends on the
+     * seed and the index, so any simulation can be replayed on its own.
+     *
+     * @param seed the master seed
+     * @param simulationIndex the index of the simulation
+     * @return a generator for the simulation
+     */
+    static SplittableRandom forSimulation(long seed, int simulationIndex) {
+        return new SplittableRandom(mix(seed + (simulationIndex + 1L) * GOLDEN_GAMMA));
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+}
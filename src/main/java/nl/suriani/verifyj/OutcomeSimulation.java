@@ -11,20 +11,40 @@ import java.util.Objects;
 public record OutcomeSimulation<M>(OutcomeSimulationStatus status,
                                    List<Transition<M>> transitions,
                                    List<String> failedStateProperties,
-                                   List<String> failedTemporalProperties) {
+                                   List<String> failedTemporalProperties,
+                                   int simulationIndex) {
     /**
-     * Constructs an OutcomeSimulation with the given status, transitions, and failed properties.
+     * Constructs an OutcomeSimulation with the given status, transitions, failed properties and simulation index.
      *
      * @param status the simulation status
      * @param transitions the list of transitions
      * @param failedStateProperties the names of failed state properties
      * @param failedTemporalProperties the names of failed temporal properties
+     * @param simulationIndex the zero-based index of the simulation in its run
      */
     public OutcomeSimulation {
         Objects.requireNonNull(status);
         Objects.requireNonNull(transitions);
         Objects.requireNonNull(failedStateProperties);
         Objects.requireNonNull(failedTemporalProperties);
+        if (simulationIndex < 0) {
+            throw new IllegalArgumentException("simulationIndex must be a non-negative integer");
+        }
+    }
+
+    /**
+     * Constructs an OutcomeSimulation with the given status, transitions, and failed properties.
+     *
+     * @param status the simulation status
+     * @param transitions the list of transitions
+     * @param failedStateProperties the names of failed state properties
+     * @param failedTemporalProperties the names of failed temporal properties
+     */
+    public OutcomeSimulation(OutcomeSimulationStatus status,
+                             List<Transition<M>> transitions,
+                             List<String> failedStateProperties,
+                             List<String> failedTemporalProperties) {
+        this(status, transitions, failedStateProperties, failedTemporalProperties, 0);
     }
 
     /**
@@ -53,7 +73,7 @@ public record OutcomeSimulation<M>(OutcomeSimulationStatus status,
      * @return a new OutcomeSimulation with updated transitions
      */
     public OutcomeSimulation<M> withTransitions(List<Transition<M>> transitions) {
-        return new OutcomeSimulation<>(status, transitions, failedStateProperties, failedTemporalProperties);
+        return new OutcomeSimulation<>(status, transitions, failedStateProperties, failedTemporalProperties, simulationIndex);
     }
 
     /**
@@ -63,7 +83,7 @@ public record OutcomeSimulation<M>(OutcomeSimulationStatus status,
      * @return a new OutcomeSimulation with updated failed state properties
      */
     public OutcomeSimulation<M> withFailedStateProperties(List<String> failedPostConditions) {
-        return new OutcomeSimulation<>(status, transitions, failedPostConditions, failedTemporalProperties);
+        return new OutcomeSimulation<>(status, transitions, failedPostConditions, failedTemporalProperties, simulationIndex);
     }
 
     /**
@@ -73,7 +93,7 @@ public record OutcomeSimulation<M>(OutcomeSimulationStatus status,
      * @return a new OutcomeSimulation with updated failed temporal properties
      */
     public OutcomeSimulation<M> withFailedTemporalProperties(List<String> failedTemporalProperties) {
-        return new OutcomeSimulation<>(status, transitions, failedStateProperties, failedTemporalProperties);
+        return new OutcomeSimulation<>(status, transitions, failedStateProperties, failedTemporalProperties, simulationIndex);
     }
 
     /**
@@ -83,6 +103,16 @@ public record OutcomeSimulation<M>(OutcomeSimulationStatus status,
      * @return a new OutcomeSimulation with updated status
      */
     public OutcomeSimulation<M> withStatus(OutcomeSimulationStatus status) {
-        return new OutcomeSimulation<>(status, transitions, failedStateProperties, failedTemporalProperties);
+        return new OutcomeSimulation<>(status, transitions, failedStateProperties, failedTemporalProperties, simulationIndex);
+    }
+
+    /**
+     * Returns a new OutcomeSimulation with the given simulation index.
+     *
+     * @param simulationIndex the zero-based index of the simulation in its run
+     * @return a new OutcomeSimulation with updated simulation index
+     */
+    public OutcomeSimulation<M> withSimulationIndex(int simulationIndex) {
+        return new OutcomeSimulation<>(status, transitions, failedStateProperties, failedTemporalProperties, simulationIndex);
     }
 }
@@ -17,7 +17,9 @@ public enum OutcomeSimulationStatus {
     /** Simulation failed due to state property violation. */
     FAILED_STATE_PROPERTIES("Failed state properties"),
     /** Simulation failed due to temporal property violation. */
-    FAILED_TEMPORAL_PROPERTIES("Failed temporal properties");
+    FAILED_TEMPORAL_PROPERTIES("Failed temporal properties"),
+    /** Simulation reached a state in which no action is enabled. */
+    DEADLOCK("Deadlock");
 
     private String value;
 
@@ -81,6 +83,14 @@ public enum OutcomeSimulationStatus {
         return this == FAILED_TEMPORAL_PROPERTIES;
     }
 
+    /**
+     * Returns true if the status is DEADLOCK.
+     * @return true if deadlock
+     */
+    public boolean isDeadlock() {
+        return this == DEADLOCK;
+    }
+
     /**
      * Returns the string value of the status.
      * @return the status value
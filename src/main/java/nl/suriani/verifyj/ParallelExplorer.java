@@ -0,0 +1,277 @@
+package nl.suriani.verifyj;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CountedCompleter;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Explores every state reachable from the initial states on several threads.
+ * Every newly visited state is expanded by a task pushed on the deque of the worker that found it, and idle workers
+ * steal tasks from the others. The tasks are counted completers, so the exploration ends exactly when the last task completes.
+ * <p>
+ * States are claimed through a {@link FingerprintStore} created by a {@link StateStorage}, striped by default,
+ * so each one is expanded once. As the order of the exploration
+ * depends on scheduling, a counterexample is not necessarily a shortest one, and the depth of a state is the length of the
+ * path it was discovered through. With a finite maximum depth, the smallest depth every state was reached at is also kept,
+ * on the heap, and a state reached again through a shorter path is expanded again, so that every state within
+ * the maximum depth is visited whatever the scheduling.
+ *
+ * @param <M> the model type
+ */
+public class ParallelExplorer<M> implements ExecutionModel<M, ExplorationReport<M>> {
+    private final ExplorationOptions explorationOptions;
+    private final int parallelism;
+    private final StateStorage<M> storage;
+
+    /**
+     * Constructs a ParallelExplorer with the given exploration options, using all available processors.
+     *
+     * @param explorationOptions the exploration options
+     */
+    public ParallelExplorer(ExplorationOptions explorationOptions) {
+        this(explorationOptions, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a ParallelExplorer with the given exploration options and number of worker threads.
+     *
+     * @param explorationOptions the exploration options
+     * @param parallelism the number of worker threads
+     */
+    public ParallelExplorer(ExplorationOptions explorationOptions, int parallelism) {
+        this(explorationOptions, parallelism, StateStorage.inMemory());
+    }
+
+    /**
+     * Constructs a ParallelExplorer with the given exploration options, number of worker threads and storage.
+     * The states awaiting expansion are held by the tasks of the workers, so only the visited states are spilled.
+     *
+     * @param explorationOptions the exploration options
+     * @param parallelism the number of worker threads
+     * @param storage the storage of the visited states
+     */
+    public ParallelExplorer(ExplorationOptions explorationOptions, int parallelism, StateStorage<M> storage) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.explorationOptions = explorationOptions;
+        this.parallelism = parallelism;
+        this.storage = Objects.requireNonNull(storage);
+    }
+
+    /**
+     * Explores the state space of the given specification and returns a report.
+     *
+     * @param spec the specification to explore
+     * @return the report of the exploration
+     */
+    @Override
+    public ExplorationReport<M> run(Specification<M> spec) {
+        try (var visited = storage.visited(parallelism * 16)) {
+            return explore(new Exploration(spec, visited));
+        }
+    }
+
+    private ExplorationReport<M> explore(Exploration exploration) {
+        var spec = exploration.spec;
+
+        var initialStates = new ChoiceEnumerator<M>();
+        initialStates.reset(() -> spec.init().apply(null));
+        var roots = new ArrayList<M>();
+        while (initialStates.advance()) {
+            var state = initialStates.current();
+            var fingerprint = exploration.fingerprint.of(state);
+            if (exploration.isBeyondLimit(fingerprint)) {
+                exploration.limited.set(true);
+                return exploration.report();
+            }
+            if (exploration.visited.add(fingerprint, FingerprintPaths.ROOT)) {
+                if (exploration.check(state, fingerprint)) {
+                    return exploration.report();
+                }
+                roots.add(state);
+            }
+            if (exploration.depths != null) {
+                exploration.depths.lower(fingerprint, 0);
+            }
+        }
+
+        if (roots.isEmpty()) {
+            return new ExplorationReport<>(ExplorationStatus.FAILED_INIT, 0, 0, 0, List.of(), List.of(), 0.0);
+        }
+
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            pool.invoke(new Roots(exploration, roots));
+        } finally {
+            pool.shutdown();
+        }
+
+        return exploration.report();
+    }
+
+    private record Violation(long fingerprint, List<String> failedStateProperties) { }
+
+    /**
+     * The state shared by the workers of a single exploration.
+     */
+    private final class Exploration {
+        private final Specification<M> spec;
+        private final Fingerprint<M> fingerprint;
+        private final FingerprintStore visited;
+        private final FingerprintSet depths;
+        private final long start = System.nanoTime();
+        private final LongAdder transitions = new LongAdder();
+        private final LongAccumulator depth = new LongAccumulator(Math::max, 0);
+        private final AtomicReference<Violation> violation = new AtomicReference<>();
+        private final AtomicBoolean incomplete = new AtomicBoolean();
+        private final AtomicBoolean limited = new AtomicBoolean();
+
+        Exploration(Specification<M> spec, FingerprintStore visited) {
+            this.spec = spec;
+            this.fingerprint = spec.canonicalFingerprint();
+            this.visited = visited;
+            this.depths = explorationOptions.maxDepth() == Integer.MAX_VALUE
+                    ? null
+                    : new FingerprintSet(parallelism * 16, true);
+        }
+
+        boolean stopped() {
+            return violation.get() != null || limited.get();
+        }
+
+        /**
+         * Tells whether the state with the given fingerprint is new while the maximum number of states is already
+         * visited, so that the exploration is only reported incomplete if some state is actually left out.
+         */
+        boolean isBeyondLimit(long stateFingerprint) {
+            return visited.size() >= explorationOptions.maxStates() && !visited.contains(stateFingerprint);
+        }
+
+        /**
+         * Checks a newly visited state against the state properties, recording the first violation found.
+         *
+         * @param state the state
+         * @param stateFingerprint the fingerprint of the state
+         * @return true if the state violates a state property
+         */
+        boolean check(M state, long stateFingerprint) {
+            var failingStateProperties = spec.stateProperties().stream()
+                    .filter(stateProperty -> !stateProperty.test(state))
+                    .map(StateProperty::name)
+                    .toList();
+            if (failingStateProperties.isEmpty()) {
+                return false;
+            }
+            violation.compareAndSet(null, new Violation(stateFingerprint, failingStateProperties));
+            return true;
+        }
+
+        ExplorationReport<M> report() {
+            var found = violation.get();
+            var collisionProbability = visited.collisionProbability(fingerprint.bits());
+            var elapsed = Duration.ofNanos(System.nanoTime() - start);
+            if (found != null) {
+                var path = FingerprintPaths.chain(found.fingerprint(), f -> visited.get(f, FingerprintPaths.ROOT));
+                return new ExplorationReport<>(ExplorationStatus.FAILED_STATE_PROPERTIES, visited.size(), transitions.sum(),
+                        (int) depth.get(), FingerprintPaths.replay(spec, path), found.failedStateProperties(),
+                        collisionProbability, elapsed, visited.metrics());
+            }
+            var status = incomplete.get() || limited.get() ? ExplorationStatus.INCOMPLETE : ExplorationStatus.COMPLETE;
+            return new ExplorationReport<>(status, visited.size(), transitions.sum(), (int) depth.get(), List.of(), List.of(),
+                    collisionProbability, elapsed, visited.metrics());
+        }
+    }
+
+    /**
+     * Forks the expansion of every initial state.
+     */
+    @SuppressWarnings("serial")
+    private final class Roots extends CountedCompleter<Void> {
+        private final Exploration exploration;
+        private final List<M> states;
+
+        Roots(Exploration exploration, List<M> states) {
+            this.exploration = exploration;
+            this.states = states;
+        }
+
+        @Override
+        public void compute() {
+            for (var state : states) {
+                addToPendingCount(1);
+                new Expand(this, exploration, state, exploration.fingerprint.of(state), 0).fork();
+            }
+            tryComplete();
+        }
+    }
+
+    /**
+     * Expands a single state, forking the expansion of every successor that was not visited yet,
+     * or only at a greater depth.
+     */
+    @SuppressWarnings("serial")
+    private final class Expand extends CountedCompleter<Void> {
+        private final Exploration exploration;
+        private final M state;
+        private final long fingerprint;
+        private final int depth;
+
+        Expand(CountedCompleter<?> parent, Exploration exploration, M state, long fingerprint, int depth) {
+            super(parent);
+            this.exploration = exploration;
+            this.state = state;
+            this.fingerprint = fingerprint;
+            this.depth = depth;
+        }
+
+        @Override
+        public void compute() {
+            if (depth >= explorationOptions.maxDepth()) {
+                exploration.incomplete.set(true);
+            } else {
+                expand();
+            }
+            tryComplete();
+        }
+
+        private void expand() {
+            var successors = new Successors<M>(exploration.spec.step());
+            successors.reset(state);
+
+            while (!exploration.stopped() && successors.advance()) {
+                exploration.transitions.increment();
+                var newState = successors.successor();
+                var newFingerprint = exploration.fingerprint.of(newState);
+                if (exploration.isBeyondLimit(newFingerprint)) {
+                    exploration.limited.set(true);
+                    return;
+                }
+                var isNew = exploration.visited.add(newFingerprint, fingerprint);
+                var isShorter = exploration.depths != null && exploration.depths.lower(newFingerprint, depth + 1);
+                if (!isNew) {
+                    if (isShorter) {
+                        addToPendingCount(1);
+                        new Expand(this, exploration, newState, newFingerprint, depth + 1).fork();
+                    }
+                    continue;
+                }
+                exploration.depth.accumulate(depth + 1);
+
+                if (exploration.check(newState, newFingerprint)) {
+                    return;
+                }
+
+                addToPendingCount(1);
+                new Expand(this, exploration, newState, newFingerprint, depth + 1).fork();
+            }
+        }
+    }
+}
@@ -0,0 +1,243 @@
+package nl.suriani.verifyj;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Explores every state reachable from the initial states, depth first, without interleaving independent actions
+ * in every order (see {@link Independence}). It uses sleep sets: once the transitions of an action from a state have
+ * been explored, that action sleeps in the states reached from the same state through the actions independent of it,
+ * and is not applied from them, as the states it would reach there are reached through the other order anyway.
+ * The fingerprint of every visited state is kept with the mask of the actions that slept when it was explored, and a
+ * visited state is explored again only through the actions that slept then but do not now, so that every reachable
+ * state is still visited, and every state property verdict is the one of a full exploration.
+ * <p>
+ * Only the transitions are reduced, not the states: persistent sets, which also skip states, would not preserve
+ * the verdicts of state properties without knowing which actions they observe. State properties are checked
+ * on every initial state, with an empty counterexample, and on every state reached by a transition, with the path
+ * that reached it as counterexample, which is not necessarily a shortest one. Temporal properties are not checked, as they are defined over single traces.
+ * <p>
+ * With the empty independence relation, the exploration is a plain depth-first search with visited states.
+ * The {@link Specification#symmetry()} is not applied: the sleep set of a state names the actions of that very state,
+ * which are not those of the states symmetric to it, so states are deduplicated on {@link Specification#fingerprint()}.
+ *
+ * @param <M> the model type
+ */
+public class PartialOrderExplorer<M> implements ExecutionModel<M, ExplorationReport<M>> {
+    private final ExplorationOptions explorationOptions;
+    private final Independence<M> independence;
+
+    /**
+     * Constructs a PartialOrderExplorer with the given exploration options and independence relation.
+     *
+     * @param explorationOptions the exploration options
+     * @param independence the independent actions of the explored specifications
+     */
+    public PartialOrderExplorer(ExplorationOptions explorationOptions, Independence<M> independence) {
+        this.explorationOptions = explorationOptions;
+        this.independence = Objects.requireNonNull(independence);
+    }
+
+    /**
+     * Explores the state space of the given specification and returns a report.
+     *
+     * @param spec the specification to explore
+     * @return the report of the exploration
+     * @throws IllegalArgumentException if the step has more than 64 actions
+     */
+    @Override
+    public ExplorationReport<M> run(Specification<M> spec) {
+        var start = System.nanoTime();
+        var actions = spec.step().actions();
+        if (actions.size() > Long.SIZE) {
+            throw new IllegalArgumentException("Partial-order reduction supports up to 64 actions");
+        }
+        var independent = new long[actions.size()];
+        for (var a = 0; a < actions.size(); a++) {
+            for (var b = 0; b < actions.size(); b++) {
+                if (a != b && independence.independent(actions.get(a), actions.get(b))) {
+                    independent[a] |= 1L << b;
+                }
+            }
+        }
+
+        var roots = new ArrayList<M>();
+        var initialStates = new ChoiceEnumerator<M>();
+        initialStates.reset(() -> spec.init().apply(null));
+        while (initialStates.advance()) {
+            roots.add(initialStates.current());
+        }
+        if (roots.isEmpty()) {
+            return new ExplorationReport<>(ExplorationStatus.FAILED_INIT, 0, 0, 0, List.of(), List.of(), 0.0);
+        }
+
+        var search = new Search(spec, independent);
+        for (var root : roots) {
+            if (!search.explore(root)) {
+                break;
+            }
+        }
+        return search.report(start);
+    }
+
+    /**
+     * The depth-first search, with the sleep set of every level of the current path.
+     */
+    private final class Search {
+        private static final long UNEXPLORED = -1L;
+
+        private final Specification<M> spec;
+        private final long[] independent;
+        private final String[] actionNames;
+        private final FingerprintSet visited = new FingerprintSet(1, true);
+        private final List<Successors<M>> frames = new ArrayList<>();
+        private long[] sleeps = new long[16];
+        private int[] lastActions = new int[16];
+        private ExplorationStatus status = ExplorationStatus.COMPLETE;
+        private List<Transition<M>> counterExample = List.of();
+        private List<String> failedStateProperties = List.of();
+        private long transitions;
+        private int depth;
+        private boolean limited;
+
+        Search(Specification<M> spec, long[] independent) {
+            this.spec = spec;
+            this.independent = independent;
+            this.actionNames = spec.step().actions().stream()
+                    .map(NamedAction::name)
+                    .toArray(String[]::new);
+        }
+
+        /**
+         * Explores the states reachable from the given initial state.
+         *
+         * @param root the initial state
+         * @return false if the search must stop
+         */
+        boolean explore(M root) {
+            var trace = new Trace<>(actionNames, root, 16);
+            var rootFingerprint = spec.fingerprint().of(root);
+            if (!visited.contains(rootFingerprint) && visited.size() < explorationOptions.maxStates()) {
+                var failing = failingStateProperties(root);
+                if (!failing.isEmpty()) {
+                    status = ExplorationStatus.FAILED_STATE_PROPERTIES;
+                    failedStateProperties = failing;
+                    return false;
+                }
+            }
+            if (!enter(root, rootFingerprint, 0, 0L)) {
+                return !limited;
+            }
+            var level = 0;
+
+            while (level >= 0) {
+                var frame = frames.get(level);
+                if (!frame.advance()) {
+                    level--;
+                    if (level >= 0) {
+                        trace.truncate(level);
+                    }
+                    continue;
+                }
+                var action = frame.actionIndex();
+                if (action != lastActions[level]) {
+                    if (lastActions[level] >= 0) {
+                        sleeps[level] |= 1L << lastActions[level];
+                    }
+                    lastActions[level] = action;
+                }
+                transitions++;
+
+                var newState = frame.successor();
+                var newLevel = level + 1;
+                var fingerprint = spec.fingerprint().of(newState);
+                if (!visited.contains(fingerprint)) {
+                    depth = Math.max(depth, newLevel);
+                    var failing = failingStateProperties(newState);
+                    if (!failing.isEmpty()) {
+                        var path = new ArrayList<Transition<M>>(trace);
+                        path.add(new Transition<>(trace.state(level), newState, frame.action().name(), newLevel, newLevel));
+                        status = ExplorationStatus.FAILED_STATE_PROPERTIES;
+                        counterExample = path;
+                        failedStateProperties = failing;
+                        return false;
+                    }
+                }
+                if (!enter(newState, fingerprint, newLevel, sleeps[level] & independent[action])) {
+                    if (limited) {
+                        return false;
+                    }
+                    continue;
+                }
+                trace.append(newState, action, newLevel);
+                level = newLevel;
+            }
+            return true;
+        }
+
+        /**
+         * Records a visit of the given state with the given sleep set, and prepares the frame of its level
+         * with the actions to explore from it, if any.
+         *
+         * @param state the state reached
+         * @param fingerprint the fingerprint of the state
+         * @param level the number of transitions that reached it
+         * @param sleep the actions sleeping in it
+         * @return true if the state must be explored from the prepared frame
+         */
+        private boolean enter(M state, long fingerprint, int level, long sleep) {
+            var isNew = !visited.contains(fingerprint);
+            var explored = isNew ? UNEXPLORED : visited.get(fingerprint, UNEXPLORED);
+            if (isNew && visited.size() >= explorationOptions.maxStates()) {
+                status = ExplorationStatus.INCOMPLETE;
+                limited = true;
+                return false;
+            }
+            if (level == explorationOptions.maxDepth()) {
+                if (isNew) {
+                    visited.put(fingerprint, UNEXPLORED);
+                }
+                status = ExplorationStatus.INCOMPLETE;
+                return false;
+            }
+            var awake = isNew ? ~sleep : explored & ~sleep;
+            if (awake == 0L) {
+                return false;
+            }
+            var newSleep = isNew ? sleep : explored & sleep;
+            visited.put(fingerprint, newSleep);
+
+            if (level == sleeps.length) {
+                sleeps = Arrays.copyOf(sleeps, level * 2);
+                lastActions = Arrays.copyOf(lastActions, level * 2);
+            }
+            sleeps[level] = newSleep;
+            lastActions[level] = -1;
+            frame(level).reset(state, ~awake);
+            return true;
+        }
+
+        private Successors<M> frame(int level) {
+            while (frames.size() <= level) {
+                frames.add(new Successors<>(spec.step()));
+            }
+            return frames.get(level);
+        }
+
+        private List<String> failingStateProperties(M state) {
+            return spec.stateProperties().stream()
+                    .filter(stateProperty -> !stateProperty.test(state))
+                    .map(StateProperty::name)
+                    .toList();
+        }
+
+        ExplorationReport<M> report(long start) {
+            return new ExplorationReport<>(status, visited.size(), transitions, depth, counterExample,
+                    failedStateProperties, visited.collisionProbability(spec.fingerprint().bits()),
+                    Duration.ofNanos(System.nanoTime() - start), visited.metrics());
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package nl.suriani.verifyj;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+
+/**
+ * The evaluations of the actions and properties of a specification across a run, measured when profiling
+ * is enabled (see {@link SimulationOptions#withProfiling(boolean)}), to find the expensive parts of a specification.
+ *
+ * @param timings the timing of every part evaluated at least once
+ */
+public record Profile(List<Timing> timings) {
+    /**
+     * The profile of a run that was not profiled.
+     */
+    public static final Profile NONE = new Profile(List.of());
+
+    /**
+     * Constructs a Profile with the given timings.
+     *
+     * @param timings the timings
+     */
+    public Profile {
+        timings = List.copyOf(Objects.requireNonNull(timings));
+    }
+
+    /**
+     * Returns the timing of the given part.
+     *
+     * @param part the kind of part
+     * @param name the name of the action or property
+     * @return the timing, or empty if the part was never evaluated
+     */
+    public Optional<Timing> of(ProfiledPart part, String name) {
+        return timings.stream()
+                .filter(timing -> timing.part() == part && timing.name().equals(name))
+                .findFirst();
+    }
+
+    /**
+     * Returns the timings, the most expensive part first.
+     *
+     * @return the timings by decreasing estimated total time
+     */
+    public List<Timing> byTotalTime() {
+        return timings.stream()
+                .sorted(Comparator.comparingLong(Timing::totalNanos).reversed())
+                .toList();
+    }
+}
@@ -0,0 +1,31 @@
+package nl.suriani.verifyj;
+
+/**
+ * Enum representing the parts of a specification whose evaluations are profiled, see {@link Profile}.
+ */
+public enum ProfiledPart {
+    /** The guards of an action, evaluated together. A rejection is a guard that did not pass. */
+    GUARDS("Guards"),
+    /** The expression of an action. A rejection is a precondition that refused the state. */
+    ACTION("Action"),
+    /** A state property. A rejection is a state on which the property does not hold. */
+    STATE_PROPERTY("State property"),
+    /** The monitor of a temporal property observing a transition. A rejection is a violated verdict. */
+    TEMPORAL_STEP("Temporal step"),
+    /** The final check of a temporal property at the end of a simulation. A rejection is a property that does not hold. */
+    TEMPORAL_FINAL("Temporal final check");
+
+    private final String value;
+
+    ProfiledPart(String value) {
+        this.value = value;
+    }
+
+    /**
+     * Returns the string value of the part.
+     * @return the part value
+     */
+    public String value() {
+        return value;
+    }
+}
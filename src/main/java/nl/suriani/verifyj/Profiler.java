@@ -0,0 +1,159 @@
+package nl.suriani.verifyj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+/**
+ * Measures the evaluations of the actions and properties of a specification in plain arrays.
+ * Each simulation profiles into its own Profiler, merged into the one of its run when it ends,
+ * so that the workers of a run do not contend on shared counters.
+ * <p>
+ * Every evaluation is counted, but only one in {@value #SAMPLING} on average is timed, picked at random so that
+ * no part is skipped systematically by the regular pattern of the evaluations of a step: reading the clock costs
+ * about as much as evaluating a simple guard or property. The timed evaluations are also emitted
+ * as {@link ProfilingEvent}s when a JFR recording enables them.
+ */
+final class Profiler {
+    static final int SAMPLING = 16;
+    static final long UNTIMED = Long.MIN_VALUE;
+
+    private static final int INVOCATIONS = 0;
+    private static final int REJECTIONS = 1;
+    private static final int ERRORS = 2;
+    private static final int TIMED = 3;
+    private static final int NANOS = 4;
+    private static final int COUNTERS = 5;
+
+    private final String[] actionNames;
+    private final String[] statePropertyNames;
+    private final String[] temporalPropertyNames;
+    private final int[] offsets = new int[ProfiledPart.values().length];
+    private final long[] counters;
+    private final long[] histograms;
+    private long sampler = System.nanoTime() | 1L;
+
+    /**
+     * Constructs a Profiler for the given actions and properties.
+     *
+     * @param actionNames the names of the actions, indexed by action index
+     * @param statePropertyNames the names of the state properties
+     * @param temporalPropertyNames the names of the temporal properties
+     */
+    Profiler(String[] actionNames, String[] statePropertyNames, String[] temporalPropertyNames) {
+        this.actionNames = actionNames;
+        this.statePropertyNames = statePropertyNames;
+        this.temporalPropertyNames = temporalPropertyNames;
+        var probes = 0;
+        for (var part : ProfiledPart.values()) {
+            offsets[part.ordinal()] = probes;
+            probes += names(part).length;
+        }
+        this.counters = new long[probes * COUNTERS];
+        this.histograms = new long[probes * Timing.BUCKETS];
+    }
+
+    /**
+     * Returns a Profiler for the same actions and properties, with nothing measured yet.
+     *
+     * @return a new empty Profiler
+     */
+    Profiler fresh() {
+        return new Profiler(actionNames, statePropertyNames, temporalPropertyNames);
+    }
+
+    /**
+     * Starts an evaluation, deciding whether it is timed.
+     *
+     * @return the time the evaluation starts, as returned by {@link System#nanoTime()}, or {@link #UNTIMED}
+     */
+    long start() {
+        sampler ^= sampler << 13;
+        sampler ^= sampler >>> 7;
+        sampler ^= sampler << 17;
+        return (sampler & (SAMPLING - 1)) == 0 ? System.nanoTime() : UNTIMED;
+    }
+
+    /**
+     * Records an evaluation started by {@link #start()}, ending now.
+     *
+     * @param part the kind of part evaluated
+     * @param index the index of the action or property
+     * @param start what {@link #start()} returned
+     * @param rejected whether the evaluation rejected the state
+     * @param error whether the evaluation threw an exception
+     */
+    void record(ProfiledPart part, int index, long start, boolean rejected, boolean error) {
+        var probe = offsets[part.ordinal()] + index;
+        var base = probe * COUNTERS;
+        counters[base + INVOCATIONS]++;
+        if (rejected) {
+            counters[base + REJECTIONS]++;
+        }
+        if (error) {
+            counters[base + ERRORS]++;
+        }
+        if (start == UNTIMED) {
+            return;
+        }
+        var nanos = Math.max(0L, System.nanoTime() - start);
+        counters[base + TIMED]++;
+        counters[base + NANOS] += nanos;
+        histograms[probe * Timing.BUCKETS + (nanos == 0 ? 0 : 63 - Long.numberOfLeadingZeros(nanos))]++;
+
+        var event = new ProfilingEvent();
+        if (event.shouldCommit()) {
+            event.part = part.value();
+            event.name = names(part)[index];
+            event.outcome = error ? "error" : rejected ? "rejected" : "passed";
+            event.nanos = nanos;
+            event.commit();
+        }
+    }
+
+    /**
+     * Adds the measures of the given Profiler, which must profile the same specification, to this one.
+     *
+     * @param other the Profiler to add
+     */
+    void add(Profiler other) {
+        for (var i = 0; i < counters.length; i++) {
+            counters[i] += other.counters[i];
+        }
+        for (var i = 0; i < histograms.length; i++) {
+            histograms[i] += other.histograms[i];
+        }
+    }
+
+    /**
+     * Returns the profile of the parts evaluated at least once.
+     *
+     * @return the profile
+     */
+    Profile profile() {
+        var timings = new ArrayList<Timing>();
+        for (var part : ProfiledPart.values()) {
+            var names = names(part);
+            for (var index = 0; index < names.length; index++) {
+                var probe = offsets[part.ordinal()] + index;
+                var base = probe * COUNTERS;
+                if (counters[base + INVOCATIONS] == 0) {
+                    continue;
+                }
+                var histogram = Arrays.stream(histograms, probe * Timing.BUCKETS, (probe + 1) * Timing.BUCKETS)
+                        .boxed()
+                        .toList();
+                timings.add(new Timing(part, names[index], counters[base + INVOCATIONS], counters[base + REJECTIONS],
+                        counters[base + ERRORS], counters[base + TIMED], counters[base + NANOS], histogram));
+            }
+        }
+        return new Profile(timings);
+    }
+
+    private String[] names(ProfiledPart part) {
+        return switch (part) {
+            case GUARDS, ACTION -> actionNames;
+            case STATE_PROPERTY -> statePropertyNames;
+            case TEMPORAL_STEP, TEMPORAL_FINAL -> temporalPropertyNames;
+        };
+    }
+}
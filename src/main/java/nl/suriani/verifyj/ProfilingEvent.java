@@ -0,0 +1,34 @@
+package nl.suriani.verifyj;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Enabled;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+/**
+ * A JFR event emitted for every timed evaluation of a part of a specification, when a recording enables it,
+ * for instance with {@code -XX:StartFlightRecording:settings=profile,+nl.suriani.verifyj.Evaluation#enabled=true}.
+ */
+@Name("nl.suriani.verifyj.Evaluation")
+@Label("Specification Evaluation")
+@Category("verify-j")
+@Description("The evaluation of an action, a guard or a property of a specification")
+@Enabled(false)
+@StackTrace(false)
+final class ProfilingEvent extends jdk.jfr.Event {
+    @Label("Part")
+    String part;
+
+    @Label("Name")
+    String name;
+
+    @Label("Outcome")
+    String outcome;
+
+    @Label("Time")
+    @Timespan(Timespan.NANOSECONDS)
+    long nanos;
+}
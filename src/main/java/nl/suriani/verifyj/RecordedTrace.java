@@ -0,0 +1,224 @@
+package nl.suriani.verifyj;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A simulation trace as it is saved by {@link TraceFile}: the actions applied, by index into the action names,
+ * the {@link NonDet} choices made by the initialization and by every transition, and optionally the states reached.
+ * It is replayed by {@link Simulator#replay(Specification, RecordedTrace)} without drawing anything at random,
+ * so it stays replayable whatever the seed, the generator or the options of the run it comes from.
+ * <p>
+ * A trace ending with a state property violation includes the violating transition.
+ *
+ * @param <M> the model type
+ */
+public final class RecordedTrace<M> {
+    private final long seed;
+    private final int simulationIndex;
+    private final OutcomeSimulationStatus status;
+    private final String[] actionNames;
+    private final int[] actions;
+    private final int[] attempts;
+    private final long[] choices;
+    private final int[] choiceEnds;
+    private final Object[] states;
+
+    /**
+     * Constructs a RecordedTrace from its columns.
+     *
+     * @param seed the master seed of the run
+     * @param simulationIndex the index of the simulation in its run
+     * @param status the status of the simulation
+     * @param actionNames the names of the actions, indexed by action index
+     * @param actions the action index of every transition
+     * @param attempts the attempt number of every transition
+     * @param choices the choices made along the trace
+     * @param choiceEnds where the choices of the initialization, then of every transition, end
+     * @param states the initial state and the state reached by every transition, or null if not recorded
+     */
+    RecordedTrace(long seed, int simulationIndex, OutcomeSimulationStatus status, String[] actionNames, int[] actions,
+                  int[] attempts, long[] choices, int[] choiceEnds, Object[] states) {
+        if (attempts.length != actions.length || choiceEnds.length != actions.length + 1
+                || (states != null && states.length != actions.length + 1)) {
+            throw new IllegalArgumentException("The columns of the trace have different lengths");
+        }
+        this.seed = seed;
+        this.simulationIndex = simulationIndex;
+        this.status = Objects.requireNonNull(status);
+        this.actionNames = actionNames;
+        this.actions = actions;
+        this.attempts = attempts;
+        this.choices = choices;
+        this.choiceEnds = choiceEnds;
+        this.states = states;
+    }
+
+    /**
+     * Returns the recorded trace of the given outcome simulation, which must come from a {@link Simulator}
+     * recording its traces (see {@link TraceRecording}).
+     *
+     * @param outcomeSimulation the outcome simulation
+     * @param seed the master seed of its run
+     * @return the recorded trace
+     * @param <M> the model type
+     * @throws IllegalArgumentException if the choices of the simulation were not recorded
+     */
+    public static <M> RecordedTrace<M> of(OutcomeSimulation<M> outcomeSimulation, long seed) {
+        if (!(outcomeSimulation.transitions() instanceof Trace<M> trace) || trace.choices() == null) {
+            throw new IllegalArgumentException("The choices of the simulation were not recorded");
+        }
+        return new RecordedTrace<>(seed, outcomeSimulation.simulationIndex(), outcomeSimulation.status(),
+                trace.actionNames(), trace.recordedActions(), trace.recordedAttempts(), trace.choices().toArray(),
+                trace.recordedChoiceEnds(), trace.recordedStates());
+    }
+
+    /**
+     * Returns the master seed of the run the trace comes from.
+     *
+     * @return the seed
+     */
+    public long seed() {
+        return seed;
+    }
+
+    /**
+     * Returns the index of the simulation in its run.
+     *
+     * @return the simulation index
+     */
+    public int simulationIndex() {
+        return simulationIndex;
+    }
+
+    /**
+     * Returns the status the simulation ended with.
+     *
+     * @return the status
+     */
+    public OutcomeSimulationStatus status() {
+        return status;
+    }
+
+    /**
+     * Returns the names of the actions of the specification the trace was recorded with.
+     *
+     * @return the action names
+     */
+    public List<String> actionNames() {
+        return List.of(actionNames);
+    }
+
+    /**
+     * Returns the number of transitions.
+     *
+     * @return the number of transitions
+     */
+    public int size() {
+        return actions.length;
+    }
+
+    /**
+     * Returns the name of the action applied by the transition at the given index.
+     *
+     * @param index the zero-based index of the transition
+     * @return the action name
+     */
+    public String actionName(int index) {
+        return actionNames[actions[index]];
+    }
+
+    /**
+     * Returns the attempt number of the transition at the given index.
+     *
+     * @param index the zero-based index of the transition
+     * @return the attempt number
+     */
+    public int attemptNumber(int index) {
+        return attempts[index];
+    }
+
+    /**
+     * Returns true if the states were recorded along with the choices.
+     *
+     * @return true if the states are available
+     */
+    public boolean hasStates() {
+        return states != null;
+    }
+
+    /**
+     * Returns the state at the given position: the initial state at 0, and the state reached by the i-th transition at i.
+     *
+     * @param index the position of the state, between 0 and {@link #size()}
+     * @return the state
+     * @throws IllegalStateException if the states were not recorded
+     */
+    @SuppressWarnings("unchecked")
+    public M state(int index) {
+        if (states == null) {
+            throw new IllegalStateException("The states of the trace were not recorded");
+        }
+        return (M) states[index];
+    }
+
+    /**
+     * Returns the action index of the transition at the given index.
+     *
+     * @param index the zero-based index of the transition
+     * @return the action index
+     */
+    int action(int index) {
+        return actions[index];
+    }
+
+    /**
+     * Returns the choices made along the trace.
+     *
+     * @return the choices, not to be modified
+     */
+    long[] choices() {
+        return choices;
+    }
+
+    /**
+     * Returns where the choices of the initialization, at 0, or of the i-th transition, at i, end.
+     * The choices of the i-th transition start where the ones before end.
+     *
+     * @param position the position of the state reached by the choices
+     * @return the end of the choices, exclusive
+     */
+    int choiceEnd(int position) {
+        return choiceEnds[position];
+    }
+
+    /**
+     * Returns a trace made of the given transitions of this one, in the given order, with their choices.
+     * The states are left out, as the transitions no longer reach them, and the attempts are renumbered.
+     *
+     * @param indexes the indexes of the transitions to keep
+     * @return the trace of the selected transitions
+     */
+    RecordedTrace<M> select(int[] indexes) {
+        var selectedActions = new int[indexes.length];
+        var selectedAttempts = new int[indexes.length];
+        var selectedChoiceEnds = new int[indexes.length + 1];
+        var choiceCount = choiceEnds[0];
+        for (var index : indexes) {
+            choiceCount += choiceEnds[index + 1] - choiceEnds[index];
+        }
+        var selectedChoices = new long[choiceCount];
+        System.arraycopy(choices, 0, selectedChoices, 0, choiceEnds[0]);
+        selectedChoiceEnds[0] = choiceEnds[0];
+        for (var i = 0; i < indexes.length; i++) {
+            var from = choiceEnds[indexes[i]];
+            var length = choiceEnds[indexes[i] + 1] - from;
+            System.arraycopy(choices, from, selectedChoices, selectedChoiceEnds[i], length);
+            selectedChoiceEnds[i + 1] = selectedChoiceEnds[i] + length;
+            selectedActions[i] = actions[indexes[i]];
+            selectedAttempts[i] = i + 1;
+        }
+        return new RecordedTrace<>(seed, simulationIndex, status, actionNames, selectedActions, selectedAttempts,
+                selectedChoices, selectedChoiceEnds, null);
+    }
+}
@@ -1,36 +1,199 @@
 package nl.suriani.verifyj;
 
+import java.time.Duration;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
-import java.util.concurrent.atomic.AtomicInteger;
 
 /**
  * Represents a report containing the results of one or more outcome simulations.
+ * Every simulation of the run is counted by status, while only the retained outcome simulations
+ * (see {@link TraceRetention}) are kept with their transitions.
  *
+ * @param outcomeSimulations the retained outcome simulations, ordered by simulation index
+ * @param statusCounts the number of simulations per status, including the ones that were not retained
+ * @param seed the master seed the simulations were derived from
+ * @param coverage the distinct states reached, if tracked
+ * @param actionOutcomeCounts the number of attempts to initialize the model or apply an action, per outcome
+ * @param elapsed the wall-clock time the run took
+ * @param profile the evaluations of the actions and properties, if profiled
+ * @param transitionCache the use of the transition cache, if any
  * @param <M> the model type
  */
-public record Report<M>(List<OutcomeSimulation<M>> outcomeSimulations) {
+public record Report<M>(List<OutcomeSimulation<M>> outcomeSimulations,
+                        Map<OutcomeSimulationStatus, Long> statusCounts,
+                        long seed,
+                        Coverage coverage,
+                        Map<ActionOutcome, Long> actionOutcomeCounts,
+                        Duration elapsed,
+                        Profile profile,
+                        TransitionCacheStatistics transitionCache) {
     /**
-     * Constructs a Report with the given outcome simulations.
+     * Constructs a Report with the given outcome simulations, status counts, seed, coverage, action outcome counts,
+     * elapsed time, profile and transition cache statistics.
      *
-     * @param outcomeSimulations the list of outcome simulations
+     * @param outcomeSimulations the list of retained outcome simulations
+     * @param statusCounts the number of simulations per status
+     * @param seed the master seed
+     * @param coverage the distinct states reached
+     * @param actionOutcomeCounts the number of attempts per action outcome
+     * @param elapsed the wall-clock time the run took
+     * @param profile the evaluations of the actions and properties
+     * @param transitionCache the use of the transition cache
      */
     public Report {
         Objects.requireNonNull(outcomeSimulations);
+        Objects.requireNonNull(statusCounts);
+        Objects.requireNonNull(coverage);
+        Objects.requireNonNull(actionOutcomeCounts);
+        Objects.requireNonNull(elapsed);
+        Objects.requireNonNull(profile);
+        Objects.requireNonNull(transitionCache);
+        outcomeSimulations = List.copyOf(outcomeSimulations);
+        statusCounts = Map.copyOf(statusCounts);
+        actionOutcomeCounts = Map.copyOf(actionOutcomeCounts);
+    }
+
+    /**
+     * Constructs a Report with the given outcome simulations, status counts, seed, coverage, action outcome counts,
+     * elapsed time and profile, and no transition cache.
+     *
+     * @param outcomeSimulations the list of retained outcome simulations
+     * @param statusCounts the number of simulations per status
+     * @param seed the master seed
+     * @param coverage the distinct states reached
+     * @param actionOutcomeCounts the number of attempts per action outcome
+     * @param elapsed the wall-clock time the run took
+     * @param profile the evaluations of the actions and properties
+     */
+    public Report(List<OutcomeSimulation<M>> outcomeSimulations,
+                  Map<OutcomeSimulationStatus, Long> statusCounts,
+                  long seed,
+                  Coverage coverage,
+                  Map<ActionOutcome, Long> actionOutcomeCounts,
+                  Duration elapsed,
+                  Profile profile) {
+        this(outcomeSimulations, statusCounts, seed, coverage, actionOutcomeCounts, elapsed, profile,
+                TransitionCacheStatistics.NONE);
+    }
+
+    /**
+     * Constructs a Report with the given outcome simulations, status counts, seed, coverage, action outcome counts
+     * and elapsed time, and no profile.
+     *
+     * @param outcomeSimulations the list of retained outcome simulations
+     * @param statusCounts the number of simulations per status
+     * @param seed the master seed
+     * @param coverage the distinct states reached
+     * @param actionOutcomeCounts the number of attempts per action outcome
+     * @param elapsed the wall-clock time the run took
+     */
+    public Report(List<OutcomeSimulation<M>> outcomeSimulations,
+                  Map<OutcomeSimulationStatus, Long> statusCounts,
+                  long seed,
+                  Coverage coverage,
+                  Map<ActionOutcome, Long> actionOutcomeCounts,
+                  Duration elapsed) {
+        this(outcomeSimulations, statusCounts, seed, coverage, actionOutcomeCounts, elapsed, Profile.NONE);
+    }
+
+    /**
+     * Constructs a Report with the given outcome simulations, status counts, seed, coverage and action outcome counts,
+     * and no elapsed time.
+     *
+     * @param outcomeSimulations the list of retained outcome simulations
+     * @param statusCounts the number of simulations per status
+     * @param seed the master seed
+     * @param coverage the distinct states reached
+     * @param actionOutcomeCounts the number of attempts per action outcome
+     */
+    public Report(List<OutcomeSimulation<M>> outcomeSimulations,
+                  Map<OutcomeSimulationStatus, Long> statusCounts,
+                  long seed,
+                  Coverage coverage,
+                  Map<ActionOutcome, Long> actionOutcomeCounts) {
+        this(outcomeSimulations, statusCounts, seed, coverage, actionOutcomeCounts, Duration.ZERO);
+    }
+
+    /**
+     * Constructs a Report with the given outcome simulations and seed, counting the statuses of the given outcomes.
+     *
+     * @param outcomeSimulations the list of outcome simulations
+     * @param seed the master seed
+     */
+    public Report(List<OutcomeSimulation<M>> outcomeSimulations, long seed) {
+        this(outcomeSimulations, countStatuses(outcomeSimulations), seed, Coverage.NONE, Map.of());
+    }
+
+    /**
+     * Constructs a Report with the given outcome simulations and a zero seed.
+     *
+     * @param outcomeSimulations the list of outcome simulations
+     */
+    public Report(List<OutcomeSimulation<M>> outcomeSimulations) {
+        this(outcomeSimulations, 0L);
+    }
+
+    /**
+     * Returns the number of simulations that ended with the given status.
+     *
+     * @param status the status to count
+     * @return the number of simulations with that status
+     */
+    public long count(OutcomeSimulationStatus status) {
+        return statusCounts.getOrDefault(status, 0L);
+    }
+
+    /**
+     * Returns the number of attempts to initialize the model or apply an action that ended with the given outcome.
+     *
+     * @param outcome the outcome to count
+     * @return the number of attempts with that outcome
+     */
+    public long count(ActionOutcome outcome) {
+        return actionOutcomeCounts.getOrDefault(outcome, 0L);
+    }
+
+    /**
+     * Returns the total number of simulations that were run.
+     *
+     * @return the number of simulations
+     */
+    public long numberOfSimulations() {
+        return statusCounts.values().stream()
+                .mapToLong(Long::longValue)
+                .sum();
+    }
+
+    /**
+     * Returns the number of simulations completed per second of the run.
+     *
+     * @return the simulation throughput, or 0 if the elapsed time is unknown
+     */
+    public double simulationsPerSecond() {
+        return elapsed.isZero() ? 0.0 : numberOfSimulations() * 1e9 / elapsed.toNanos();
+    }
+
+    private static <M> Map<OutcomeSimulationStatus, Long> countStatuses(List<OutcomeSimulation<M>> outcomeSimulations) {
+        var counts = new EnumMap<OutcomeSimulationStatus, Long>(OutcomeSimulationStatus.class);
+        for (var outcomeSimulation : outcomeSimulations) {
+            counts.merge(outcomeSimulation.status(), 1L, Long::sum);
+        }
+        return counts;
     }
 
     /**
-     * Returns a string representation of the report, including all simulations and their results.
+     * Returns a string representation of the report, including all retained simulations and their results.
      *
      * @return the string representation of the report
      */
     @Override
     public String toString() {
         var builder = new StringBuilder();
-        var simulationCount = new AtomicInteger(1);
 
         for (OutcomeSimulation<M> outcomeSimulation : outcomeSimulations) {
-            int simId = simulationCount.get();
+            int simId = outcomeSimulation.simulationIndex() + 1;
 
             for (Transition<M> transition : outcomeSimulation.transitions()) {
                 builder.append(String.format(
@@ -68,10 +231,42 @@ public record Report<M>(List<OutcomeSimulation<M>> outcomeSimulations) {
             builder.append("\n")
                     .append("-".repeat(140))
                     .append("\n\n");
+        }
 
-            simulationCount.incrementAndGet();
+        builder.append(String.format("Simulations: %d\n", numberOfSimulations()));
+        for (var status : OutcomeSimulationStatus.values()) {
+            if (count(status) > 0) {
+                builder.append(String.format("\t - %s: %d\n", status.value(), count(status)));
+            }
+        }
+        if (!actionOutcomeCounts.isEmpty()) {
+            builder.append("Attempts:\n");
+            for (var outcome : ActionOutcome.values()) {
+                builder.append(String.format("\t - %s: %d\n", outcome.value(), count(outcome)));
+            }
+        }
+        if (coverage != Coverage.NONE) {
+            builder.append(String.format("Distinct states: %d (collision probability %.3e)\n",
+                    coverage.distinctStates(), coverage.collisionProbability()));
+        }
+        if (profile != Profile.NONE) {
+            builder.append("Profile:\n");
+            for (var timing : profile.byTotalTime()) {
+                builder.append(String.format("\t - %s %s: %d evaluations, %d rejected, %d errors, %d ms, mean %.0f ns, p99 < %d ns\n",
+                        timing.part().value(), timing.name(), timing.invocations(), timing.rejections(), timing.errors(),
+                        timing.totalNanos() / 1_000_000, timing.meanNanos(), timing.percentileNanos(99)));
+            }
+        }
+        if (transitionCache != TransitionCacheStatistics.NONE) {
+            builder.append(String.format("Transition cache: %d hits, %d misses (hit rate %.1f%%), %d uncacheable, %d evicted\n",
+                    transitionCache.hits(), transitionCache.misses(), transitionCache.hitRate() * 100,
+                    transitionCache.uncacheable(), transitionCache.evictions()));
+        }
+        if (!elapsed.isZero()) {
+            builder.append(String.format("Elapsed: %d ms (%.1f simulations/s)\n", elapsed.toMillis(), simulationsPerSecond()));
         }
+        builder.append(String.format("Seed: %d\n", seed));
 
         return builder.toString();
     }
-}
\ No newline at end of file
+}
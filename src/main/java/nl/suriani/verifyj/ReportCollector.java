@@ -0,0 +1,177 @@
+package nl.suriani.verifyj;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Aggregates outcome simulations into a {@link Report} as they are produced, possibly from several threads.
+ * Every outcome is counted, but only the retained ones are kept, so memory does not grow with the number of simulations.
+ *
+ * @param <M> the model type
+ */
+final class ReportCollector<M> implements Consumer<OutcomeSimulation<M>> {
+    private final SimulationOptions simulationOptions;
+    private final Map<OutcomeSimulationStatus, LongAdder> statusCounts = new EnumMap<>(OutcomeSimulationStatus.class);
+    private final LongAdder[] actionOutcomeCounts = new LongAdder[ActionOutcome.values().length];
+    private final LongAdder transitions = new LongAdder();
+    private final TreeMap<Integer, OutcomeSimulation<M>> retained = new TreeMap<>();
+    private final Fingerprint<M> fingerprint;
+    private final FingerprintSet coverage;
+    private final Profiler profiler;
+    private final long start = System.nanoTime();
+
+    ReportCollector(SimulationOptions simulationOptions, Fingerprint<M> fingerprint) {
+        this(simulationOptions, fingerprint, null);
+    }
+
+    ReportCollector(SimulationOptions simulationOptions, Fingerprint<M> fingerprint, Profiler profiler) {
+        this.simulationOptions = simulationOptions;
+        this.fingerprint = fingerprint;
+        this.profiler = profiler;
+        this.coverage = simulationOptions.trackCoverage()
+                ? new FingerprintSet(Math.min(simulationOptions.parallelism(), Runtime.getRuntime().availableProcessors()) * 16,
+                        false)
+                : null;
+        for (var status : OutcomeSimulationStatus.values()) {
+            statusCounts.put(status, new LongAdder());
+        }
+        for (var i = 0; i < actionOutcomeCounts.length; i++) {
+            actionOutcomeCounts[i] = new LongAdder();
+        }
+    }
+
+    @Override
+    public void accept(OutcomeSimulation<M> outcomeSimulation) {
+        statusCounts.get(outcomeSimulation.status()).increment();
+
+        if (simulationOptions.traceRetention() == TraceRetention.FAILURES && outcomeSimulation.status().isSuccess()) {
+            return;
+        }
+
+        synchronized (retained) {
+            retained.put(outcomeSimulation.simulationIndex(), outcomeSimulation);
+            if (retained.size() > simulationOptions.maxRetainedTraces()) {
+                retained.pollLastEntry();
+            }
+        }
+    }
+
+    /**
+     * Records that the given state was reached, if coverage is tracked.
+     *
+     * @param state the state reached
+     * @return true if coverage is tracked and no simulation reached the state before
+     */
+    boolean reached(M state) {
+        return coverage != null && coverage.add(fingerprint.of(state));
+    }
+
+    /**
+     * Adds transitions taken by a simulation, which reports them in batches while it runs, so that the metrics
+     * sampled during long simulations show their progress.
+     *
+     * @param count the number of transitions
+     */
+    void transitioned(long count) {
+        if (count > 0) {
+            transitions.add(count);
+        }
+    }
+
+    /**
+     * Adds the action outcomes of a simulation.
+     *
+     * @param actionOutcomes the number of attempts per {@link ActionOutcome}, indexed by ordinal
+     */
+    void attempted(long[] actionOutcomes) {
+        for (var i = 0; i < actionOutcomes.length; i++) {
+            if (actionOutcomes[i] > 0) {
+                actionOutcomeCounts[i].add(actionOutcomes[i]);
+            }
+        }
+    }
+
+    /**
+     * Adds the measures of a simulation, if the run is profiled.
+     *
+     * @param simulationProfiler the profiler of the simulation
+     */
+    void profiled(Profiler simulationProfiler) {
+        synchronized (profiler) {
+            profiler.add(simulationProfiler);
+        }
+    }
+
+    /**
+     * Returns a Profiler for a simulation, to be added back with {@link #profiled(Profiler)}.
+     *
+     * @return a new Profiler, or null if the run is not profiled
+     */
+    Profiler profiler() {
+        return profiler == null ? null : profiler.fresh();
+    }
+
+    /**
+     * Returns a snapshot of the counters, which may be taken while simulations complete.
+     *
+     * @return the metrics of the run so far
+     */
+    RunMetrics metrics() {
+        var simulations = 0L;
+        var failures = 0L;
+        for (var entry : statusCounts.entrySet()) {
+            var count = entry.getValue().sum();
+            simulations += count;
+            if (entry.getKey().isFailedStateProperties() || entry.getKey().isFailedInvariants()) {
+                failures += count;
+            }
+        }
+        var wastedAttempts = actionOutcomeCounts[ActionOutcome.PRECONDITION_REJECTED.ordinal()].sum()
+                + actionOutcomeCounts[ActionOutcome.ERROR.ordinal()].sum();
+        return new RunMetrics(simulations, transitions.sum(), wastedAttempts, coverage == null ? 0 : coverage.size(),
+                failures, Duration.ofNanos(System.nanoTime() - start));
+    }
+
+    Report<M> report() {
+        return report(TransitionCacheStatistics.NONE);
+    }
+
+    Report<M> report(TransitionCacheStatistics transitionCache) {
+        var counts = new EnumMap<OutcomeSimulationStatus, Long>(OutcomeSimulationStatus.class);
+        statusCounts.forEach((status, count) -> {
+            if (count.sum() > 0) {
+                counts.put(status, count.sum());
+            }
+        });
+
+        var actionCounts = new EnumMap<ActionOutcome, Long>(ActionOutcome.class);
+        for (var outcome : ActionOutcome.values()) {
+            actionCounts.put(outcome, actionOutcomeCounts[outcome.ordinal()].sum());
+        }
+
+        synchronized (retained) {
+            return new Report<>(new ArrayList<>(retained.values()), counts, simulationOptions.seed(), coverage(), actionCounts,
+                    Duration.ofNanos(System.nanoTime() - start), profile(), transitionCache);
+        }
+    }
+
+    private Profile profile() {
+        if (profiler == null) {
+            return Profile.NONE;
+        }
+        synchronized (profiler) {
+            return profiler.profile();
+        }
+    }
+
+    private Coverage coverage() {
+        return coverage == null
+                ? Coverage.NONE
+                : new Coverage(coverage.size(), coverage.collisionProbability(fingerprint.bits()));
+    }
+}
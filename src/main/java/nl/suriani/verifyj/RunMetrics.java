@@ -0,0 +1,57 @@
+package nl.suriani.verifyj;
+
+import java.time.Duration;
+import java.util.Objects;
+
+/**
+ * A snapshot of the progress of a simulation run, taken while it runs, see {@link MetricsReporting}.
+ *
+ * @param simulations the number of simulations completed
+ * @param transitions the number of transitions taken so far, including those of the simulations still running
+ * @param wastedAttempts the number of attempts of the completed simulations rejected by a precondition or failing with an error
+ * @param distinctStates the number of distinct states reached, or 0 if coverage is not tracked
+ * @param failures the number of completed simulations that failed a state or temporal property
+ * @param elapsed the wall-clock time since the run started
+ */
+public record RunMetrics(long simulations,
+                         long transitions,
+                         long wastedAttempts,
+                         long distinctStates,
+                         long failures,
+                         Duration elapsed) {
+    /**
+     * Constructs a RunMetrics record with validation.
+     *
+     * @param simulations the number of simulations completed
+     * @param transitions the number of transitions
+     * @param wastedAttempts the number of wasted attempts
+     * @param distinctStates the number of distinct states reached
+     * @param failures the number of failed simulations
+     * @param elapsed the wall-clock time since the run started
+     */
+    public RunMetrics {
+        Objects.requireNonNull(elapsed, "elapsed is null");
+    }
+
+    /**
+     * Returns the number of simulations completed per second since the run started.
+     *
+     * @return the simulation throughput, or 0 if no time elapsed
+     */
+    public double simulationsPerSecond() {
+        return perSecond(simulations);
+    }
+
+    /**
+     * Returns the number of transitions per second since the run started.
+     *
+     * @return the transition throughput, or 0 if no time elapsed
+     */
+    public double transitionsPerSecond() {
+        return perSecond(transitions);
+    }
+
+    private double perSecond(long count) {
+        return elapsed.isZero() ? 0.0 : count * 1e9 / elapsed.toNanos();
+    }
+}
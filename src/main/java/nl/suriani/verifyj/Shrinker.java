@@ -0,0 +1,221 @@
+package nl.suriani.verifyj;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
+
+/**
+ * Shrinks the trace of a failing simulation to a minimal counterexample, by delta debugging over its transitions.
+ * <p>
+ * Candidates are subsequences of the recorded transitions, every transition keeping the {@link NonDet} choices it made.
+ * A candidate is kept if replaying it still violates the property the trace violated first; a transition the replay
+ * cannot apply rejects the candidate, and choices that no longer fit are replaced by the closest valid ones.
+ * At every granularity, the candidates are replayed in parallel, and the first one reproducing the failure is kept,
+ * so the result only depends on the trace, not on the scheduling. The shrunk trace is 1-minimal: removing any single
+ * transition from it no longer reproduces the failure.
+ *
+ * @param <M> the model type
+ */
+public class Shrinker<M> {
+    private final Specification<M> spec;
+    private final int parallelism;
+    private final Simulator<M> replayer = new Simulator<>(SimulationOptions.DEFAULT);
+
+    /**
+     * Constructs a Shrinker for the given specification, replaying candidates on all available processors.
+     *
+     * @param spec the specification the traces were recorded with
+     */
+    public Shrinker(Specification<M> spec) {
+        this(spec, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Constructs a Shrinker for the given specification and number of worker threads.
+     *
+     * @param spec the specification the traces were recorded with
+     * @param parallelism the number of worker threads replaying candidates
+     */
+    public Shrinker(Specification<M> spec, int parallelism) {
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        this.spec = Objects.requireNonNull(spec);
+        this.parallelism = parallelism;
+    }
+
+    /**
+     * Shrinks the trace of the given outcome simulation, whose choices must have been recorded
+     * (see {@link TraceRecording} and {@link Simulator#record(Specification, int)}).
+     * Shrinking only replays the recorded choices, so it does not need the seed of the run: the trace is shrunk
+     * as a {@link RecordedTrace} with a seed of 0, which is meaningless and does not reach the counterexample.
+     *
+     * @param outcomeSimulation the failing outcome simulation
+     * @return the minimal counterexample, or empty if the simulation did not fail a property after at least one transition
+     * @throws IllegalArgumentException if the choices of the simulation were not recorded
+     */
+    public Optional<CounterExample<M>> shrink(OutcomeSimulation<M> outcomeSimulation) {
+        return shrink(RecordedTrace.of(outcomeSimulation, 0L));
+    }
+
+    /**
+     * Shrinks the given recorded trace.
+     *
+     * @param trace the trace of a failing simulation
+     * @return the minimal counterexample, or empty if replaying the trace does not fail a property after at least one transition
+     */
+    public Optional<CounterExample<M>> shrink(RecordedTrace<M> trace) {
+        var original = replayer.replayLeniently(spec, trace);
+        if (original == null) {
+            return Optional.empty();
+        }
+        var failure = Failure.of(original);
+        if (failure == null) {
+            return Optional.empty();
+        }
+
+        var pool = new ForkJoinPool(parallelism);
+        try {
+            var indexes = IntStream.range(0, recordedSize(original)).toArray();
+            return counterExample(failure, minimise(trace, failure, indexes, original, pool));
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    /**
+     * Runs delta debugging: the candidate is split into chunks, and replaced by the first chunk, or else the first
+     * complement of a chunk, that still reproduces the failure, until no chunk of single transitions can be removed.
+     *
+     * @param trace the original trace
+     * @param failure the failure to reproduce
+     * @param current the indexes of the transitions of the original trace reproducing the failure
+     * @param outcome the outcome of replaying them
+     * @param pool the pool replaying the candidates
+     * @return the outcome of replaying the minimal candidate
+     */
+    private OutcomeSimulation<M> minimise(RecordedTrace<M> trace, Failure failure, int[] current,
+                                          OutcomeSimulation<M> outcome, ForkJoinPool pool) {
+        var granularity = 2;
+        while (current.length >= 2) {
+            var chunks = split(current, granularity);
+            var candidates = new ArrayList<>(chunks);
+            if (granularity > 2) {
+                for (var i = 0; i < chunks.size(); i++) {
+                    candidates.add(complement(chunks, i));
+                }
+            }
+
+            @SuppressWarnings("rawtypes")
+            var outcomes = new OutcomeSimulation[candidates.size()];
+            var found = pool.submit(() -> IntStream.range(0, candidates.size())
+                            .parallel()
+                            .filter(i -> (outcomes[i] = reproduce(trace, candidates.get(i), failure)) != null)
+                            .findFirst())
+                    .join();
+
+            if (found.isPresent()) {
+                @SuppressWarnings("unchecked")
+                OutcomeSimulation<M> reproduced = outcomes[found.getAsInt()];
+                outcome = reproduced;
+                current = Arrays.copyOf(candidates.get(found.getAsInt()), recordedSize(outcome));
+                granularity = found.getAsInt() < chunks.size() ? 2 : Math.max(granularity - 1, 2);
+            } else if (granularity >= current.length) {
+                break;
+            } else {
+                granularity = Math.min(current.length, granularity * 2);
+            }
+        }
+        return outcome;
+    }
+
+    /**
+     * Replays the given transitions of the original trace.
+     *
+     * @param trace the original trace
+     * @param indexes the indexes of the transitions to replay
+     * @param failure the failure to reproduce
+     * @return the outcome of the replay if it reproduces the failure, otherwise null
+     */
+    private OutcomeSimulation<M> reproduce(RecordedTrace<M> trace, int[] indexes, Failure failure) {
+        var outcome = replayer.replayLeniently(spec, trace.select(indexes));
+        return outcome != null && failure.isReproducedBy(outcome) ? outcome : null;
+    }
+
+    private Optional<CounterExample<M>> counterExample(Failure failure, OutcomeSimulation<M> outcome) {
+        var trace = (Trace<M>) outcome.transitions();
+        var transitions = new ArrayList<Transition<M>>(trace);
+        if (trace.violation() != null) {
+            transitions.add(trace.violation());
+        }
+        if (transitions.isEmpty()) {
+            return Optional.empty();
+        }
+        return Optional.of(new CounterExample<>(failure.property(spec), transitions.getLast(), transitions));
+    }
+
+    private static <M> int recordedSize(OutcomeSimulation<M> outcome) {
+        return ((Trace<M>) outcome.transitions()).recordedSize();
+    }
+
+    private static List<int[]> split(int[] indexes, int granularity) {
+        var chunks = new ArrayList<int[]>(granularity);
+        for (var i = 0; i < granularity; i++) {
+            var from = (int) ((long) indexes.length * i / granularity);
+            var to = (int) ((long) indexes.length * (i + 1) / granularity);
+            chunks.add(Arrays.copyOfRange(indexes, from, to));
+        }
+        return chunks;
+    }
+
+    private static int[] complement(List<int[]> chunks, int excluded) {
+        return IntStream.range(0, chunks.size())
+                .filter(i -> i != excluded)
+                .flatMap(i -> Arrays.stream(chunks.get(i)))
+                .toArray();
+    }
+
+    /**
+     * The property a simulation failed first, identified by its kind and name.
+     *
+     * @param status the status of the failing simulation
+     * @param propertyName the name of the failed property
+     */
+    private record Failure(OutcomeSimulationStatus status, String propertyName) {
+        static Failure of(OutcomeSimulation<?> outcome) {
+            var failedProperties = failedProperties(outcome);
+            return failedProperties.isEmpty() ? null : new Failure(outcome.status(), failedProperties.getFirst());
+        }
+
+        boolean isReproducedBy(OutcomeSimulation<?> outcome) {
+            return outcome.status() == status && failedProperties(outcome).contains(propertyName);
+        }
+
+        <M> Property property(Specification<M> spec) {
+            List<? extends Property> properties = status == OutcomeSimulationStatus.FAILED_STATE_PROPERTIES
+                    ? spec.stateProperties()
+                    : spec.temporalProperties();
+            for (var property : properties) {
+                var name = property instanceof StateProperty<?> stateProperty
+                        ? stateProperty.name()
+                        : ((TemporalProperty<?>) property).name();
+                if (name.equals(propertyName)) {
+                    return property;
+                }
+            }
+            throw new IllegalStateException("The specification has no property named " + propertyName);
+        }
+
+        private static List<String> failedProperties(OutcomeSimulation<?> outcome) {
+            return switch (outcome.status()) {
+                case FAILED_STATE_PROPERTIES -> outcome.failedStateProperties();
+                case FAILED_TEMPORAL_PROPERTIES -> outcome.failedTemporalProperties();
+                default -> List.of();
+            };
+        }
+    }
+}
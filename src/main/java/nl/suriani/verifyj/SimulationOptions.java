@@ -1,14 +1,44 @@
 package nl.suriani.verifyj;
 
+import java.time.Duration;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
 /**
  * Represents simulation options such as number of simulations, max attempts, max transitions, and constraint violation behavior.
  *
  * @param numberOfSimulations the number of simulations to run
  * @param maxAttempts the maximum number of attempts per simulation
  * @param maxTransitions the maximum number of transitions per simulation
- * @param stopOnConstraintViolation whether to stop on constraint violation
+ * @param stopOnConstraintViolation whether the run stops as soon as a simulation fails a property, with a partial report
+ * @param concurrency how the simulations are scheduled
+ * @param parallelism the number of worker threads used when the concurrency is not sequential, or the number of
+ *                    simulations running at once on virtual threads
+ * @param seed the master seed from which the randomness of every simulation is derived
+ * @param traceRetention which outcome simulations are kept in the report
+ * @param maxRetainedTraces the maximum number of outcome simulations kept in the report, lowest indexes first
+ * @param trackCoverage whether the distinct states reached are counted, through the fingerprint of the specification
+ * @param simulationTimeout the wall-clock budget of every simulation, or null for none
+ * @param runTimeout the wall-clock budget of the whole run, or null for none
+ * @param guidance how the simulations pick their actions
+ * @param profiling whether the evaluations of the actions and properties are measured, see {@link Profile}
+ * @param transitionCacheSize the number of transitions of memoized actions kept in the cache of a run, or 0 for no cache
  */
-public record SimulationOptions(int numberOfSimulations, int maxAttempts, int maxTransitions, boolean stopOnConstraintViolation) {
+public record SimulationOptions(int numberOfSimulations,
+                                int maxAttempts,
+                                int maxTransitions,
+                                boolean stopOnConstraintViolation,
+                                Concurrency concurrency,
+                                int parallelism,
+                                long seed,
+                                TraceRetention traceRetention,
+                                int maxRetainedTraces,
+                                boolean trackCoverage,
+                                Duration simulationTimeout,
+                                Duration runTimeout,
+                                Guidance guidance,
+                                boolean profiling,
+                                int transitionCacheSize) {
     /**
      * The default simulation options.
      */
@@ -21,7 +51,19 @@ public record SimulationOptions(int numberOfSimulations, int maxAttempts, int ma
      * @param maxAttempts the maximum number of attempts
      * @param maxTransitions the maximum number of transitions
      * @param stopOnConstraintViolation whether to stop on constraint violation
-     * @throws IllegalArgumentException if any parameter is less than 1 (except stopOnConstraintViolation)
+     * @param concurrency how the simulations are scheduled
+     * @param parallelism the number of worker threads
+     * @param seed the master seed
+     * @param traceRetention which outcome simulations are kept in the report
+     * @param maxRetainedTraces the maximum number of outcome simulations kept in the report
+     * @param trackCoverage whether the distinct states reached are counted
+     * @param simulationTimeout the wall-clock budget of every simulation, or null
+     * @param runTimeout the wall-clock budget of the whole run, or null
+     * @param guidance how the simulations pick their actions
+     * @param profiling whether the evaluations of the actions and properties are measured
+     * @param transitionCacheSize the number of transitions kept in the cache, or 0
+     * @throws IllegalArgumentException if any numeric parameter except the seed and the cache size is less than 1,
+     *         the cache size is negative, or a budget is not positive
      */
     public SimulationOptions {
         if (numberOfSimulations < 1) {
@@ -33,5 +75,174 @@ public record SimulationOptions(int numberOfSimulations, int maxAttempts, int ma
         if (maxTransitions < 1) {
             throw new IllegalArgumentException("maxTransitions must be at least 1");
         }
+        Objects.requireNonNull(concurrency, "concurrency is null");
+        if (parallelism < 1) {
+            throw new IllegalArgumentException("parallelism must be at least 1");
+        }
+        Objects.requireNonNull(traceRetention, "traceRetention is null");
+        if (maxRetainedTraces < 1) {
+            throw new IllegalArgumentException("maxRetainedTraces must be at least 1");
+        }
+        if (simulationTimeout != null && (simulationTimeout.isNegative() || simulationTimeout.isZero())) {
+            throw new IllegalArgumentException("simulationTimeout must be positive");
+        }
+        if (runTimeout != null && (runTimeout.isNegative() || runTimeout.isZero())) {
+            throw new IllegalArgumentException("runTimeout must be positive");
+        }
+        Objects.requireNonNull(guidance, "guidance is null");
+        if (transitionCacheSize < 0) {
+            throw new IllegalArgumentException("transitionCacheSize must not be negative");
+        }
+    }
+
+    /**
+     * Constructs a SimulationOptions record that runs the simulations sequentially with a random seed.
+     *
+     * @param numberOfSimulations the number of simulations
+     * @param maxAttempts the maximum number of attempts
+     * @param maxTransitions the maximum number of transitions
+     * @param stopOnConstraintViolation whether to stop on constraint violation
+     */
+    public SimulationOptions(int numberOfSimulations, int maxAttempts, int maxTransitions, boolean stopOnConstraintViolation) {
+        this(numberOfSimulations, maxAttempts, maxTransitions, stopOnConstraintViolation, Concurrency.SEQUENTIAL, 1,
+                ThreadLocalRandom.current().nextLong(), TraceRetention.ALL, Integer.MAX_VALUE,
+                false, null, null, Guidance.UNIFORM, false, 0);
+    }
+
+    /**
+     * Returns new SimulationOptions with the given concurrency and parallelism.
+     *
+     * @param concurrency how the simulations are scheduled
+     * @param parallelism the number of worker threads
+     * @return new SimulationOptions with updated concurrency
+     */
+    public SimulationOptions withConcurrency(Concurrency concurrency, int parallelism) {
+        return new SimulationOptions(numberOfSimulations, maxAttempts, maxTransitions, stopOnConstraintViolation,
+                concurrency, parallelism, seed, traceRetention, maxRetainedTraces, trackCoverage,
+                simulationTimeout, runTimeout, guidance, profiling, transitionCacheSize);
+    }
+
+    /**
+     * Returns new SimulationOptions that spread the simulations across all available processors.
+     *
+     * @return new SimulationOptions running on a fork-join pool
+     */
+    public SimulationOptions parallel() {
+        return withConcurrency(Concurrency.FORK_JOIN, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Returns new SimulationOptions with the given master seed.
+     *
+     * @param seed the master seed
+     * @return new SimulationOptions with updated seed
+     */
+    public SimulationOptions withSeed(long seed) {
+        return new SimulationOptions(numberOfSimulations, maxAttempts, maxTransitions, stopOnConstraintViolation,
+                concurrency, parallelism, seed, traceRetention, maxRetainedTraces, trackCoverage,
+                simulationTimeout, runTimeout, guidance, profiling, transitionCacheSize);
+    }
+
+    /**
+     * Returns new SimulationOptions that keep at most the given number of outcome simulations in the report.
+     *
+     * @param traceRetention which outcome simulations are kept
+     * @param maxRetainedTraces the maximum number of outcome simulations kept
+     * @return new SimulationOptions with updated trace retention
+     */
+    public SimulationOptions withTraceRetention(TraceRetention traceRetention, int maxRetainedTraces) {
+        return new SimulationOptions(numberOfSimulations, maxAttempts, maxTransitions, stopOnConstraintViolation,
+                concurrency, parallelism, seed, traceRetention, maxRetainedTraces, trackCoverage,
+                simulationTimeout, runTimeout, guidance, profiling, transitionCacheSize);
+    }
+
+    /**
+     * Returns new SimulationOptions that count the distinct states reached.
+     *
+     * @param trackCoverage whether the distinct states reached are counted
+     * @return new SimulationOptions with updated coverage tracking
+     */
+    public SimulationOptions withCoverage(boolean trackCoverage) {
+        return new SimulationOptions(numberOfSimulations, maxAttempts, maxTransitions, stopOnConstraintViolation,
+                concurrency, parallelism, seed, traceRetention, maxRetainedTraces, trackCoverage,
+                simulationTimeout, runTimeout, guidance, profiling, transitionCacheSize);
+    }
+
+    /**
+     * Returns new SimulationOptions with the given wall-clock budgets. A simulation exceeding its budget ends with
+     * {@link OutcomeSimulationStatus#TIMEOUT}, while the simulations still running when the run exceeds its budget
+     * are abandoned and not counted.
+     * The budgets are checked cooperatively, before every attempt and on every {@link NonDet} draw,
+     * so an action looping without drawing from {@link NonDet} is only stopped once it returns.
+     *
+     * @param simulationTimeout the wall-clock budget of every simulation, or null for none
+     * @param runTimeout the wall-clock budget of the whole run, or null for none
+     * @return new SimulationOptions with updated budgets
+     */
+    public SimulationOptions withTimeouts(Duration simulationTimeout, Duration runTimeout) {
+        return new SimulationOptions(numberOfSimulations, maxAttempts, maxTransitions, stopOnConstraintViolation,
+                concurrency, parallelism, seed, traceRetention, maxRetainedTraces, trackCoverage,
+                simulationTimeout, runTimeout, guidance, profiling, transitionCacheSize);
+    }
+
+    /**
+     * Returns new SimulationOptions that run simulations until the given wall-clock budget is used up,
+     * rather than a fixed number of simulations. The per-simulation budget is left unchanged.
+     * As the number of simulations is not known in advance, retaining only the failures is advisable.
+     *
+     * @param runTimeout the wall-clock budget of the whole run
+     * @return new SimulationOptions running for the given duration
+     */
+    public SimulationOptions runningFor(Duration runTimeout) {
+        return new SimulationOptions(Integer.MAX_VALUE, maxAttempts, maxTransitions, stopOnConstraintViolation,
+                concurrency, parallelism, seed, traceRetention, maxRetainedTraces, trackCoverage,
+                simulationTimeout, Objects.requireNonNull(runTimeout), guidance, profiling, transitionCacheSize);
+    }
+
+    /**
+     * Returns new SimulationOptions with the given guidance. With {@link Guidance#COVERAGE}, the distinct states reached
+     * are counted, as the guidance depends on them. The simulations of a guided run depend on the ones completed
+     * before them, so they are only reproduced by running the whole run again sequentially, or by recording their traces
+     * (see {@link TraceRecording}), and not by {@link Simulator#replay(Specification, int)}.
+     *
+     * @param guidance how the simulations pick their actions
+     * @return new SimulationOptions with updated guidance
+     */
+    public SimulationOptions withGuidance(Guidance guidance) {
+        return new SimulationOptions(numberOfSimulations, maxAttempts, maxTransitions, stopOnConstraintViolation,
+                concurrency, parallelism, seed, traceRetention, maxRetainedTraces,
+                trackCoverage || guidance == Guidance.COVERAGE, simulationTimeout, runTimeout, guidance, profiling, transitionCacheSize);
+    }
+
+    /**
+     * Returns new SimulationOptions that measure every evaluation of the guards and expressions of the actions,
+     * of the state properties and of the temporal properties, reported by {@link Report#profile()}.
+     * Every evaluation is counted, while a random sample of one in sixteen is timed, as reading the clock costs about
+     * as much as evaluating a simple guard. The timed evaluations are also emitted as
+     * {@code nl.suriani.verifyj.Evaluation} JFR events, when a recording enables them.
+     *
+     * @param profiling whether the evaluations are measured
+     * @return new SimulationOptions with updated profiling
+     */
+    public SimulationOptions withProfiling(boolean profiling) {
+        return new SimulationOptions(numberOfSimulations, maxAttempts, maxTransitions, stopOnConstraintViolation,
+                concurrency, parallelism, seed, traceRetention, maxRetainedTraces, trackCoverage,
+                simulationTimeout, runTimeout, guidance, profiling, transitionCacheSize);
+    }
+
+    /**
+     * Returns new SimulationOptions with a cache of the given size for the transitions of the memoized actions
+     * (see {@link NamedAction#withMemoization(boolean)}), shared by all the simulations of a run. A memoized action
+     * applied again to a state it was applied to takes the next state from the cache instead of evaluating its
+     * expression, unless that evaluation drew from {@link NonDet}. The hits and misses are reported by
+     * {@link Report#transitionCache()}.
+     *
+     * @param transitionCacheSize the number of transitions kept in the cache, or 0 for no cache
+     * @return new SimulationOptions with updated transition cache
+     */
+    public SimulationOptions withTransitionCache(int transitionCacheSize) {
+        return new SimulationOptions(numberOfSimulations, maxAttempts, maxTransitions, stopOnConstraintViolation,
+                concurrency, parallelism, seed, traceRetention, maxRetainedTraces, trackCoverage,
+                simulationTimeout, runTimeout, guidance, profiling, transitionCacheSize);
     }
 }
@@ -1,24 +1,86 @@
 package nl.suriani.verifyj;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.time.Duration;
 import java.util.ArrayList;
-import java.util.Optional;
-import java.util.stream.Stream;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.stream.IntStream;
 
 /**
  * Simulator for executing specifications and generating reports.
+ * <p>
+ * The steps of a simulation allocate nothing but the states produced by the model: the actions and properties of
+ * the specification are flattened into arrays once per run, guards and properties are evaluated in plain loops over them,
+ * and transitions are recorded in the columns of a {@link Trace}, from which the temporal monitors read the states.
+ * <p>
+ * With a {@link TraceRecording}, the {@link NonDet} choices of every simulation are logged along its trace, and the traces
+ * of the retained simulations are written to {@link TraceFile}s, to be replayed by {@link #replay(Specification, RecordedTrace)}.
+ * <p>
+ * With a {@link MetricsReporting}, the progress of every run is exported while it runs.
+ * <p>
+ * With {@link Guidance#COVERAGE}, the simulations of a run are steered toward the states none of them reached yet
+ * by a {@link CoverageGuide}.
+ * <p>
+ * A state or temporal property that throws ends its simulation with {@link OutcomeSimulationStatus#ERROR}, naming
+ * the property among the failed ones; actions and guards that throw only waste their attempt, counted as
+ * {@link ActionOutcome#ERROR}.
+ * <p>
+ * With {@link SimulationOptions#stopOnConstraintViolation()}, the first simulation failing a property stops the run:
+ * pending simulations are not started, running ones are abandoned, and the report only counts the completed ones.
  *
  * @param <M> the model type
  */
 public class Simulator<M> implements ExecutionModel<M, Report<M>> {
+    private static final int INITIAL_TRACE_CAPACITY = 1024;
+    private static final int TRANSITIONS_PER_REPORT = 256;
+
     private final SimulationOptions simulationOptions;
+    private final TraceRecording<M> traceRecording;
+    private final MetricsReporting metricsReporting;
 
     /**
-     * Constructs a Simulator with the given simulation options.
+     * Constructs a Simulator with the given simulation options, recording no trace.
      *
      * @param simulationOptions the simulation options
      */
     public Simulator(SimulationOptions simulationOptions) {
+        this(simulationOptions, TraceRecording.disabled());
+    }
+
+    /**
+     * Constructs a Simulator with the given simulation options and trace recording, exporting no metrics.
+     *
+     * @param simulationOptions the simulation options
+     * @param traceRecording whether and where the traces of the simulations are saved
+     */
+    public Simulator(SimulationOptions simulationOptions, TraceRecording<M> traceRecording) {
+        this(simulationOptions, traceRecording, MetricsReporting.disabled());
+    }
+
+    /**
+     * Constructs a Simulator with the given simulation options, trace recording and metrics reporting.
+     *
+     * @param simulationOptions the simulation options
+     * @param traceRecording whether and where the traces of the simulations are saved
+     * @param metricsReporting whether and how often the metrics of the runs are exported while they run
+     */
+    public Simulator(SimulationOptions simulationOptions, TraceRecording<M> traceRecording,
+                     MetricsReporting metricsReporting) {
         this.simulationOptions = simulationOptions;
+        this.traceRecording = Objects.requireNonNull(traceRecording);
+        this.metricsReporting = Objects.requireNonNull(metricsReporting);
     }
 
     /**
@@ -29,62 +91,503 @@ public class Simulator<M> implements ExecutionModel<M, Report<M>> {
      */
     @Override
     public Report<M> run(Specification<M> spec) {
-        var outcomes = Stream.iterate(0, i -> i < simulationOptions.numberOfSimulations(), i -> i + 1)
-                .map(i -> runSimulation(spec))
-                .toList();
+        return run(spec, outcomeSimulation -> { });
+    }
+
+    /**
+     * Runs the given specification, handing every outcome simulation to the listener as soon as it is produced,
+     * and returns a report aggregating all of them. With a concurrency other than sequential, the listener is
+     * called from the worker threads, in completion order.
+     *
+     * @param spec the specification to run
+     * @param listener the listener receiving every outcome simulation
+     * @return the report of the simulation
+     */
+    public Report<M> run(Specification<M> spec, Consumer<OutcomeSimulation<M>> listener) {
+        var guided = simulationOptions.guidance() == Guidance.COVERAGE;
+        var plan = new Plan<>(spec, simulationOptions.transitionCacheSize(), simulationOptions.parallelism());
+        var collector = new ReportCollector<M>(guided ? simulationOptions.withCoverage(true) : simulationOptions,
+                spec.canonicalFingerprint(), simulationOptions.profiling() ? plan.profiler() : null);
+        var run = new Run(plan, collector, traceRecording.isEnabled() || guided, traceRecording.isEnabled(),
+                simulationOptions.runTimeout(), guided ? new CoverageGuide(plan.actions.length) : null);
+        Consumer<OutcomeSimulation<M>> sink = collector.andThen(listener);
+        if (traceRecording.isEnabled()) {
+            try {
+                Files.createDirectories(traceRecording.directory());
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        var sampler = MetricsSampler.start(metricsReporting, collector::metrics);
+        try {
+            switch (simulationOptions.concurrency()) {
+                case SEQUENTIAL -> {
+                    for (var i = 0; i < simulationOptions.numberOfSimulations() && !run.isOver(); i++) {
+                        run.simulate(i, sink);
+                    }
+                }
+                case FORK_JOIN -> runOnForkJoinPool(run, sink);
+                case VIRTUAL_THREADS -> runOnVirtualThreads(run, sink);
+            }
+        } finally {
+            if (sampler != null) {
+                sampler.close();
+            }
+        }
+
+        return collector.report(plan.cache == null ? TransitionCacheStatistics.NONE : plan.cache.statistics());
+    }
+
+    /**
+     * Replays a single simulation of a run. Since the randomness of every simulation is derived from the
+     * seed and the simulation index only, the outcome is the same as the one in the report of the full run.
+     * This does not hold for {@link Guidance#COVERAGE}, whose simulations are steered by those that ran before them:
+     * replay their {@link RecordedTrace} instead.
+     *
+     * @param spec the specification to run
+     * @param simulationIndex the zero-based index of the simulation to replay
+     * @return the outcome of the simulation
+     * @throws IllegalStateException if the simulations are guided
+     */
+    public OutcomeSimulation<M> replay(Specification<M> spec, int simulationIndex) {
+        if (simulationIndex < 0) {
+            throw new IllegalArgumentException("simulationIndex must be non-negative");
+        }
+        requireUnguided();
+        var collector = new ReportCollector<M>(simulationOptions.withCoverage(false), spec.canonicalFingerprint());
+        return runSimulation(new Run(new Plan<>(spec), collector, false, false, null, null), simulationIndex);
+    }
+
+    /**
+     * Replays a recorded trace, applying its actions with the choices they made when it was recorded,
+     * and checking the states reached against the recorded ones, if any. Nothing is drawn at random, so the trace
+     * is replayed the same whatever the options of this simulator.
+     *
+     * @param spec the specification to run
+     * @param trace the trace to replay
+     * @return the outcome of the replayed simulation
+     * @throws IllegalArgumentException if the trace applies an action the specification does not have
+     * @throws IllegalStateException if the specification does not behave as it did when the trace was recorded
+     */
+    public OutcomeSimulation<M> replay(Specification<M> spec, RecordedTrace<M> trace) {
+        return replay(spec, trace, false);
+    }
+
+    /**
+     * Replays a trace edited by a {@link Shrinker}, making the closest valid choice where the recorded ones do not fit.
+     *
+     * @param spec the specification to run
+     * @param trace the trace to replay
+     * @return the outcome of the replayed simulation, or null if the initialization or a transition was rejected
+     */
+    OutcomeSimulation<M> replayLeniently(Specification<M> spec, RecordedTrace<M> trace) {
+        return replay(spec, trace, true);
+    }
+
+    private OutcomeSimulation<M> replay(Specification<M> spec, RecordedTrace<M> trace, boolean lenient) {
+        var plan = new Plan<>(spec);
+        var actionIndexes = plan.indexesOf(trace.actionNames());
+        var recorded = new ChoiceReplay(trace.choices(), lenient);
+        var log = new ChoiceLog(recorded);
+        var outcomeSimulation = NonDetContext.callWith(log, () -> reenact(plan, trace, actionIndexes, recorded, log, lenient));
+        return outcomeSimulation == null ? null : outcomeSimulation.withSimulationIndex(trace.simulationIndex());
+    }
+
+    /**
+     * Runs a single simulation of a run again, like {@link #replay(Specification, int)}, logging its choices,
+     * so that it can be saved or shrunk even if the run did not record its traces.
+     *
+     * @param spec the specification to run
+     * @param simulationIndex the zero-based index of the simulation to record
+     * @return the recorded trace of the simulation
+     * @throws IllegalArgumentException if the simulation fails its initialization, and has no trace
+     * @throws IllegalStateException if the simulations are guided, as a guided simulation cannot be run on its own
+     */
+    public RecordedTrace<M> record(Specification<M> spec, int simulationIndex) {
+        if (simulationIndex < 0) {
+            throw new IllegalArgumentException("simulationIndex must be non-negative");
+        }
+        requireUnguided();
+        var collector = new ReportCollector<M>(simulationOptions.withCoverage(false), spec.canonicalFingerprint());
+        var outcomeSimulation = runSimulation(new Run(new Plan<>(spec), collector, true, false, null, null), simulationIndex);
+        return RecordedTrace.of(outcomeSimulation, simulationOptions.seed());
+    }
+
+    private void requireUnguided() {
+        if (simulationOptions.guidance() == Guidance.COVERAGE) {
+            throw new IllegalStateException("A coverage-guided simulation depends on the simulations run before it"
+                    + " and cannot be run on its own: replay its RecordedTrace instead");
+        }
+    }
+
+    /**
+     * Runs the simulations on a dedicated fork-join pool, handing each outcome to the sink as it completes.
+     * Every worker takes the next simulation index from a shared counter until none is left or the run is over,
+     * so a run with a time budget stops promptly however many simulations it may run.
+     * The report is ordered by simulation index by the collector, not by completion order.
+     *
+     * @param run the run
+     * @param sink the consumer of the outcomes
+     */
+    private void runOnForkJoinPool(Run run, Consumer<OutcomeSimulation<M>> sink) {
+        var nextIndex = new AtomicLong();
+        var pool = new ForkJoinPool(simulationOptions.parallelism());
+        try {
+            var workers = IntStream.range(0, simulationOptions.parallelism())
+                    .mapToObj(worker -> pool.submit(() -> {
+                        for (var i = nextIndex.getAndIncrement();
+                             i < simulationOptions.numberOfSimulations() && !run.isOver();
+                             i = nextIndex.getAndIncrement()) {
+                            run.simulate((int) i, sink);
+                        }
+                    }))
+                    .toList();
+            workers.forEach(ForkJoinTask::join);
+        } finally {
+            pool.shutdown();
+        }
+    }
 
-        return new Report<>(outcomes);
+    /**
+     * Runs every simulation on a virtual thread of its own, a semaphore keeping at most as many of them running
+     * at once as the parallelism. Simulations are started in index order until none is left or the run is over,
+     * and the first exception or error thrown by a simulation stops starting new ones and is rethrown once the others end.
+     * As with a fork-join pool, the randomness of a simulation only depends on its index,
+     * and the report is ordered by simulation index.
+     *
+     * @param run the run
+     * @param sink the consumer of the outcomes
+     */
+    private void runOnVirtualThreads(Run run, Consumer<OutcomeSimulation<M>> sink) {
+        var running = new Semaphore(simulationOptions.parallelism());
+        var failure = new AtomicReference<Throwable>();
+        try (var executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (var i = 0; i < simulationOptions.numberOfSimulations() && !run.isOver() && failure.get() == null; i++) {
+                running.acquireUninterruptibly();
+                var simulationIndex = i;
+                executor.execute(() -> {
+                    try {
+                        run.simulate(simulationIndex, sink);
+                    } catch (Throwable e) {
+                        failure.compareAndSet(null, e);
+                    } finally {
+                        running.release();
+                    }
+                });
+            }
+        }
+        switch (failure.get()) {
+            case null -> { }
+            case Error error -> throw error;
+            case RuntimeException exception -> throw exception;
+            default -> throw new IllegalStateException("A simulation failed", failure.get());
+        }
+    }
+
+    /**
+     * Runs a single simulation, within the time budgets of the options.
+     *
+     * @param run the run the simulation belongs to
+     * @param simulationIndex the zero-based index of the simulation
+     * @return the outcome of the simulation, or null if it was abandoned because the run is over
+     */
+    private OutcomeSimulation<M> runSimulation(Run run, int simulationIndex) {
+        var choices = ChoiceSource.of(NonDetContext.forSimulation(simulationOptions.seed(), simulationIndex));
+        var walk = run.guide != null ? run.guide.walk(choices) : null;
+        ChoiceSource drawn = walk != null ? walk : choices;
+        var log = run.record ? new ChoiceLog(drawn) : null;
+        var budget = run.budget(log != null ? log : drawn);
+        ChoiceSource bound = budget != null ? budget : log != null ? log : drawn;
+        var actionOutcomes = new long[ActionOutcome.values().length];
+        var profiler = run.collector.profiler();
+
+        OutcomeSimulation<M> outcomeSimulation;
+        try {
+            outcomeSimulation = NonDetContext.callWith(bound,
+                    () -> simulate(run.plan, run.collector, actionOutcomes, profiler, choices, walk, log, budget));
+        } catch (TimeBudget.Exceeded e) {
+            outcomeSimulation = new OutcomeSimulation<>(OutcomeSimulationStatus.TIMEOUT);
+        }
+        if (outcomeSimulation.status().isTimeout() && run.isOver()) {
+            return null;
+        }
+        if (walk != null && outcomeSimulation.transitions() instanceof Trace<M> trace) {
+            walk.finish(trace);
+        }
+        outcomeSimulation = outcomeSimulation.withSimulationIndex(simulationIndex);
+        run.collector.attempted(actionOutcomes);
+        if (profiler != null) {
+            run.collector.profiled(profiler);
+        }
+        if (run.write && traceRecording.retains(outcomeSimulation.status())) {
+            TraceFile.write(traceRecording.fileOf(simulationIndex),
+                    RecordedTrace.of(outcomeSimulation, simulationOptions.seed()), traceRecording.codec());
+        }
+        return outcomeSimulation;
     }
 
-    private OutcomeSimulation<M> runSimulation(Specification<M> spec) {
+    /**
+     * Runs a single simulation.
+     *
+     * @param plan the flattened specification to run
+     * @param collector the collector of the states reached
+     * @param actionOutcomes the number of attempts per {@link ActionOutcome}, updated in place
+     * @param profiler the profiler measuring the evaluations, or null if the run is not profiled
+     * @param choices the source the actions are picked from
+     * @param walk the walk picking the actions instead, or null if the simulation is not guided
+     * @param log the log recording the choices of the successful attempts, or null if they are not recorded
+     * @param budget the time budget of the simulation, or null if it has none
+     * @return the outcome of the simulation
+     * @throws TimeBudget.Exceeded if the budget is used up before the model is initialized
+     */
+    private OutcomeSimulation<M> simulate(Plan<M> plan, ReportCollector<M> collector, long[] actionOutcomes,
+                                          Profiler profiler, ChoiceSource choices, CoverageGuide.Walk walk, ChoiceLog log,
+                                          TimeBudget budget) {
         var attemptsCount = 1;
         var transitionsCount = 1;
-        var transitions = new ArrayList<Transition<M>>();
 
-        var maybeModel = tryInit(spec.init());
+        var model = tryInit(plan.init, actionOutcomes, log);
 
-        if (maybeModel.isEmpty()) {
+        if (model == null) {
             return new OutcomeSimulation<M>(OutcomeSimulationStatus.FAILED_INIT);
         }
 
-        M model = maybeModel.get();
+        collector.reached(model);
+        var transitions = new Trace<>(plan.actionNames, model,
+                Math.min(simulationOptions.maxTransitions(), INITIAL_TRACE_CAPACITY), log);
+
+        var monitors = plan.monitors();
+        var verdicts = new Verdict[monitors.length];
+        Arrays.fill(verdicts, Verdict.PENDING);
+
+        var enabledActions = new int[plan.actions.length];
+        var deadlocked = false;
+        var timedOut = false;
+
+        try {
+            while (transitionsCount <= simulationOptions.maxTransitions()
+                && attemptsCount <= simulationOptions.maxAttempts()) {
+                if (budget != null && budget.isExceeded()) {
+                    timedOut = true;
+                    break;
+                }
+
+                var enabledCount = enabledActions(plan.actions, model, enabledActions, actionOutcomes, profiler);
+                if (enabledCount == 0) {
+                    deadlocked = true;
+                    break;
+                }
+
+                var actionIndex = walk != null
+                        ? walk.pick(enabledActions, enabledCount, transitions.size())
+                        : enabledActions[choices.choose(enabledCount)];
+                var mark = log == null ? 0 : log.size();
+                var newState = tryApplyAction(plan, actionIndex, model, actionOutcomes, profiler);
+                if (newState == null) {
+                    if (log != null) {
+                        log.truncate(mark);
+                    }
+                    attemptsCount++;
+                    continue;
+                }
+                var novel = collector.reached(newState);
+
+                List<String> failingStateProperties;
+                try {
+                    failingStateProperties = failingStateProperties(plan.stateProperties, newState, profiler);
+                } catch (PropertyError e) {
+                    if (log != null) {
+                        transitions.appendViolation(newState, actionIndex, attemptsCount);
+                    }
+                    return e.outcome(transitions);
+                }
 
-        while (transitionsCount <= simulationOptions.maxTransitions()
-            && attemptsCount <= simulationOptions.maxAttempts()) {
+                if (!failingStateProperties.isEmpty()) {
+                        if (log != null) {
+                            transitions.appendViolation(newState, actionIndex, attemptsCount);
+                        }
+                        return new OutcomeSimulation<M>(OutcomeSimulationStatus.FAILED_STATE_PROPERTIES)
+                                .withFailedStateProperties(failingStateProperties)
+                                .withTransitions(transitions);
+                }
 
-            var action = NonDet.oneOf(spec.step().actions());
-            var maybeNewState = tryApplyAction(action, model);
-            if (maybeNewState.isEmpty()) {
+                transitions.append(newState, actionIndex, attemptsCount);
+                if (walk != null) {
+                    walk.applied(actionIndex, transitions.size(), novel);
+                }
+                if (transitionsCount % TRANSITIONS_PER_REPORT == 0) {
+                    collector.transitioned(TRANSITIONS_PER_REPORT);
+                }
+                transitionsCount++;
                 attemptsCount++;
-                continue;
+                model = newState;
+
+                if (observe(plan, monitors, verdicts, transitions, profiler)) {
+                    break;
+                }
             }
-            var newState = maybeNewState.get();
+        } catch (TimeBudget.Exceeded e) {
+            timedOut = true;
+        } catch (PropertyError e) {
+            return e.outcome(transitions);
+        } finally {
+            collector.transitioned((transitionsCount - 1) % TRANSITIONS_PER_REPORT);
+        }
 
-            var failingStateProperties = spec.stateProperties().stream()
-                    .filter(stateProperty -> stateProperty.not().test(newState))
-                    .map(StateProperty::name)
-                    .distinct()
-                    .toList();
+        if (timedOut) {
+            return new OutcomeSimulation<M>(OutcomeSimulationStatus.TIMEOUT)
+                    .withTransitions(transitions);
+        }
 
-            if (!failingStateProperties.isEmpty()) {
+        return conclude(plan, monitors, verdicts, transitions, deadlocked, profiler);
+    }
+
+    /**
+     * Replays a recorded trace, with the recorded choices bound to the current thread through the given log.
+     *
+     * @param plan the flattened specification to run
+     * @param trace the trace to replay
+     * @param actionIndexes the index in the plan of every action of the trace
+     * @param recorded the source of the recorded choices
+     * @param log the log recording the choices again, for the trace of the outcome
+     * @param lenient whether a divergence ends the replay with null rather than an exception
+     * @return the outcome of the replayed simulation, or null if it diverged from a lenient replay
+     */
+    private OutcomeSimulation<M> reenact(Plan<M> plan, RecordedTrace<M> trace, int[] actionIndexes,
+                                         ChoiceReplay recorded, ChoiceLog log, boolean lenient) {
+        var actionOutcomes = new long[ActionOutcome.values().length];
+
+        recorded.seek(0, trace.choiceEnd(0));
+        var model = plan.init.tryApply().orElseNull();
+        if (lenient && model == null) {
+            return null;
+        }
+        if (!lenient) {
+            checkReplayed(trace, 0, model, recorded);
+        }
+
+        var transitions = new Trace<>(plan.actionNames, model, trace.size(), log);
+        var monitors = plan.monitors();
+        var verdicts = new Verdict[monitors.length];
+        Arrays.fill(verdicts, Verdict.PENDING);
+
+        for (var i = 0; i < trace.size(); i++) {
+            var actionIndex = actionIndexes[trace.action(i)];
+            var action = plan.actions[actionIndex];
+            recorded.seek(trace.choiceEnd(i), trace.choiceEnd(i + 1));
+            var newState = enabled(action, model)
+                    ? tryApplyAction(plan, actionIndex, model, actionOutcomes, null)
+                    : null;
+            if (lenient && newState == null) {
+                return null;
+            }
+            if (!lenient) {
+                checkReplayed(trace, i + 1, newState, recorded);
+            }
 
-                    return new OutcomeSimulation<M>(OutcomeSimulationStatus.FAILED_STATE_PROPERTIES)
-                            .withFailedStateProperties(failingStateProperties)
-                            .withTransitions(transitions);
+            List<String> failingStateProperties;
+            try {
+                failingStateProperties = failingStateProperties(plan.stateProperties, newState, null);
+            } catch (PropertyError e) {
+                transitions.appendViolation(newState, actionIndex, trace.attemptNumber(i));
+                return e.outcome(transitions);
+            }
+            if (!failingStateProperties.isEmpty()) {
+                transitions.appendViolation(newState, actionIndex, trace.attemptNumber(i));
+                return new OutcomeSimulation<M>(OutcomeSimulationStatus.FAILED_STATE_PROPERTIES)
+                        .withFailedStateProperties(failingStateProperties)
+                        .withTransitions(transitions);
             }
 
-            var transition = new Transition<>(model, newState, action.name(), transitionsCount, attemptsCount);
-            transitions.add(transition);
-            transitionsCount++;
-            attemptsCount++;
+            transitions.append(newState, actionIndex, trace.attemptNumber(i));
             model = newState;
+            try {
+                if (observe(plan, monitors, verdicts, transitions, null)) {
+                    break;
+                }
+            } catch (PropertyError e) {
+                return e.outcome(transitions);
+            }
         }
 
-        var failingTemporalProperties = spec.temporalProperties().stream()
-                .filter(temporalProperty -> temporalProperty.not().test(transitions))
-                .map(TemporalProperty::name)
-                .distinct()
-                .toList();
+        var deadlocked = trace.status().isDeadlock()
+                && enabledActions(plan.actions, model, new int[plan.actions.length], actionOutcomes, null) == 0;
+        return conclude(plan, monitors, verdicts, transitions, deadlocked, null);
+    }
+
+    /**
+     * Returns true if the guards of the action pass on the model, false if one of them fails or throws.
+     *
+     * @param action the action
+     * @param model the model
+     * @return true if the action is enabled
+     */
+    private boolean enabled(NamedAction<M> action, M model) {
+        try {
+            return action.isEnabled(model);
+        } catch (Exception e) {
+            return false;
+        }
+    }
+
+    /**
+     * Checks that replaying the choices leading to the given position of a trace reached the recorded state.
+     *
+     * @param trace the trace being replayed
+     * @param position the position of the state, 0 for the initial state
+     * @param state the state reached, or null if the initialization or the action was rejected
+     * @param recorded the source of the recorded choices
+     * @throws IllegalStateException if the replay diverged from the trace
+     */
+    private void checkReplayed(RecordedTrace<M> trace, int position, M state, ChoiceReplay recorded) {
+        var step = position == 0
+                ? "the initialization"
+                : "transition " + position + " (" + trace.actionName(position - 1) + ")";
+        if (state == null) {
+            throw new IllegalStateException("The trace diverged: " + step + " was rejected");
+        }
+        if (!recorded.exhausted()) {
+            throw new IllegalStateException("The trace diverged: " + step + " made fewer choices than recorded");
+        }
+        if (trace.hasStates() && !trace.state(position).equals(state)) {
+            throw new IllegalStateException("The trace diverged: " + step + " reached " + state
+                    + " instead of " + trace.state(position));
+        }
+    }
+
+    /**
+     * Returns the outcome of a simulation that did not violate any state property, from the verdicts of its monitors.
+     * A simulation cut short by a violated temporal property fails only the properties violated then: the others
+     * are not checked on the truncated trace, which they may still have satisfied had the simulation gone on.
+     *
+     * @param plan the flattened specification run
+     * @param monitors the monitors of the temporal properties
+     * @param verdicts the latest verdict of every monitor
+     * @param transitions the trace of the simulation
+     * @param deadlocked whether the simulation ended in a state in which no action is enabled
+     * @param profiler the profiler measuring the final checks, or null if the run is not profiled
+     * @return the outcome of the simulation
+     */
+    private OutcomeSimulation<M> conclude(Plan<M> plan, TemporalMonitor<M>[] monitors, Verdict[] verdicts,
+                                          Trace<M> transitions, boolean deadlocked, Profiler profiler) {
+        var failingTemporalProperties = new ArrayList<String>();
+        for (var i = 0; i < monitors.length; i++) {
+            if (verdicts[i] == Verdict.VIOLATED) {
+                failingTemporalProperties.add(plan.temporalProperties[i].name());
+            }
+        }
+        if (failingTemporalProperties.isEmpty()) {
+            try {
+                for (var i = 0; i < monitors.length; i++) {
+                    if (!holds(plan, monitors, i, profiler)) {
+                        failingTemporalProperties.add(plan.temporalProperties[i].name());
+                    }
+                }
+            } catch (PropertyError e) {
+                return e.outcome(transitions);
+            }
+        }
 
         if (!failingTemporalProperties.isEmpty()) {
             return
@@ -93,43 +596,483 @@ public class Simulator<M> implements ExecutionModel<M, Report<M>> {
                         .withTransitions(transitions);
         }
 
+        if (deadlocked) {
+            return new OutcomeSimulation<M>(OutcomeSimulationStatus.DEADLOCK)
+                    .withTransitions(transitions);
+        }
+
         return new OutcomeSimulation<M>(OutcomeSimulationStatus.SUCCESS)
                                 .withTransitions(transitions);
     }
 
+    /**
+     * Collects the indexes of the actions whose guards pass on the model. A guard that throws disables its action.
+     * Disabled actions are counted as guard rejections, and actions whose guard throws as errors.
+     *
+     * @param actions the actions of the step
+     * @param model the current model
+     * @param enabledActions the buffer receiving the indexes of the enabled actions
+     * @param actionOutcomes the number of attempts per {@link ActionOutcome}, updated in place
+     * @param profiler the profiler measuring the guards, or null if the run is not profiled
+     * @return the number of enabled actions
+     */
+    private int enabledActions(NamedAction<M>[] actions, M model, int[] enabledActions, long[] actionOutcomes,
+                               Profiler profiler) {
+        var enabledCount = 0;
+        for (var i = 0; i < actions.length; i++) {
+            var start = profiler == null ? 0L : profiler.start();
+            var outcome = ActionOutcome.APPLIED;
+            try {
+                if (actions[i].isEnabled(model)) {
+                    enabledActions[enabledCount++] = i;
+                } else {
+                    outcome = ActionOutcome.GUARD_REJECTED;
+                }
+            } catch (TimeBudget.Exceeded e) {
+                throw e;
+            } catch (Exception e) {
+                outcome = ActionOutcome.ERROR;
+            }
+            if (outcome != ActionOutcome.APPLIED) {
+                actionOutcomes[outcome.ordinal()]++;
+            }
+            if (profiler != null) {
+                profiler.record(ProfiledPart.GUARDS, i, start,
+                        outcome == ActionOutcome.GUARD_REJECTED, outcome == ActionOutcome.ERROR);
+            }
+        }
+        return enabledCount;
+    }
+
+    /**
+     * Returns the names of the state properties that do not hold on the state, without allocating when they all hold.
+     *
+     * @param stateProperties the state properties of the specification
+     * @param state the state to check
+     * @param profiler the profiler measuring the properties, or null if the run is not profiled
+     * @return the distinct names of the failing state properties
+     */
+    private List<String> failingStateProperties(StateProperty<M>[] stateProperties, M state, Profiler profiler) {
+        List<String> failing = List.of();
+        for (var i = 0; i < stateProperties.length; i++) {
+            var stateProperty = stateProperties[i];
+            if (!test(stateProperty, i, state, profiler)) {
+                if (failing.isEmpty()) {
+                    failing = new ArrayList<>();
+                }
+                if (!failing.contains(stateProperty.name())) {
+                    failing.add(stateProperty.name());
+                }
+            }
+        }
+        return failing;
+    }
+
+    /**
+     * Tests a state property on the state, measuring the test if the run is profiled.
+     *
+     * @param stateProperty the state property
+     * @param index the index of the state property
+     * @param state the state to check
+     * @param profiler the profiler, or null
+     * @return true if the property holds
+     * @throws PropertyError if the property throws
+     */
+    private boolean test(StateProperty<M> stateProperty, int index, M state, Profiler profiler) {
+        var start = profiler == null ? 0L : profiler.start();
+        try {
+            var holds = stateProperty.test(state);
+            if (profiler != null) {
+                profiler.record(ProfiledPart.STATE_PROPERTY, index, start, !holds, false);
+            }
+            return holds;
+        } catch (TimeBudget.Exceeded e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (profiler != null) {
+                profiler.record(ProfiledPart.STATE_PROPERTY, index, start, false, true);
+            }
+            throw new PropertyError(stateProperty.name(), false);
+        }
+    }
+
+    /**
+     * Returns whether the temporal property of the given monitor holds at the end of the simulation,
+     * measuring the final check if the run is profiled.
+     *
+     * @param plan the plan naming the temporal properties
+     * @param monitors the monitors of the temporal properties
+     * @param index the index of the monitor
+     * @param profiler the profiler, or null
+     * @return true if the property holds
+     * @throws PropertyError if the property throws
+     */
+    private boolean holds(Plan<M> plan, TemporalMonitor<M>[] monitors, int index, Profiler profiler) {
+        var start = profiler == null ? 0L : profiler.start();
+        try {
+            var holds = monitors[index].holds();
+            if (profiler != null) {
+                profiler.record(ProfiledPart.TEMPORAL_FINAL, index, start, !holds, false);
+            }
+            return holds;
+        } catch (TimeBudget.Exceeded e) {
+            throw e;
+        } catch (RuntimeException e) {
+            if (profiler != null) {
+                profiler.record(ProfiledPart.TEMPORAL_FINAL, index, start, false, true);
+            }
+            throw new PropertyError(plan.temporalProperties[index].name(), true);
+        }
+    }
+
+    /**
+     * Feeds the transition to every monitor whose verdict is not final yet.
+     *
+     * @param plan the plan naming the temporal properties
+     * @param monitors the monitors of the temporal properties
+     * @param verdicts the latest verdict of every monitor, updated in place
+     * @param trace the trace whose last transition to observe
+     * @param profiler the profiler measuring the monitors, or null if the run is not profiled
+     * @return true if a temporal property is violated whatever transitions follow
+     * @throws PropertyError if a temporal property throws
+     */
+    private boolean observe(Plan<M> plan, TemporalMonitor<M>[] monitors, Verdict[] verdicts, Trace<M> trace,
+                            Profiler profiler) {
+        var violated = false;
+        var index = trace.size() - 1;
+        for (var i = 0; i < verdicts.length; i++) {
+            if (!verdicts[i].isFinal()) {
+                var start = profiler == null ? 0L : profiler.start();
+                try {
+                    verdicts[i] = monitors[i].next(trace, index);
+                } catch (TimeBudget.Exceeded e) {
+                    throw e;
+                } catch (RuntimeException e) {
+                    if (profiler != null) {
+                        profiler.record(ProfiledPart.TEMPORAL_STEP, i, start, false, true);
+                    }
+                    throw new PropertyError(plan.temporalProperties[i].name(), true);
+                }
+                if (profiler != null) {
+                    profiler.record(ProfiledPart.TEMPORAL_STEP, i, start, verdicts[i] == Verdict.VIOLATED, false);
+                }
+            }
+            violated = violated || verdicts[i] == Verdict.VIOLATED;
+        }
+        return violated;
+    }
+
     /**
      * Attempts to initialize the model using the provided Init function.
      * Tries up to 100 times.
      *
      * @param init the initialization function
-     * @return an Optional containing the model if successful, otherwise empty
+     * @param actionOutcomes the number of attempts per {@link ActionOutcome}, updated in place
+     * @param log the log recording the choices of the successful attempt, or null if they are not recorded
+     * @return the model if successful, otherwise null
      */
-    private Optional<M> tryInit(Init<M> init) {
+    private M tryInit(Init<M> init, long[] actionOutcomes, ChoiceLog log) {
         for (var i = 0; i < 100; i++) {
+            var mark = log == null ? 0 : log.size();
+            var result = init.tryApply();
+            actionOutcomes[result.outcome().ordinal()]++;
+            if (result instanceof ActionResult.Applied<M> applied) {
+                return applied.state();
+            }
+            if (log != null) {
+                log.truncate(mark);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Attempts to apply the expression of the given enabled action to the model, or takes the transition from
+     * the transition cache of the plan if the action is memoized. A missed transition is cached if its evaluation
+     * drew no choice from {@link NonDet} and applied or rejected the action, as it then only depends on the model.
+     * The transitions taken from the cache are counted by outcome, but not profiled, as nothing is evaluated.
+     *
+     * @param plan the flattened specification
+     * @param actionIndex the index of the action to apply, whose guards already passed
+     * @param model the model to apply the action to
+     * @param actionOutcomes the number of attempts per {@link ActionOutcome}, updated in place
+     * @param profiler the profiler measuring the expression, or null if the run is not profiled
+     * @return the new model if successful, otherwise null
+     */
+    private M tryApplyAction(Plan<M> plan, int actionIndex, M model, long[] actionOutcomes, Profiler profiler) {
+        var cache = plan.cache;
+        if (cache == null || !plan.actions[actionIndex].memoized()) {
+            return evaluateAction(plan.actions, actionIndex, model, actionOutcomes, profiler);
+        }
+
+        var cached = cache.get(actionIndex, model);
+        if (cached != null) {
+            actionOutcomes[cached.outcome().ordinal()]++;
+            return cached.to();
+        }
+
+        var rejections = actionOutcomes[ActionOutcome.PRECONDITION_REJECTED.ordinal()];
+        var draws = new TransitionCache.Draws(NonDetContext.current());
+        var newModel = NonDetContext.callWith(draws,
+                () -> evaluateAction(plan.actions, actionIndex, model, actionOutcomes, profiler));
+        if (draws.drawn()) {
+            cache.uncacheable();
+        } else if (newModel != null) {
+            cache.put(actionIndex, model, ActionOutcome.APPLIED, newModel);
+        } else if (actionOutcomes[ActionOutcome.PRECONDITION_REJECTED.ordinal()] != rejections) {
+            cache.put(actionIndex, model, ActionOutcome.PRECONDITION_REJECTED, null);
+        } else {
+            cache.uncacheable();
+        }
+        return newModel;
+    }
+
+    /**
+     * Evaluates the expression of the given enabled action on the model. Expressions that throw are classified
+     * like {@link ActionExpression#attempt(Expression, Object)} does, without allocating a result.
+     *
+     * @param actions the actions of the step
+     * @param actionIndex the index of the action to apply, whose guards already passed
+     * @param model the model to apply the action to
+     * @param actionOutcomes the number of attempts per {@link ActionOutcome}, updated in place
+     * @param profiler the profiler measuring the expression, or null if the run is not profiled
+     * @return the new model if successful, otherwise null
+     */
+    private M evaluateAction(NamedAction<M>[] actions, int actionIndex, M model, long[] actionOutcomes,
+                             Profiler profiler) {
+        var start = profiler == null ? 0L : profiler.start();
+        var expression = actions[actionIndex].expression();
+        M newModel = null;
+        ActionOutcome outcome;
+        if (expression instanceof ActionExpression<M> actionExpression) {
             try {
-                var model = init.apply(null);
-                if (model != null) {
-                    return Optional.of(model);
-                }
+                var result = actionExpression.attempt(model);
+                outcome = result.outcome();
+                newModel = result.orElseNull();
+            } catch (TimeBudget.Exceeded e) {
+                throw e;
             } catch (Exception e) {
-                continue;
+                outcome = ActionOutcome.ERROR;
+            }
+        } else {
+            try {
+                newModel = expression.apply(model);
+                outcome = newModel == null ? ActionOutcome.PRECONDITION_REJECTED : ActionOutcome.APPLIED;
+            } catch (TimeBudget.Exceeded e) {
+                throw e;
+            } catch (IllegalArgumentException | IllegalStateException e) {
+                outcome = ActionOutcome.PRECONDITION_REJECTED;
+            } catch (Exception e) {
+                outcome = ActionOutcome.ERROR;
             }
         }
-        return Optional.empty();
+        actionOutcomes[outcome.ordinal()]++;
+        if (profiler != null) {
+            profiler.record(ProfiledPart.ACTION, actionIndex, start,
+                    outcome == ActionOutcome.PRECONDITION_REJECTED, outcome == ActionOutcome.ERROR);
+        }
+        return newModel;
     }
 
     /**
-     * Attempts to apply the given action to the model.
+     * The state shared by the simulations of a single run.
+     */
+    private final class Run {
+        private final Plan<M> plan;
+        private final ReportCollector<M> collector;
+        private final boolean record;
+        private final boolean write;
+        private final CoverageGuide guide;
+        private final long deadline;
+        private final boolean timed;
+        private final AtomicBoolean stopped = new AtomicBoolean();
+
+        /**
+         * Constructs a Run starting now.
+         *
+         * @param plan the flattened specification to run
+         * @param collector the collector of the outcomes
+         * @param record whether the choices of the simulations are recorded
+         * @param write whether the retained traces are written to trace files
+         * @param runTimeout the wall-clock budget of the run, or null for none
+         * @param guide the guide of the simulations, or null if they are not guided
+         */
+        Run(Plan<M> plan, ReportCollector<M> collector, boolean record, boolean write, Duration runTimeout,
+            CoverageGuide guide) {
+            this.plan = plan;
+            this.collector = collector;
+            this.record = record;
+            this.write = write;
+            this.guide = guide;
+            this.timed = runTimeout != null;
+            this.deadline = timed ? System.nanoTime() + runTimeout.toNanos() : 0L;
+        }
+
+        /**
+         * Returns true if the time budget of the run is used up, or the run was stopped by a failure.
+         *
+         * @return true if no simulation should be started
+         */
+        boolean isOver() {
+            return stopped.get() || (timed && System.nanoTime() - deadline >= 0);
+        }
+
+        /**
+         * Returns the time budget of a simulation starting now, the earliest of its own deadline and the one of the run.
+         * When the run stops on the first failure and other simulations run meanwhile, the budget also ends
+         * when the run is stopped.
+         *
+         * @param choices the source the choices of the simulation are drawn from
+         * @return the budget wrapping the source, or null if the simulation can only end by itself
+         */
+        TimeBudget budget(ChoiceSource choices) {
+            var simulationTimeout = simulationOptions.simulationTimeout();
+            var cancellable = simulationOptions.stopOnConstraintViolation()
+                    && simulationOptions.concurrency() != Concurrency.SEQUENTIAL;
+            if (simulationTimeout == null) {
+                return timed || cancellable ? new TimeBudget(choices, deadline, timed, stopped) : null;
+            }
+            var simulationDeadline = System.nanoTime() + simulationTimeout.toNanos();
+            var earliest = timed && deadline - simulationDeadline < 0 ? deadline : simulationDeadline;
+            return new TimeBudget(choices, earliest, true, stopped);
+        }
+
+        /**
+         * Runs the simulation of the given index, handing its outcome to the sink unless it was abandoned.
+         * A simulation failing a property stops the run if the options say so: no simulation is started anymore,
+         * and the ones running are abandoned at their next attempt or {@link NonDet} draw.
+         *
+         * @param simulationIndex the zero-based index of the simulation
+         * @param sink the consumer of the outcome
+         */
+        void simulate(int simulationIndex, Consumer<OutcomeSimulation<M>> sink) {
+            var outcomeSimulation = runSimulation(this, simulationIndex);
+            if (outcomeSimulation == null) {
+                return;
+            }
+            var status = outcomeSimulation.status();
+            if (simulationOptions.stopOnConstraintViolation()
+                    && (status.isFailedStateProperties() || status.isFailedInvariants())) {
+                stopped.set(true);
+            }
+            sink.accept(outcomeSimulation);
+        }
+    }
+
+    /**
+     * Thrown when a state or temporal property throws, which ends the simulation with
+     * {@link OutcomeSimulationStatus#ERROR}. It carries no stack trace, as it never leaves the simulator.
+     */
+    @SuppressWarnings("serial")
+    private static final class PropertyError extends RuntimeException {
+        private final String property;
+        private final boolean temporal;
+
+        PropertyError(String property, boolean temporal) {
+            super("The property " + property + " threw", null, false, false);
+            this.property = property;
+            this.temporal = temporal;
+        }
+
+        /**
+         * Returns the outcome of the simulation ended by this error, naming the property that threw.
+         *
+         * @param transitions the transitions of the simulation
+         * @param <M> the model type
+         * @return the outcome
+         */
+        <M> OutcomeSimulation<M> outcome(List<Transition<M>> transitions) {
+            var outcome = new OutcomeSimulation<M>(OutcomeSimulationStatus.ERROR).withTransitions(transitions);
+            return temporal
+                    ? outcome.withFailedTemporalProperties(List.of(property))
+                    : outcome.withFailedStateProperties(List.of(property));
+        }
+    }
+
+    /**
+     * The parts of a specification the simulations iterate over, flattened into arrays once per run.
      *
-     * @param action the action to apply
-     * @param model the model to apply the action to
-     * @return an Optional containing the new model if successful, otherwise empty
+     * @param <M> the model type
      */
-    private Optional<M> tryApplyAction(NamedAction<M> action, M model) {
-        try {
-            return Optional.of(action.apply(model));
-        } catch (Exception e) {
-            return Optional.empty();
+    private static final class Plan<M> {
+        private final Init<M> init;
+        private final NamedAction<M>[] actions;
+        private final String[] actionNames;
+        private final StateProperty<M>[] stateProperties;
+        private final TemporalProperty<M>[] temporalProperties;
+        private final TransitionCache<M> cache;
+
+        /**
+         * Constructs a Plan of the given specification, without transition cache.
+         *
+         * @param spec the specification
+         */
+        Plan(Specification<M> spec) {
+            this(spec, 0, 1);
+        }
+
+        /**
+         * Constructs a Plan of the given specification, with a transition cache if it has memoized actions.
+         *
+         * @param spec the specification
+         * @param transitionCacheSize the number of transitions kept in the cache, or 0 for no cache
+         * @param parallelism the number of simulations running at once
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        Plan(Specification<M> spec, int transitionCacheSize, int parallelism) {
+            this.init = spec.init();
+            this.actions = spec.step().actions().toArray(new NamedAction[0]);
+            this.actionNames = spec.step().actions().stream()
+                    .map(NamedAction::name)
+                    .toArray(String[]::new);
+            this.stateProperties = spec.stateProperties().toArray(new StateProperty[0]);
+            this.temporalProperties = spec.temporalProperties().toArray(new TemporalProperty[0]);
+            this.cache = transitionCacheSize > 0 && Arrays.stream(actions).anyMatch(NamedAction::memoized)
+                    ? new TransitionCache<>(transitionCacheSize, parallelism)
+                    : null;
+        }
+
+        /**
+         * Returns the index of every action of the given names, the first one if several actions have the same name.
+         *
+         * @param names the names of the actions
+         * @return the indexes of the actions in this plan
+         * @throws IllegalArgumentException if no action has one of the names
+         */
+        int[] indexesOf(List<String> names) {
+            var indexes = new int[names.size()];
+            for (var i = 0; i < indexes.length; i++) {
+                indexes[i] = List.of(actionNames).indexOf(names.get(i));
+                if (indexes[i] < 0) {
+                    throw new IllegalArgumentException("The specification has no action named " + names.get(i));
+                }
+            }
+            return indexes;
+        }
+
+        /**
+         * Creates a Profiler for the actions and properties of this plan.
+         *
+         * @return a new Profiler
+         */
+        Profiler profiler() {
+            return new Profiler(actionNames,
+                    Arrays.stream(stateProperties).map(StateProperty::name).toArray(String[]::new),
+                    Arrays.stream(temporalProperties).map(TemporalProperty::name).toArray(String[]::new));
+        }
+
+        /**
+         * Creates fresh monitors for the temporal properties of a simulation.
+         *
+         * @return one monitor per temporal property
+         */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        TemporalMonitor<M>[] monitors() {
+            var monitors = new TemporalMonitor[temporalProperties.length];
+            for (var i = 0; i < monitors.length; i++) {
+                monitors[i] = temporalProperties[i].monitor().get();
+            }
+            return monitors;
         }
     }
-}
\ No newline at end of file
+}
@@ -7,7 +7,8 @@ import java.util.Objects;
 import java.util.stream.Collectors;
 
 /**
- * Represents a specification for a model, including initialization, steps, and properties.
+ * Represents a specification for a model, including initialization, steps, properties, how states are fingerprinted,
+ * and which states are symmetric to each other.
  *
  * @param <M> the model type
  */
@@ -15,7 +16,9 @@ public record Specification<M>(
         Init<M> init,
         Step<M> step,
         List<StateProperty<M>> stateProperties,
-        List<TemporalProperty<M>> temporalProperties
+        List<TemporalProperty<M>> temporalProperties,
+        Fingerprint<M> fingerprint,
+        Symmetry<M> symmetry
 ) {
     /**
      * Constructs a Specification with the given init and step, and empty property lists.
@@ -28,7 +31,8 @@ public record Specification<M>(
     }
 
     /**
-     * Constructs a Specification with the given init, step, state properties, and temporal properties.
+     * Constructs a Specification with the given init, step, state properties, and temporal properties,
+     * fingerprinting states by their structure (see {@link Fingerprint#ofStructure()}).
      *
      * @param init the initialization action
      * @param step the step definition
@@ -40,11 +44,53 @@ public record Specification<M>(
                          Step<M> step,
                          List<StateProperty<M>> stateProperties,
                          List<TemporalProperty<M>> temporalProperties) {
+        this(init, step, stateProperties, temporalProperties, Fingerprint.ofStructure());
+    }
+
+    /**
+     * Constructs a Specification with the given init, step, state properties, temporal properties, and fingerprint,
+     * without symmetry.
+     *
+     * @param init the initialization action
+     * @param step the step definition
+     * @param stateProperties the list of state properties
+     * @param temporalProperties the list of temporal properties
+     * @param fingerprint the fingerprint of the states
+     * @throws IllegalArgumentException if property names are not unique
+     */
+    public Specification(Init<M> init,
+                         Step<M> step,
+                         List<StateProperty<M>> stateProperties,
+                         List<TemporalProperty<M>> temporalProperties,
+                         Fingerprint<M> fingerprint) {
+        this(init, step, stateProperties, temporalProperties, fingerprint, Symmetry.none());
+    }
+
+    /**
+     * Constructs a Specification with the given init, step, state properties, temporal properties, fingerprint,
+     * and symmetry.
+     *
+     * @param init the initialization action
+     * @param step the step definition
+     * @param stateProperties the list of state properties
+     * @param temporalProperties the list of temporal properties
+     * @param fingerprint the fingerprint of the states
+     * @param symmetry the symmetry of the states
+     * @throws IllegalArgumentException if property names are not unique
+     */
+    public Specification(Init<M> init,
+                         Step<M> step,
+                         List<StateProperty<M>> stateProperties,
+                         List<TemporalProperty<M>> temporalProperties,
+                         Fingerprint<M> fingerprint,
+                         Symmetry<M> symmetry) {
 
         Objects.requireNonNull(init, "init is null");
         Objects.requireNonNull(step, "step is null");
         Objects.requireNonNull(stateProperties, "stateProperties is null");
         Objects.requireNonNull(temporalProperties, "temporalProperties is null");
+        Objects.requireNonNull(fingerprint, "fingerprint is null");
+        Objects.requireNonNull(symmetry, "symmetry is null");
 
         var statePropertiesNames = stateProperties.stream()
                 .map(StateProperty::name)
@@ -73,6 +119,8 @@ public record Specification<M>(
         this.step = step;
         this.stateProperties = List.copyOf(stateProperties);
         this.temporalProperties = List.copyOf(temporalProperties);
+        this.fingerprint = fingerprint;
+        this.symmetry = symmetry;
     }
 
     /**
@@ -82,7 +130,7 @@ public record Specification<M>(
      * @return a new Specification with updated state properties
      */
     public Specification<M> withStateProperty(List<StateProperty<M>> stateProperties) {
-        return new Specification<>(init, step, stateProperties, temporalProperties);
+        return new Specification<>(init, step, stateProperties, temporalProperties, fingerprint, symmetry);
     }
 
     /**
@@ -93,7 +141,7 @@ public record Specification<M>(
      */
     @SafeVarargs
     public final Specification<M> withStateProperty(StateProperty<M>... stateProperties) {
-        return new Specification<>(init, step, Arrays.asList(stateProperties), temporalProperties);
+        return new Specification<>(init, step, Arrays.asList(stateProperties), temporalProperties, fingerprint, symmetry);
     }
 
     /**
@@ -103,7 +151,7 @@ public record Specification<M>(
      * @return a new Specification with updated temporal properties
      */
     public Specification<M> withTemporalProperties(List<TemporalProperty<M>> temporalProperties) {
-        return new Specification<>(init, step, stateProperties, temporalProperties);
+        return new Specification<>(init, step, stateProperties, temporalProperties, fingerprint, symmetry);
     }
 
     /**
@@ -114,6 +162,49 @@ public record Specification<M>(
      */
     @SafeVarargs
     public final Specification<M> withTemporalProperties(TemporalProperty<M>... temporalProperties) {
-        return new Specification<>(init, step, stateProperties, Arrays.asList(temporalProperties));
+        return new Specification<>(init, step, stateProperties, Arrays.asList(temporalProperties), fingerprint, symmetry);
+    }
+
+    /**
+     * Returns a new Specification with the given fingerprint of the states.
+     *
+     * @param fingerprint the fingerprint of the states
+     * @return a new Specification with updated fingerprint
+     */
+    public Specification<M> withFingerprint(Fingerprint<M> fingerprint) {
+        return new Specification<>(init, step, stateProperties, temporalProperties, fingerprint, symmetry);
+    }
+
+    /**
+     * Returns a new Specification with the given symmetry of the states.
+     *
+     * @param symmetry the symmetry of the states
+     * @return a new Specification with updated symmetry
+     */
+    public Specification<M> withSymmetry(Symmetry<M> symmetry) {
+        return new Specification<>(init, step, stateProperties, temporalProperties, fingerprint, symmetry);
+    }
+
+    /**
+     * Returns the fingerprint of the canonical state of a state (see {@link Symmetry}), on which explorations
+     * and coverage deduplicate states. Without symmetry, it is the fingerprint of the states themselves.
+     *
+     * @return the fingerprint of the canonical states
+     */
+    public Fingerprint<M> canonicalFingerprint() {
+        if (symmetry == Symmetry.NONE) {
+            return fingerprint;
+        }
+        return new Fingerprint<>() {
+            @Override
+            public long of(M state) {
+                return fingerprint.of(symmetry.canonical(state));
+            }
+
+            @Override
+            public int bits() {
+                return fingerprint.bits();
+            }
+        };
     }
 }
@@ -0,0 +1,440 @@
+package nl.suriani.verifyj;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * A fingerprint store that keeps the most recent fingerprints in an in-memory {@link FingerprintSet} and spills them
+ * to sorted run files once the set outgrows its memory budget, so that the number of visited states is bounded
+ * by the disk rather than by the heap.
+ * <p>
+ * Every run is a file of (fingerprint, value) pairs sorted by fingerprint, with a sparse index of every
+ * {@value #FENCE_INTERVAL}th fingerprint kept on the heap, so a lookup reads a single block of the file with one
+ * positional read. Run files are read through channels rather than mapped, so that they are released, and can be
+ * deleted, as soon as the store is closed.
+ * Once there are more than {@value #MAX_RUNS} runs, they are merged into one, bounding the number of files probed
+ * by a lookup. A fingerprint is only added to memory after checking the runs, so no fingerprint is ever stored twice.
+ * <p>
+ * Lookups and additions from several threads proceed concurrently, and only a spill or a merge blocks them.
+ */
+public final class SpillingFingerprintStore implements FingerprintStore {
+    /**
+     * The number of bytes an in-memory fingerprint may take, counting the hash table and the buffers sorting it on spill.
+     */
+    static final int BYTES_PER_MEMORY_ENTRY = 48;
+    private static final int ENTRY_BYTES = 16;
+    private static final int FENCE_INTERVAL = 512;
+    private static final int MAX_RUNS = 8;
+    private static final int BLOCK_BYTES = FENCE_INTERVAL * ENTRY_BYTES;
+    private static final ThreadLocal<ByteBuffer> BLOCKS =
+            ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BLOCK_BYTES));
+
+    private final Path directory;
+    private final int stripes;
+    private final long memoryEntries;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile FingerprintSet memory;
+    private final List<Run> runs = new ArrayList<>();
+    private long bytesWritten;
+    private final LongAdder bytesRead = new LongAdder();
+    private int merges;
+
+    /**
+     * Constructs a SpillingFingerprintStore writing its runs to the given directory.
+     *
+     * @param directory the directory of the run files, created if missing
+     * @param memoryBudgetBytes the number of heap bytes the in-memory fingerprints may take before being spilled
+     * @param stripes the number of stripes of the in-memory set
+     */
+    public SpillingFingerprintStore(Path directory, long memoryBudgetBytes, int stripes) {
+        if (memoryBudgetBytes < BYTES_PER_MEMORY_ENTRY) {
+            throw new IllegalArgumentException("memoryBudgetBytes must be at least " + BYTES_PER_MEMORY_ENTRY);
+        }
+        this.directory = Objects.requireNonNull(directory);
+        this.stripes = stripes;
+        this.memoryEntries = Math.min(memoryBudgetBytes / BYTES_PER_MEMORY_ENTRY, 1 << 30);
+        this.memory = new FingerprintSet(stripes, true);
+        try {
+            Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    @Override
+    public boolean add(long fingerprint, long value) {
+        lock.readLock().lock();
+        try {
+            var key = FingerprintSet.normalise(fingerprint);
+            for (var run : runs) {
+                if (run.find(key, BLOCKS.get()) >= 0) {
+                    return false;
+                }
+            }
+            if (!memory.add(fingerprint, value)) {
+                return false;
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        if (memory.size() >= memoryEntries) {
+            spill();
+        }
+        return true;
+    }
+
+    @Override
+    public boolean contains(long fingerprint) {
+        lock.readLock().lock();
+        try {
+            if (memory.contains(fingerprint)) {
+                return true;
+            }
+            var key = FingerprintSet.normalise(fingerprint);
+            for (var run : runs) {
+                if (run.find(key, BLOCKS.get()) >= 0) {
+                    return true;
+                }
+            }
+            return false;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long get(long fingerprint, long defaultValue) {
+        lock.readLock().lock();
+        try {
+            if (memory.contains(fingerprint)) {
+                return memory.get(fingerprint, defaultValue);
+            }
+            var key = FingerprintSet.normalise(fingerprint);
+            var block = BLOCKS.get();
+            for (var run : runs) {
+                var offset = run.find(key, block);
+                if (offset >= 0) {
+                    return block.getLong(offset + 8);
+                }
+            }
+            return defaultValue;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public long size() {
+        lock.readLock().lock();
+        try {
+            var size = memory.size();
+            for (var run : runs) {
+                size += run.count;
+            }
+            return size;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    @Override
+    public StorageMetrics metrics() {
+        lock.readLock().lock();
+        try {
+            var fenceBytes = 0L;
+            var diskEntries = 0L;
+            for (var run : runs) {
+                fenceBytes += run.fence.length * 8L;
+                diskEntries += run.count;
+            }
+            return new StorageMetrics(memory.memoryBytes() + fenceBytes, diskEntries, diskEntries * ENTRY_BYTES,
+                    bytesWritten, bytesRead.sum(), runs.size(), merges);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Closes and deletes the run files.
+     */
+    @Override
+    public void close() {
+        lock.writeLock().lock();
+        try {
+            for (var run : runs) {
+                run.close();
+                Files.deleteIfExists(run.path);
+            }
+            runs.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void spill() {
+        lock.writeLock().lock();
+        try {
+            if (memory.size() < memoryEntries) {
+                return;
+            }
+            var count = (int) memory.size();
+            var keys = new long[count];
+            var values = new long[count];
+            memory.copyTo(keys, values);
+            memory = new FingerprintSet(stripes, true);
+            sort(keys, values, 0, count - 1);
+
+            var writer = new RunWriter(directory, count);
+            for (var i = 0; i < count; i++) {
+                writer.append(keys[i], values[i]);
+            }
+            runs.add(writer.finish());
+
+            if (runs.size() > MAX_RUNS) {
+                merge();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void merge() throws IOException {
+        var total = 0L;
+        for (var run : runs) {
+            total += run.count;
+        }
+        var cursors = new RunCursor[runs.size()];
+        for (var i = 0; i < cursors.length; i++) {
+            cursors[i] = new RunCursor(runs.get(i));
+        }
+        var writer = new RunWriter(directory, total);
+        for (var written = 0L; written < total; written++) {
+            RunCursor smallest = null;
+            for (var cursor : cursors) {
+                if (cursor.hasEntry() && (smallest == null || cursor.key() < smallest.key())) {
+                    smallest = cursor;
+                }
+            }
+            writer.append(smallest.key(), smallest.value());
+            smallest.advance();
+        }
+        var merged = writer.finish();
+        for (var run : runs) {
+            bytesRead.add(run.count * ENTRY_BYTES);
+            run.close();
+            Files.delete(run.path);
+        }
+        runs.clear();
+        runs.add(merged);
+        merges++;
+    }
+
+    /**
+     * Sorts the keys, and the values along with them, with a quicksort. Fingerprints are uniformly distributed,
+     * so the middle element is as good a pivot as any.
+     */
+    private static void sort(long[] keys, long[] values, int from, int to) {
+        while (from < to) {
+            var pivot = keys[(from + to) >>> 1];
+            var i = from;
+            var j = to;
+            while (i <= j) {
+                while (keys[i] < pivot) {
+                    i++;
+                }
+                while (keys[j] > pivot) {
+                    j--;
+                }
+                if (i <= j) {
+                    swap(keys, i, j);
+                    swap(values, i, j);
+                    i++;
+                    j--;
+                }
+            }
+            if (j - from < to - i) {
+                sort(keys, values, from, j);
+                from = i;
+            } else {
+                sort(keys, values, i, to);
+                to = j;
+            }
+        }
+    }
+
+    private static void swap(long[] array, int i, int j) {
+        var swapped = array[i];
+        array[i] = array[j];
+        array[j] = swapped;
+    }
+
+    /**
+     * Writes (fingerprint, value) pairs in ascending order of fingerprint to a new run file.
+     */
+    private final class RunWriter {
+        private final Path path;
+        private final FileChannel channel;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        private final long[] fence;
+        private long count;
+
+        RunWriter(Path directory, long expectedCount) throws IOException {
+            this.path = Files.createTempFile(directory, "visited-", ".run");
+            this.channel = FileChannel.open(path, StandardOpenOption.WRITE);
+            this.fence = new long[(int) ((expectedCount + FENCE_INTERVAL - 1) / FENCE_INTERVAL)];
+        }
+
+        void append(long key, long value) throws IOException {
+            if (count % FENCE_INTERVAL == 0) {
+                fence[(int) (count / FENCE_INTERVAL)] = key;
+            }
+            if (buffer.remaining() < ENTRY_BYTES) {
+                flush();
+            }
+            buffer.putLong(key).putLong(value);
+            count++;
+        }
+
+        Run finish() throws IOException {
+            flush();
+            channel.close();
+            bytesWritten += count * ENTRY_BYTES;
+            return new Run(path, count, fence, bytesRead);
+        }
+
+        private void flush() throws IOException {
+            buffer.flip();
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+            buffer.clear();
+        }
+    }
+
+    /**
+     * A run file, kept open for positional reads, counting the bytes its lookups read.
+     */
+    private static final class Run {
+        private final Path path;
+        private final long count;
+        private final long[] fence;
+        private final FileChannel channel;
+        private final LongAdder bytesRead;
+
+        Run(Path path, long count, long[] fence, LongAdder bytesRead) throws IOException {
+            this.path = path;
+            this.count = count;
+            this.fence = fence;
+            this.bytesRead = bytesRead;
+            this.channel = FileChannel.open(path, StandardOpenOption.READ);
+        }
+
+        /**
+         * Reads the block of the run that may hold the given key into the given buffer, and looks the key up in it.
+         *
+         * @param key the stored fingerprint to look up
+         * @param block the buffer receiving the block, of {@value #BLOCK_BYTES} bytes
+         * @return the offset of the entry of the key in the block, or -1 if the run does not hold it
+         */
+        int find(long key, ByteBuffer block) {
+            var index = Arrays.binarySearch(fence, key);
+            if (index < -1) {
+                index = -index - 2;
+            } else if (index == -1) {
+                return -1;
+            }
+            var first = (long) index * FENCE_INTERVAL;
+            var entries = (int) Math.min(FENCE_INTERVAL, count - first);
+            read(block.clear().limit(entries * ENTRY_BYTES), first * ENTRY_BYTES);
+            bytesRead.add((long) entries * ENTRY_BYTES);
+
+            var low = 0;
+            var high = entries - 1;
+            while (low <= high) {
+                var middle = (low + high) >>> 1;
+                var middleKey = block.getLong(middle * ENTRY_BYTES);
+                if (middleKey < key) {
+                    low = middle + 1;
+                } else if (middleKey > key) {
+                    high = middle - 1;
+                } else {
+                    return middle * ENTRY_BYTES;
+                }
+            }
+            return -1;
+        }
+
+        void read(ByteBuffer buffer, long position) {
+            try {
+                while (buffer.hasRemaining()) {
+                    if (channel.read(buffer, position + buffer.position()) < 0) {
+                        throw new IOException("Unexpected end of run file " + path);
+                    }
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        void close() throws IOException {
+            channel.close();
+        }
+    }
+
+    /**
+     * Reads the entries of a run in order, a buffer at a time, for merging.
+     */
+    private static final class RunCursor {
+        private final Run run;
+        private final ByteBuffer buffer = ByteBuffer.allocateDirect(1 << 20);
+        private long position;
+
+        RunCursor(Run run) {
+            this.run = run;
+            buffer.limit(0);
+            fill();
+        }
+
+        boolean hasEntry() {
+            return buffer.hasRemaining();
+        }
+
+        long key() {
+            return buffer.getLong(buffer.position());
+        }
+
+        long value() {
+            return buffer.getLong(buffer.position() + 8);
+        }
+
+        void advance() {
+            buffer.position(buffer.position() + ENTRY_BYTES);
+            if (!buffer.hasRemaining()) {
+                fill();
+            }
+        }
+
+        private void fill() {
+            var remaining = run.count * ENTRY_BYTES - position;
+            buffer.clear().limit((int) Math.min(buffer.capacity(), remaining));
+            run.read(buffer, position);
+            position += buffer.limit();
+            buffer.flip();
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package nl.suriani.verifyj;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Objects;
+
+/**
+ * A frontier that keeps a bounded number of states on the heap and spills the others to segment files.
+ * The head of the queue and its tail are held in memory; when the tail is full it is written to a new segment file,
+ * and when the head is empty it is refilled from the oldest segment, so the files are only ever written and read sequentially.
+ *
+ * @param <M> the model type
+ */
+public final class SpillingFrontier<M> implements Frontier<M> {
+    private final Path directory;
+    private final StateCodec<M> codec;
+    private final int segmentStates;
+    private final ArrayDeque<M> head = new ArrayDeque<>();
+    private final ArrayDeque<M> tail = new ArrayDeque<>();
+    private final ArrayDeque<Path> segments = new ArrayDeque<>();
+    private long size;
+    private long diskEntries;
+    private long diskBytes;
+    private long bytesWritten;
+    private long bytesRead;
+
+    /**
+     * Constructs a SpillingFrontier writing its segments to the given directory.
+     *
+     * @param directory the directory of the segment files
+     * @param codec the codec used to write the states
+     * @param memoryStates the maximum number of states held in memory, at least 2
+     */
+    public SpillingFrontier(Path directory, StateCodec<M> codec, int memoryStates) {
+        if (memoryStates < 2) {
+            throw new IllegalArgumentException("memoryStates must be at least 2");
+        }
+        this.directory = Objects.requireNonNull(directory);
+        this.codec = Objects.requireNonNull(codec);
+        this.segmentStates = memoryStates / 2;
+    }
+
+    @Override
+    public void add(M state) {
+        size++;
+        if (segments.isEmpty() && tail.isEmpty() && head.size() < segmentStates) {
+            head.add(state);
+            return;
+        }
+        tail.add(state);
+        if (tail.size() >= segmentStates) {
+            writeSegment();
+        }
+    }
+
+    @Override
+    public M poll() {
+        if (head.isEmpty()) {
+            if (segments.isEmpty()) {
+                head.addAll(tail);
+                tail.clear();
+            } else {
+                readSegment();
+            }
+        }
+        var state = head.poll();
+        if (state != null) {
+            size--;
+        }
+        return state;
+    }
+
+    @Override
+    public long size() {
+        return size;
+    }
+
+    @Override
+    public StorageMetrics metrics() {
+        return new StorageMetrics(0, diskEntries, diskBytes, bytesWritten, bytesRead, segments.size(), 0);
+    }
+
+    /**
+     * Deletes the remaining segment files.
+     */
+    @Override
+    public void close() {
+        try {
+            for (var segment : segments) {
+                Files.deleteIfExists(segment);
+            }
+            segments.clear();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void writeSegment() {
+        try {
+            var segment = Files.createTempFile(directory, "frontier-", ".seg");
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(segment), 1 << 16))) {
+                out.writeInt(tail.size());
+                for (var state : tail) {
+                    codec.encode(state, out);
+                }
+                bytesWritten += out.size();
+                diskBytes += out.size();
+            }
+            diskEntries += tail.size();
+            tail.clear();
+            segments.add(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readSegment() {
+        var segment = segments.poll();
+        try {
+            var length = Files.size(segment);
+            try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(segment), 1 << 16))) {
+                var count = in.readInt();
+                for (var i = 0; i < count; i++) {
+                    head.add(codec.decode(in));
+                }
+                diskEntries -= count;
+            }
+            bytesRead += length;
+            diskBytes -= length;
+            Files.delete(segment);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
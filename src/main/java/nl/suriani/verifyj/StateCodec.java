@@ -0,0 +1,69 @@
+package nl.suriani.verifyj;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * Encodes model states to bytes and back, so that they can be written to disk.
+ * Decoding what was encoded must give a state equal to the original one.
+ *
+ * @param <M> the model type
+ */
+public interface StateCodec<M> {
+    /**
+     * Writes the given state.
+     *
+     * @param state the state to encode
+     * @param out the output to write to
+     * @throws IOException if writing fails
+     */
+    void encode(M state, DataOutput out) throws IOException;
+
+    /**
+     * Reads a state written by {@link #encode(Object, DataOutput)}.
+     *
+     * @param in the input to read from
+     * @return the decoded state
+     * @throws IOException if reading fails
+     */
+    M decode(DataInput in) throws IOException;
+
+    /**
+     * Returns a codec relying on Java serialization. It works for any serializable model, but is slow and verbose,
+     * so a dedicated codec is preferable for large state spaces.
+     *
+     * @return a codec based on Java serialization
+     * @param <M> the model type
+     */
+    static <M extends Serializable> StateCodec<M> ofSerializable() {
+        return new StateCodec<>() {
+            @Override
+            public void encode(M state, DataOutput out) throws IOException {
+                var bytes = new ByteArrayOutputStream();
+                try (var objects = new ObjectOutputStream(bytes)) {
+                    objects.writeObject(state);
+                }
+                out.writeInt(bytes.size());
+                out.write(bytes.toByteArray());
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public M decode(DataInput in) throws IOException {
+                var bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                try (var objects = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+                    return (M) objects.readObject();
+                } catch (ClassNotFoundException e) {
+                    throw new IOException(e);
+                }
+            }
+        };
+    }
+}
@@ -1,5 +1,7 @@
 package nl.suriani.verifyj;
 
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.HashSet;
 import java.util.function.Function;
 
@@ -27,11 +29,28 @@ public class StateSpaceDigraphGenerator<M> {
      * @return a PlantUML-formatted string representing the state space digraph
      */
     public String run(Report<M> report) {
-        var header = "@startuml\ndigraph StateSpace {\n";
-        var builder = new StringBuilder(header);
-        var transitions = new HashSet<FromTo<M>>();
+        var builder = new StringBuilder();
+        try {
+            write(report, builder);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Writes a PlantUML digraph representation of the state space from the given report to the given output.
+     *
+     * @param report the simulation report
+     * @param out the output receiving the PlantUML-formatted digraph
+     * @throws IOException if writing to the output fails
+     */
+    public void write(Report<M> report, Appendable out) throws IOException {
+        out.append("@startuml\ndigraph StateSpace {\n");
 
-        for (var outcome: report.outcomeSimulations()) {
+        var transitions = new HashSet<FromTo>();
+
+        for (var outcome : report.outcomeSimulations()) {
             for (var transition : outcome.transitions()) {
                 var from = describe.apply(transition.from());
                 var to = describe.apply(transition.to());
@@ -40,16 +59,14 @@ public class StateSpaceDigraphGenerator<M> {
                     continue; // Skip self-loops
                 }
 
-                if (transitions.add(new FromTo<>(from, to))) {
-                    builder.append("\t").append(from).append(" -> ").append(to).append("\n");
+                if (transitions.add(new FromTo(from, to))) {
+                    out.append("\t").append(from).append(" -> ").append(to).append("\n");
                 }
             }
         }
 
-        var footer = "}\n@enduml";
-        builder.append(footer);
-        return builder.toString();
+        out.append("}\n@enduml");
     }
 
-    private record FromTo<M>(String from, String to) { }
+    private record FromTo(String from, String to) { }
 }
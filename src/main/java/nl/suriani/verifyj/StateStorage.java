@@ -0,0 +1,97 @@
+package nl.suriani.verifyj;
+
+import java.nio.file.Path;
+
+/**
+ * Represents where an exploration keeps its visited states and its frontier.
+ * By default both live on the heap. With a spill directory, the visited fingerprints beyond the memory budget are spilled
+ * to sorted run files (see {@link SpillingFingerprintStore}), and with a codec, the frontier beyond its memory budget
+ * is spilled to segment files too (see {@link SpillingFrontier}), so that the size of the state space is bounded
+ * by the disk rather than by the heap.
+ *
+ * @param directory the directory the storage spills to, or null to keep everything on the heap
+ * @param memoryBudgetBytes the number of heap bytes the visited fingerprints may take before being spilled
+ * @param frontierMemoryStates the number of frontier states held on the heap before being spilled
+ * @param codec the codec writing frontier states to disk, or null to keep the frontier on the heap
+ * @param <M> the model type
+ */
+public record StateStorage<M>(Path directory, long memoryBudgetBytes, int frontierMemoryStates, StateCodec<M> codec) {
+    /**
+     * Constructs a StateStorage record with validation.
+     *
+     * @param directory the spill directory, or null
+     * @param memoryBudgetBytes the heap budget of the visited fingerprints
+     * @param frontierMemoryStates the heap budget of the frontier, in states
+     * @param codec the codec of the frontier states, or null
+     * @throws IllegalArgumentException if a budget is too small, or a codec is given without a directory
+     */
+    public StateStorage {
+        if (memoryBudgetBytes < SpillingFingerprintStore.BYTES_PER_MEMORY_ENTRY) {
+            throw new IllegalArgumentException("memoryBudgetBytes must be at least "
+                    + SpillingFingerprintStore.BYTES_PER_MEMORY_ENTRY);
+        }
+        if (frontierMemoryStates < 2) {
+            throw new IllegalArgumentException("frontierMemoryStates must be at least 2");
+        }
+        if (codec != null && directory == null) {
+            throw new IllegalArgumentException("a codec requires a directory to spill to");
+        }
+    }
+
+    /**
+     * Returns a storage keeping everything on the heap.
+     *
+     * @return an in-memory storage
+     * @param <M> the model type
+     */
+    public static <M> StateStorage<M> inMemory() {
+        return new StateStorage<>(null, Long.MAX_VALUE, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Returns a storage spilling the visited fingerprints to the given directory once they take more than the given
+     * number of heap bytes. The frontier stays on the heap until {@link #withFrontier(int, StateCodec)} is called.
+     *
+     * @param directory the directory to spill to
+     * @param memoryBudgetBytes the heap budget of the visited fingerprints
+     * @return a spilling storage
+     * @param <M> the model type
+     */
+    public static <M> StateStorage<M> spilling(Path directory, long memoryBudgetBytes) {
+        return new StateStorage<>(directory, memoryBudgetBytes, Integer.MAX_VALUE, null);
+    }
+
+    /**
+     * Returns a new StateStorage that also spills the frontier once it holds more than the given number of states.
+     *
+     * @param frontierMemoryStates the heap budget of the frontier, in states
+     * @param codec the codec writing frontier states to disk
+     * @return a new StateStorage with a spilling frontier
+     */
+    public StateStorage<M> withFrontier(int frontierMemoryStates, StateCodec<M> codec) {
+        return new StateStorage<>(directory, memoryBudgetBytes, frontierMemoryStates, codec);
+    }
+
+    /**
+     * Creates a new, empty store of visited fingerprints.
+     *
+     * @param stripes the number of stripes of the in-memory tables, for concurrent use
+     * @return a new fingerprint store
+     */
+    public FingerprintStore visited(int stripes) {
+        return directory == null
+                ? new FingerprintSet(stripes, true)
+                : new SpillingFingerprintStore(directory, memoryBudgetBytes, stripes);
+    }
+
+    /**
+     * Creates a new, empty frontier.
+     *
+     * @return a new frontier
+     */
+    public Frontier<M> frontier() {
+        return codec == null
+                ? new MemoryFrontier<>()
+                : new SpillingFrontier<>(directory, codec, frontierMemoryStates);
+    }
+}
@@ -0,0 +1,50 @@
+package nl.suriani.verifyj;
+
+/**
+ * Represents the footprint and the traffic of the storage of an exploration.
+ *
+ * @param memoryBytes the number of bytes taken on the heap by the in-memory tables
+ * @param diskEntries the number of entries stored on disk
+ * @param diskBytes the number of bytes currently stored on disk
+ * @param bytesWritten the number of bytes written to disk, including the ones rewritten by merges
+ * @param bytesRead the number of bytes read back from disk, by lookups and by merges
+ * @param runs the number of sorted runs currently on disk
+ * @param merges the number of times the runs were merged
+ */
+public record StorageMetrics(long memoryBytes,
+                             long diskEntries,
+                             long diskBytes,
+                             long bytesWritten,
+                             long bytesRead,
+                             int runs,
+                             int merges) {
+    /**
+     * The metrics of a storage that was not measured.
+     */
+    public static final StorageMetrics NONE = new StorageMetrics(0, 0, 0, 0, 0, 0, 0);
+
+    /**
+     * Returns the sum of these metrics and the given ones.
+     *
+     * @param other the other metrics
+     * @return the combined metrics
+     */
+    public StorageMetrics plus(StorageMetrics other) {
+        return new StorageMetrics(memoryBytes + other.memoryBytes,
+                diskEntries + other.diskEntries,
+                diskBytes + other.diskBytes,
+                bytesWritten + other.bytesWritten,
+                bytesRead + other.bytesRead,
+                runs + other.runs,
+                merges + other.merges);
+    }
+
+    /**
+     * Returns true if anything was written to disk.
+     *
+     * @return true if the storage spilled
+     */
+    public boolean spilled() {
+        return bytesWritten > 0;
+    }
+}
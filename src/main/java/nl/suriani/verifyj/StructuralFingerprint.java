@@ -0,0 +1,129 @@
+package nl.suriani.verifyj;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * A fingerprint following the structure that {@code equals} compares: records component by component, lists element
+ * by element, sets and maps regardless of their order, and strings, boxed primitives and enums by value. Any other
+ * object is fingerprinted by its {@link Object#hashCode()}, so that equal states always have the same fingerprint.
+ * See {@link Fingerprint#ofStructure()}.
+ *
+ * @param <M> the model type
+ */
+final class StructuralFingerprint<M> implements Fingerprint<M> {
+    private static final long NULL = 0x2545f4914f6cdd1dL;
+    private static final long LIST = 0x9e3779b97f4a7c15L;
+    private static final long SET = 0xbf58476d1ce4e5b9L;
+    private static final long MAP = 0x94d049bb133111ebL;
+    private static final long OPTIONAL = 0xd6e8feb86659fd93L;
+
+    private static final ClassValue<Shape> SHAPES = new ClassValue<>() {
+        @Override
+        protected Shape computeValue(Class<?> type) {
+            var components = type.getRecordComponents();
+            var accessors = new Method[components.length];
+            for (var i = 0; i < components.length; i++) {
+                accessors[i] = components[i].getAccessor();
+                accessors[i].setAccessible(true);
+            }
+            return new Shape(string(type.getName()), accessors);
+        }
+    };
+
+    @Override
+    public long of(M state) {
+        return fingerprint(state);
+    }
+
+    private static long fingerprint(Object value) {
+        if (value == null) {
+            return NULL;
+        }
+        if (value instanceof String string) {
+            return string(string);
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte) {
+            return Fingerprint.mix(((Number) value).longValue());
+        }
+        if (value instanceof Boolean bool) {
+            return Fingerprint.mix(bool ? 1L : 2L);
+        }
+        if (value instanceof Character character) {
+            return Fingerprint.mix(character);
+        }
+        if (value instanceof Double number) {
+            return Fingerprint.mix(Double.doubleToLongBits(number));
+        }
+        if (value instanceof Float number) {
+            return Fingerprint.mix(Float.floatToIntBits(number));
+        }
+        if (value instanceof Enum<?> constant) {
+            return Fingerprint.combine(string(constant.getDeclaringClass().getName()), constant.ordinal());
+        }
+        if (value instanceof Record) {
+            return record(value);
+        }
+        if (value instanceof List<?> list) {
+            var fingerprint = LIST;
+            for (var element : list) {
+                fingerprint = Fingerprint.combine(fingerprint, fingerprint(element));
+            }
+            return fingerprint;
+        }
+        if (value instanceof Set<?> set) {
+            var sum = 0L;
+            for (var element : set) {
+                sum += fingerprint(element);
+            }
+            return Fingerprint.combine(SET ^ set.size(), sum);
+        }
+        if (value instanceof Map<?, ?> map) {
+            var sum = 0L;
+            for (var entry : map.entrySet()) {
+                sum += Fingerprint.combine(fingerprint(entry.getKey()), fingerprint(entry.getValue()));
+            }
+            return Fingerprint.combine(MAP ^ map.size(), sum);
+        }
+        if (value instanceof Optional<?> optional) {
+            return Fingerprint.combine(OPTIONAL, fingerprint(optional.orElse(null)));
+        }
+        return Fingerprint.mix(0x9e3779b97f4a7c15L ^ value.hashCode());
+    }
+
+    private static long record(Object value) {
+        var shape = SHAPES.get(value.getClass());
+        var fingerprint = shape.seed();
+        try {
+            for (var accessor : shape.accessors()) {
+                fingerprint = Fingerprint.combine(fingerprint, fingerprint(accessor.invoke(value)));
+            }
+        } catch (IllegalAccessException e) {
+            throw new IllegalStateException("Cannot read the components of " + value.getClass().getName(), e);
+        } catch (InvocationTargetException e) {
+            throw new IllegalStateException("A component accessor of " + value.getClass().getName() + " failed",
+                    e.getCause());
+        }
+        return fingerprint;
+    }
+
+    private static long string(String string) {
+        var hash = 0xcbf29ce484222325L;
+        for (var i = 0; i < string.length(); i++) {
+            hash = (hash ^ string.charAt(i)) * 0x100000001b3L;
+        }
+        return Fingerprint.mix(hash);
+    }
+
+    /**
+     * The seed and the component accessors of a record class.
+     *
+     * @param seed the fingerprint of the name of the class
+     * @param accessors the accessors of the components, in declaration order
+     */
+    private record Shape(long seed, Method[] accessors) { }
+}
@@ -0,0 +1,113 @@
+package nl.suriani.verifyj;
+
+import java.util.List;
+
+/**
+ * Lazily enumerates the successors of a state, through every action of a step and every combination of their choices.
+ * Actions whose guards do not pass are skipped without being enumerated.
+ *
+ * @param <M> the model type
+ */
+final class Successors<M> {
+    private final List<NamedAction<M>> actions;
+    private final ChoiceEnumerator<M> enumerator = new ChoiceEnumerator<>();
+    private M state;
+    private long skipped;
+    private int actionIndex;
+
+    Successors(Step<M> step) {
+        this.actions = step.actions();
+    }
+
+    /**
+     * Restarts the enumeration from the given state.
+     *
+     * @param state the state whose successors to enumerate
+     */
+    void reset(M state) {
+        reset(state, 0L);
+    }
+
+    /**
+     * Restarts the enumeration from the given state, skipping some of the first 64 actions.
+     *
+     * @param state the state whose successors to enumerate
+     * @param skipped the actions to skip, as a mask of action indexes
+     */
+    void reset(M state, long skipped) {
+        this.state = state;
+        this.skipped = skipped;
+        this.actionIndex = -1;
+        nextAction();
+    }
+
+    /**
+     * Moves to the next successor.
+     *
+     * @return true if there is another successor, false otherwise
+     */
+    boolean advance() {
+        while (actionIndex < actions.size()) {
+            if (enumerator.advance()) {
+                return true;
+            }
+            nextAction();
+        }
+        return false;
+    }
+
+    /**
+     * Returns the current successor.
+     *
+     * @return the successor state
+     */
+    M successor() {
+        return enumerator.current();
+    }
+
+    /**
+     * Returns the action that produced the current successor.
+     *
+     * @return the action
+     */
+    NamedAction<M> action() {
+        return actions.get(actionIndex);
+    }
+
+    /**
+     * Returns the index in the step of the action that produced the current successor.
+     *
+     * @return the action index
+     */
+    int actionIndex() {
+        return actionIndex;
+    }
+
+    private void nextAction() {
+        actionIndex++;
+        while (actionIndex < actions.size() && (isSkipped(actionIndex) || !isEnabled(actions.get(actionIndex), state))) {
+            actionIndex++;
+        }
+        if (actionIndex < actions.size()) {
+            var expression = actions.get(actionIndex).expression();
+            var from = state;
+            if (expression instanceof ActionExpression<M> actionExpression) {
+                enumerator.reset(() -> actionExpression.attempt(from).orElseNull());
+            } else {
+                enumerator.reset(() -> expression.apply(from));
+            }
+        }
+    }
+
+    private boolean isSkipped(int actionIndex) {
+        return actionIndex < Long.SIZE && (skipped & 1L << actionIndex) != 0;
+    }
+
+    private static <M> boolean isEnabled(NamedAction<M> action, M state) {
+        try {
+            return action.isEnabled(state);
+        } catch (RuntimeException e) {
+            return false;
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package nl.suriani.verifyj;
+
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
+
+/**
+ * Represents the symmetries of a model: states that only differ by interchangeable elements, such as replicated
+ * processes or the order of an unordered collection, behave the same way, and only one of them needs exploring.
+ * A symmetry maps every state to a canonical state, the same for all the states symmetric to each other, and
+ * explorations and coverage deduplicate states on the fingerprint of their canonical state
+ * (see {@link Specification#canonicalFingerprint()}).
+ * <p>
+ * The reduction is sound only if the symmetry is one of the specification: the states symmetric to a state reach
+ * the states symmetric to its successors, and every state property holds in all of them or in none.
+ *
+ * @param <M> the model type
+ */
+@FunctionalInterface
+public interface Symmetry<M> {
+    /**
+     * The absence of symmetry, where every state is its own canonical state.
+     */
+    Symmetry<Object> NONE = state -> state;
+
+    /**
+     * Returns the canonical state of the given state.
+     *
+     * @param state the state
+     * @return the canonical state, equal for all the states symmetric to the given one
+     */
+    M canonical(M state);
+
+    /**
+     * Returns the absence of symmetry, where every state is its own canonical state.
+     *
+     * @return the identity symmetry
+     * @param <M> the model type
+     */
+    @SuppressWarnings("unchecked")
+    static <M> Symmetry<M> none() {
+        return (Symmetry<M>) NONE;
+    }
+
+    /**
+     * Returns the symmetry of a group of permutations of the interchangeable elements of the model: the canonical
+     * state of a state is the smallest, in the given order, of its images through every permutation of the group.
+     * The group must contain all its permutations, not only generators of it, and is applied in full to every state,
+     * so it suits small groups, up to a few hundred permutations; a dedicated canonicalisation, such as sorting
+     * the interchangeable elements, scales better.
+     *
+     * @param group the permutations of the group, including the identity or not
+     * @param order the total order picking the canonical state among the images
+     * @return the symmetry of the group
+     * @param <M> the model type
+     * @throws IllegalArgumentException if the group is empty
+     */
+    static <M> Symmetry<M> permutations(Collection<? extends UnaryOperator<M>> group, Comparator<? super M> order) {
+        Objects.requireNonNull(order);
+        var permutations = List.<UnaryOperator<M>>copyOf(group);
+        if (permutations.isEmpty()) {
+            throw new IllegalArgumentException("The group must contain at least one permutation");
+        }
+        return state -> {
+            var canonical = state;
+            for (var permutation : permutations) {
+                var image = permutation.apply(state);
+                if (order.compare(image, canonical) < 0) {
+                    canonical = image;
+                }
+            }
+            return canonical;
+        };
+    }
+}
@@ -0,0 +1,65 @@
+package nl.suriani.verifyj;
+
+import java.util.List;
+
+/**
+ * Represents the incremental evaluation of a temporal property over a sequence of transitions.
+ * A monitor is fed one transition at a time and keeps only the state it needs, so a property can be
+ * checked while a simulation runs, without retaining the trace.
+ * Once {@link #next(Transition)} returns a final verdict, the monitor does not need to be fed anymore.
+ *
+ * @param <M> the model type
+ */
+public interface TemporalMonitor<M> {
+    /**
+     * Observes the next transition of the sequence.
+     *
+     * @param transition the next transition
+     * @return the verdict after observing the transition
+     */
+    Verdict next(Transition<M> transition);
+
+    /**
+     * Observes the transition at the given index of a trace, the transitions before it having been observed already.
+     * Monitors that only look at states override it to read them from the trace, without creating the transition.
+     *
+     * @param trace the trace being observed
+     * @param index the index of the next transition in the trace
+     * @return the verdict after observing the transition
+     */
+    default Verdict next(Trace<M> trace, int index) {
+        return next(trace.get(index));
+    }
+
+    /**
+     * Returns whether the property holds for the transitions observed so far, if the sequence ended here.
+     *
+     * @return true if the property holds, false otherwise
+     */
+    boolean holds();
+
+    /**
+     * Feeds the given transitions to the monitor, stopping at the first final verdict, and returns whether the property holds.
+     *
+     * @param monitor the monitor to feed
+     * @param transitions the transitions to observe
+     * @return true if the property holds, false otherwise
+     * @param <M> the model type
+     */
+    static <M> boolean evaluate(TemporalMonitor<M> monitor, List<Transition<M>> transitions) {
+        if (transitions instanceof Trace<M> trace) {
+            for (var i = 0; i < trace.size(); i++) {
+                if (monitor.next(trace, i).isFinal()) {
+                    break;
+                }
+            }
+            return monitor.holds();
+        }
+        for (var transition : transitions) {
+            if (monitor.next(transition).isFinal()) {
+                break;
+            }
+        }
+        return monitor.holds();
+    }
+}
@@ -0,0 +1,350 @@
+package nl.suriani.verifyj;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Constant-memory monitors backing the temporal properties created by {@link TemporalProperties},
+ * together with the combinators used by {@link TemporalProperty#and}, {@link TemporalProperty#or} and {@link TemporalProperty#not}.
+ */
+final class TemporalMonitors {
+    private TemporalMonitors() {
+    }
+
+    /**
+     * A monitor that only looks at the state reached by every transition.
+     */
+    abstract static class StateMonitor<M> implements TemporalMonitor<M> {
+        /**
+         * Observes the state reached by the next transition.
+         *
+         * @param state the state reached
+         * @return the verdict after observing the state
+         */
+        abstract Verdict nextState(M state);
+
+        @Override
+        public Verdict next(Transition<M> transition) {
+            return nextState(transition.to());
+        }
+
+        @Override
+        public Verdict next(Trace<M> trace, int index) {
+            return nextState(trace.state(index + 1));
+        }
+    }
+
+    /**
+     * Requires the predicate to hold on every state reached.
+     */
+    static final class Always<M> extends StateMonitor<M> {
+        private final Predicate<M> predicate;
+        private boolean violated;
+
+        Always(Predicate<M> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        Verdict nextState(M state) {
+            violated = violated || !predicate.test(state);
+            return violated ? Verdict.VIOLATED : Verdict.PENDING;
+        }
+
+        @Override
+        public boolean holds() {
+            return !violated;
+        }
+    }
+
+    /**
+     * Requires the predicate to hold on at least one state reached.
+     */
+    static final class Eventually<M> extends StateMonitor<M> {
+        private final Predicate<M> predicate;
+        private boolean found;
+
+        Eventually(Predicate<M> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        Verdict nextState(M state) {
+            found = found || predicate.test(state);
+            return found ? Verdict.SATISFIED : Verdict.PENDING;
+        }
+
+        @Override
+        public boolean holds() {
+            return found;
+        }
+    }
+
+    /**
+     * Requires the predicate to hold on the first state reached.
+     */
+    static final class Initially<M> extends StateMonitor<M> {
+        private final Predicate<M> predicate;
+        private Verdict verdict = Verdict.PENDING;
+
+        Initially(Predicate<M> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        Verdict nextState(M state) {
+            if (verdict == Verdict.PENDING) {
+                verdict = predicate.test(state) ? Verdict.SATISFIED : Verdict.VIOLATED;
+            }
+            return verdict;
+        }
+
+        @Override
+        public boolean holds() {
+            return verdict == Verdict.SATISFIED;
+        }
+    }
+
+    /**
+     * Requires the predicate to hold on the last state reached.
+     */
+    static final class AtLast<M> extends StateMonitor<M> {
+        private final Predicate<M> predicate;
+        private boolean lastHolds;
+
+        AtLast(Predicate<M> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        Verdict nextState(M state) {
+            lastHolds = predicate.test(state);
+            return Verdict.PENDING;
+        }
+
+        @Override
+        public boolean holds() {
+            return lastHolds;
+        }
+    }
+
+    /**
+     * Requires the predicate to hold on exactly one state reached.
+     */
+    static final class ExactlyOnce<M> extends StateMonitor<M> {
+        private final Predicate<M> predicate;
+        private int count;
+
+        ExactlyOnce(Predicate<M> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        Verdict nextState(M state) {
+            if (predicate.test(state)) {
+                count++;
+            }
+            return count > 1 ? Verdict.VIOLATED : Verdict.PENDING;
+        }
+
+        @Override
+        public boolean holds() {
+            return count == 1;
+        }
+    }
+
+    /**
+     * Requires a state satisfying y to be reached, at or after a state satisfying x.
+     */
+    static final class XThenEventuallyY<M> extends StateMonitor<M> {
+        private final Predicate<M> xPredicate;
+        private final Predicate<M> yPredicate;
+        private boolean foundX;
+        private boolean foundY;
+
+        XThenEventuallyY(Predicate<M> xPredicate, Predicate<M> yPredicate) {
+            this.xPredicate = xPredicate;
+            this.yPredicate = yPredicate;
+        }
+
+        @Override
+        Verdict nextState(M state) {
+            foundX = foundX || xPredicate.test(state);
+            foundY = foundY || (foundX && yPredicate.test(state));
+            return foundY ? Verdict.SATISFIED : Verdict.PENDING;
+        }
+
+        @Override
+        public boolean holds() {
+            return foundY;
+        }
+    }
+
+    /**
+     * Requires every transition satisfying x, except the last one, to be immediately followed by a transition satisfying y.
+     * When {@code requireX} is set, at least one such transition satisfying x must exist.
+     */
+    static final class XThenImmediatelyY<M> implements TemporalMonitor<M> {
+        private final Predicate<Transition<M>> xPredicate;
+        private final Predicate<Transition<M>> yPredicate;
+        private final boolean requireX;
+        private boolean previousIsX;
+        private boolean foundX;
+        private boolean violated;
+
+        XThenImmediatelyY(Predicate<Transition<M>> xPredicate, Predicate<Transition<M>> yPredicate, boolean requireX) {
+            this.xPredicate = xPredicate;
+            this.yPredicate = yPredicate;
+            this.requireX = requireX;
+        }
+
+        @Override
+        public Verdict next(Transition<M> transition) {
+            if (violated) {
+                return Verdict.VIOLATED;
+            }
+            if (previousIsX) {
+                foundX = true;
+                violated = !yPredicate.test(transition);
+            }
+            if (violated) {
+                return Verdict.VIOLATED;
+            }
+            previousIsX = xPredicate.test(transition);
+            return Verdict.PENDING;
+        }
+
+        @Override
+        public boolean holds() {
+            return !violated && (foundX || !requireX);
+        }
+    }
+
+    /**
+     * Adapts a predicate over the whole list of transitions, buffering the transitions until the verdict is asked.
+     * When fed from a {@link Trace}, the trace itself is the buffer.
+     */
+    static final class Buffering<M> implements TemporalMonitor<M> {
+        private final Predicate<List<Transition<M>>> predicate;
+        private final List<Transition<M>> transitions = new ArrayList<>();
+        private Trace<M> trace;
+        private int observed;
+
+        Buffering(Predicate<List<Transition<M>>> predicate) {
+            this.predicate = predicate;
+        }
+
+        @Override
+        public Verdict next(Transition<M> transition) {
+            transitions.add(transition);
+            return Verdict.PENDING;
+        }
+
+        @Override
+        public Verdict next(Trace<M> trace, int index) {
+            if (!transitions.isEmpty() || (this.trace != null && this.trace != trace)) {
+                return next(trace.get(index));
+            }
+            this.trace = trace;
+            this.observed = index + 1;
+            return Verdict.PENDING;
+        }
+
+        @Override
+        public boolean holds() {
+            return predicate.test(trace == null ? transitions : trace.subList(0, observed));
+        }
+    }
+
+    /**
+     * Negates the verdicts of another monitor.
+     */
+    static final class Not<M> implements TemporalMonitor<M> {
+        private final TemporalMonitor<M> monitor;
+
+        Not(TemporalMonitor<M> monitor) {
+            this.monitor = monitor;
+        }
+
+        @Override
+        public Verdict next(Transition<M> transition) {
+            return negate(monitor.next(transition));
+        }
+
+        @Override
+        public Verdict next(Trace<M> trace, int index) {
+            return negate(monitor.next(trace, index));
+        }
+
+        private static Verdict negate(Verdict verdict) {
+            return switch (verdict) {
+                case SATISFIED -> Verdict.VIOLATED;
+                case VIOLATED -> Verdict.SATISFIED;
+                case PENDING -> Verdict.PENDING;
+            };
+        }
+
+        @Override
+        public boolean holds() {
+            return !monitor.holds();
+        }
+    }
+
+    /**
+     * Combines two monitors by conjunction or disjunction, no longer feeding a monitor once its verdict is final.
+     */
+    static final class Binary<M> implements TemporalMonitor<M> {
+        private final TemporalMonitor<M> left;
+        private final TemporalMonitor<M> right;
+        private final boolean conjunction;
+        private Verdict leftVerdict = Verdict.PENDING;
+        private Verdict rightVerdict = Verdict.PENDING;
+
+        Binary(TemporalMonitor<M> left, TemporalMonitor<M> right, boolean conjunction) {
+            this.left = left;
+            this.right = right;
+            this.conjunction = conjunction;
+        }
+
+        @Override
+        public Verdict next(Transition<M> transition) {
+            if (!leftVerdict.isFinal()) {
+                leftVerdict = left.next(transition);
+            }
+            if (!rightVerdict.isFinal()) {
+                rightVerdict = right.next(transition);
+            }
+            return combine();
+        }
+
+        @Override
+        public Verdict next(Trace<M> trace, int index) {
+            if (!leftVerdict.isFinal()) {
+                leftVerdict = left.next(trace, index);
+            }
+            if (!rightVerdict.isFinal()) {
+                rightVerdict = right.next(trace, index);
+            }
+            return combine();
+        }
+
+        private Verdict combine() {
+            var dominant = conjunction ? Verdict.VIOLATED : Verdict.SATISFIED;
+            if (leftVerdict == dominant || rightVerdict == dominant) {
+                return dominant;
+            }
+            if (leftVerdict.isFinal() && rightVerdict.isFinal()) {
+                return leftVerdict;
+            }
+            return Verdict.PENDING;
+        }
+
+        @Override
+        public boolean holds() {
+            return conjunction
+                    ? left.holds() && right.holds()
+                    : left.holds() || right.holds();
+        }
+    }
+}
@@ -1,14 +1,11 @@
 package nl.suriani.verifyj;
 
-import java.util.Arrays;
-import java.util.List;
 import java.util.function.Predicate;
-import java.util.stream.IntStream;
 
 /**
  * Utility interface providing static factory methods for creating various temporal properties
  * over sequences of transitions. These properties can be used to specify and check temporal
- * constraints on models.
+ * constraints on models. They are backed by constant-memory monitors, so they can be evaluated while a simulation runs.
  */
 public interface TemporalProperties {
     /**
@@ -19,10 +16,7 @@ public interface TemporalProperties {
      * @return a temporal property enforcing the predicate always holds
      */
     static <M> TemporalProperty<M> always(String name, Predicate<M> predicate) {
-        Predicate<List<Transition<M>>> predicateOnList = list -> list.stream()
-                .map(Transition::to)
-                .allMatch(predicate);
-        return new TemporalProperty<>(name, predicateOnList);
+        return TemporalProperty.monitored(name, () -> new TemporalMonitors.Always<>(predicate));
     }
 
     /**
@@ -33,10 +27,7 @@ public interface TemporalProperties {
      * @return a temporal property enforcing the predicate never holds
      */
     static <M> TemporalProperty<M> never(String name, Predicate<M> predicate) {
-        Predicate<List<Transition<M>>> predicateOnList = list -> list.stream()
-                .map(Transition::to)
-                .noneMatch(predicate);
-        return new TemporalProperty<>(name, predicateOnList);
+        return TemporalProperty.monitored(name, () -> new TemporalMonitors.Always<>(predicate.negate()));
     }
 
     /**
@@ -47,10 +38,7 @@ public interface TemporalProperties {
      * @return a temporal property enforcing the predicate eventually holds
      */
     static <M> TemporalProperty<M> eventually(String name, Predicate<M> predicate) {
-        Predicate<List<Transition<M>>> predicateOnList = list -> list.stream()
-                .map(Transition::to)
-                .anyMatch(predicate);
-        return new TemporalProperty<>(name, predicateOnList);
+        return TemporalProperty.monitored(name, () -> new TemporalMonitors.Eventually<>(predicate));
     }
 
     /**
@@ -61,10 +49,7 @@ public interface TemporalProperties {
      * @return a temporal property enforcing the predicate holds initially
      */
     static <M> TemporalProperty<M> initially(String name, Predicate<M> predicate) {
-        Predicate<List<Transition<M>>> predicateOnList =
-                list -> !list.isEmpty() && predicate.test(list.getFirst().to());
-
-        return new TemporalProperty<>(name, predicateOnList);
+        return TemporalProperty.monitored(name, () -> new TemporalMonitors.Initially<>(predicate));
     }
 
     /**
@@ -75,10 +60,7 @@ public interface TemporalProperties {
      * @return a temporal property enforcing the predicate holds at last
      */
     static <M> TemporalProperty<M> atLast(String name, Predicate<M> predicate) {
-        Predicate<List<Transition<M>>> predicateOnList =
-                list -> !list.isEmpty() && predicate.test(list.getLast().to());
-
-        return new TemporalProperty<>(name, predicateOnList);
+        return TemporalProperty.monitored(name, () -> new TemporalMonitors.AtLast<>(predicate));
     }
 
     /**
@@ -89,9 +71,7 @@ public interface TemporalProperties {
      * @return a temporal property enforcing the predicate holds exactly once
      */
     static <M> TemporalProperty<M> exactlyOnce(String name, Predicate<M> predicate) {
-        return new TemporalProperty<>(name, list -> list.stream()
-                .map(Transition::to)
-                .filter(predicate).count() == 1);
+        return TemporalProperty.monitored(name, () -> new TemporalMonitors.ExactlyOnce<>(predicate));
     }
 
     /**
@@ -105,16 +85,7 @@ public interface TemporalProperties {
     static <M> TemporalProperty<M> xAndThenThenEventuallyY(String name, Predicate<M> xPredicate,
                                                Predicate<M> yPredicate) {
 
-        return new TemporalProperty<>(name, list -> {
-            boolean foundX = false;
-            for (Transition<M> transition : list) {
-                foundX = foundX || xPredicate.test(transition.to());
-                if (foundX && yPredicate.test(transition.to())) {
-                    return true;
-                }
-            }
-            return false;
-        });
+        return TemporalProperty.monitored(name, () -> new TemporalMonitors.XThenEventuallyY<>(xPredicate, yPredicate));
     }
 
     /**
@@ -128,11 +99,8 @@ public interface TemporalProperties {
     static <M> TemporalProperty<M> whenXThenAlwaysImmediatelyY(String name, Predicate<Transition<M>> xPredicate,
                                                                Predicate<Transition<M>> yPredicate) {
 
-        return new TemporalProperty<>(name, list ->
-                IntStream.range(0, list.size() - 1)
-                        .filter(i -> xPredicate.test(list.get(i)))
-                        .allMatch(i -> yPredicate.test(list.get(i + 1)))
-        );
+        return TemporalProperty.monitored(name,
+                () -> new TemporalMonitors.XThenImmediatelyY<>(xPredicate, yPredicate, false));
     }
 
     /**
@@ -146,18 +114,7 @@ public interface TemporalProperties {
     static <M> TemporalProperty<M> xAndThenAlwaysImmediatelyY(String name, Predicate<Transition<M>> xPredicate,
                                                                Predicate<Transition<M>> yPredicate) {
 
-        return new TemporalProperty<>(name, list -> {
-                var transitionWhereXIsTrue = IntStream.range(0, list.size() - 1)
-                        .filter(i -> xPredicate.test(list.get(i)))
-                        .toArray();
-
-                if (transitionWhereXIsTrue.length == 0) {
-                    return false;
-                }
-
-                return Arrays.stream(transitionWhereXIsTrue)
-                        .mapToObj(i -> list.get(i + 1))
-                        .allMatch(yPredicate);
-            });
+        return TemporalProperty.monitored(name,
+                () -> new TemporalMonitors.XThenImmediatelyY<>(xPredicate, yPredicate, true));
     }
 }
@@ -2,15 +2,44 @@ package nl.suriani.verifyj;
 
 import java.util.List;
 import java.util.function.Predicate;
+import java.util.function.Supplier;
 
 /**
  * Represents a temporal property over a list of transitions, with a name and a predicate.
+ * Every property can also be evaluated incrementally through a fresh {@link TemporalMonitor} per sequence of transitions.
  *
  * @param name the name of the property
  * @param predicate the predicate to evaluate over a list of transitions
+ * @param monitor the factory of the monitors evaluating the property incrementally
  * @param <M> the model type
  */
-public record TemporalProperty<M>(String name, Predicate<List<Transition<M>>> predicate) implements Predicate<List<Transition<M>>>, Property {
+public record TemporalProperty<M>(String name,
+                                  Predicate<List<Transition<M>>> predicate,
+                                  Supplier<TemporalMonitor<M>> monitor) implements Predicate<List<Transition<M>>>, Property {
+
+    /**
+     * Constructs a TemporalProperty from a predicate over the whole list of transitions.
+     * Its monitor buffers the transitions and evaluates the predicate at the end.
+     *
+     * @param name the name of the property
+     * @param predicate the predicate to evaluate over a list of transitions
+     */
+    public TemporalProperty(String name, Predicate<List<Transition<M>>> predicate) {
+        this(name, predicate, () -> new TemporalMonitors.Buffering<>(predicate));
+    }
+
+    /**
+     * Creates a TemporalProperty from a monitor factory. The predicate over a list of transitions feeds a fresh monitor.
+     *
+     * @param name the name of the property
+     * @param monitor the factory of the monitors evaluating the property
+     * @return a new TemporalProperty
+     * @param <M> the model type
+     */
+    public static <M> TemporalProperty<M> monitored(String name, Supplier<TemporalMonitor<M>> monitor) {
+        return new TemporalProperty<>(name, transitions -> TemporalMonitor.evaluate(monitor.get(), transitions), monitor);
+    }
+
     /**
      * Tests the predicate on the given list of transitions.
      *
@@ -29,7 +58,8 @@ public record TemporalProperty<M>(String name, Predicate<List<Transition<M>>> pr
      * @return a new TemporalProperty representing the conjunction
      */
     public TemporalProperty<M> and(TemporalProperty <M> other) {
-        return new TemporalProperty<>("(" + name + " AND " + other.name + ")", predicate.and(other.predicate));
+        return new TemporalProperty<>("(" + name + " AND " + other.name + ")", predicate.and(other.predicate),
+                () -> new TemporalMonitors.Binary<>(monitor.get(), other.monitor.get(), true));
     }
 
     /**
@@ -39,7 +69,8 @@ public record TemporalProperty<M>(String name, Predicate<List<Transition<M>>> pr
      * @return a new TemporalProperty representing the disjunction
      */
     public TemporalProperty<M> or(TemporalProperty <M> other) {
-        return new TemporalProperty<>("(" + name + " OR " + other.name + ")", predicate.or(other.predicate));
+        return new TemporalProperty<>("(" + name + " OR " + other.name + ")", predicate.or(other.predicate),
+                () -> new TemporalMonitors.Binary<>(monitor.get(), other.monitor.get(), false));
     }
 
     /**
@@ -48,6 +79,7 @@ public record TemporalProperty<M>(String name, Predicate<List<Transition<M>>> pr
      * @return a new TemporalProperty representing the negation
      */
     public TemporalProperty<M> not() {
-        return new TemporalProperty<>("(NOT " + name + ")", predicate.negate());
+        return new TemporalProperty<>("(NOT " + name + ")", predicate.negate(),
+                () -> new TemporalMonitors.Not<>(monitor.get()));
     }
 }
@@ -0,0 +1,85 @@
+package nl.suriani.verifyj;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.random.RandomGenerator;
+
+/**
+ * A choice source enforcing the wall-clock budget of a simulation, and the cancellation of its run:
+ * every {@link NonDet} draw past the deadline, or once the run is stopped, throws {@link Exceeded},
+ * which unwinds the action being applied, so that even an action that does not return quickly
+ * is stopped as soon as it draws from {@link NonDet}.
+ */
+final class TimeBudget implements ChoiceSource {
+    private final ChoiceSource delegate;
+    private final long deadline;
+    private final boolean timed;
+    private final AtomicBoolean stopped;
+
+    /**
+     * Constructs a TimeBudget drawing choices from the given source until the given deadline.
+     *
+     * @param delegate the source the choices are drawn from
+     * @param deadline the deadline, as a {@link System#nanoTime()} value
+     */
+    TimeBudget(ChoiceSource delegate, long deadline) {
+        this(delegate, deadline, true, new AtomicBoolean());
+    }
+
+    /**
+     * Constructs a TimeBudget drawing choices from the given source until the given deadline, if any,
+     * or until the given flag is set.
+     *
+     * @param delegate the source the choices are drawn from
+     * @param deadline the deadline, as a {@link System#nanoTime()} value
+     * @param timed whether the deadline applies
+     * @param stopped the flag set when the run is stopped
+     */
+    TimeBudget(ChoiceSource delegate, long deadline, boolean timed, AtomicBoolean stopped) {
+        this.delegate = delegate;
+        this.deadline = deadline;
+        this.timed = timed;
+        this.stopped = stopped;
+    }
+
+    /**
+     * Returns true if the deadline has passed or the run is stopped.
+     *
+     * @return true if the budget is used up
+     */
+    boolean isExceeded() {
+        return stopped.get() || (timed && System.nanoTime() - deadline >= 0);
+    }
+
+    /**
+     * Throws {@link Exceeded} if the deadline has passed or the run is stopped.
+     */
+    void check() {
+        if (isExceeded()) {
+            throw new Exceeded();
+        }
+    }
+
+    @Override
+    public int choose(int bound) {
+        check();
+        return delegate.choose(bound);
+    }
+
+    @Override
+    public RandomGenerator random() {
+        check();
+        return delegate.random();
+    }
+
+    /**
+     * Thrown when the budget is used up. It carries no stack trace, and the simulator rethrows it
+     * wherever the exceptions of the model are caught.
+     */
+    static final class Exceeded extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        Exceeded() {
+            super("The time budget is used up", null, false, false);
+        }
+    }
+}
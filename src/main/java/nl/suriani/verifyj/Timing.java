@@ -0,0 +1,98 @@
+package nl.suriani.verifyj;
+
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * The evaluations of a single part of a specification across a run: how many there were, how they ended,
+ * and how long the timed ones took, as a histogram of base-2 logarithmic buckets of nanoseconds.
+ * Every evaluation is counted, but only a random sample of them is timed.
+ * Bucket {@code i} counts the timed evaluations that took from {@code 2^i} to {@code 2^(i+1) - 1} nanoseconds,
+ * bucket 0 also counting the ones measured as taking no time.
+ *
+ * @param part the kind of part evaluated
+ * @param name the name of the action or property
+ * @param invocations the number of evaluations
+ * @param rejections the number of evaluations that rejected the state, see {@link ProfiledPart}
+ * @param errors the number of evaluations that threw an exception
+ * @param timedInvocations the number of evaluations that were timed
+ * @param timedNanos the time taken by the timed evaluations, in nanoseconds
+ * @param histogram the number of timed evaluations per bucket, 64 buckets
+ */
+public record Timing(ProfiledPart part,
+                     String name,
+                     long invocations,
+                     long rejections,
+                     long errors,
+                     long timedInvocations,
+                     long timedNanos,
+                     List<Long> histogram) {
+    /**
+     * The number of buckets of the histogram.
+     */
+    public static final int BUCKETS = 64;
+
+    /**
+     * Constructs a Timing record with validation.
+     *
+     * @param part the kind of part evaluated
+     * @param name the name of the action or property
+     * @param invocations the number of evaluations
+     * @param rejections the number of evaluations that rejected the state
+     * @param errors the number of evaluations that threw an exception
+     * @param timedInvocations the number of evaluations that were timed
+     * @param timedNanos the time taken by the timed evaluations
+     * @param histogram the number of timed evaluations per bucket
+     */
+    public Timing {
+        Objects.requireNonNull(part, "part is null");
+        Objects.requireNonNull(name, "name is null");
+        if (timedInvocations > invocations) {
+            throw new IllegalArgumentException("timedInvocations must not exceed invocations");
+        }
+        if (histogram.size() != BUCKETS) {
+            throw new IllegalArgumentException("histogram must have " + BUCKETS + " buckets");
+        }
+        histogram = List.copyOf(histogram);
+    }
+
+    /**
+     * Returns the mean time of an evaluation, measured on the timed ones.
+     *
+     * @return the mean time in nanoseconds, or 0 if no evaluation was timed
+     */
+    public double meanNanos() {
+        return timedInvocations == 0 ? 0.0 : (double) timedNanos / timedInvocations;
+    }
+
+    /**
+     * Returns an estimate of the time taken by all evaluations, extrapolated from the timed ones.
+     *
+     * @return the estimated total time in nanoseconds
+     */
+    public long totalNanos() {
+        return Math.round(meanNanos() * invocations);
+    }
+
+    /**
+     * Returns an upper bound of the given percentile of the evaluation times, the upper end of the bucket it falls in.
+     *
+     * @param percentile the percentile, between 0 and 100
+     * @return the upper bound in nanoseconds, or 0 if no evaluation was timed
+     */
+    public long percentileNanos(double percentile) {
+        if (percentile < 0 || percentile > 100) {
+            throw new IllegalArgumentException("percentile must be between 0 and 100");
+        }
+        var total = histogram.stream().mapToLong(Long::longValue).sum();
+        var target = Math.ceil(total * percentile / 100);
+        var count = 0L;
+        for (var i = 0; i < BUCKETS; i++) {
+            count += histogram.get(i);
+            if (count > 0 && count >= target) {
+                return i == BUCKETS - 1 ? Long.MAX_VALUE : (1L << (i + 1)) - 1;
+            }
+        }
+        return 0L;
+    }
+}
@@ -0,0 +1,255 @@
+package nl.suriani.verifyj;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.RandomAccess;
+
+/**
+ * A compact sequence of transitions, stored column by column: every state once, and the index of the action and
+ * the attempt number of every transition as {@code int}s. A transition takes about 12 bytes instead of a
+ * {@link Transition} record and a list slot, which also references both of its states.
+ * <p>
+ * The trace is exposed as a read-only {@code List<Transition<M>>}, whose elements are created on access.
+ * Transitions are numbered from 1 in the order they were appended.
+ * <p>
+ * When the simulation records its {@link NonDet} choices, the trace also keeps where the choices of every transition
+ * end in the {@link ChoiceLog}, and the transition that violated a state property, which is not part of the list,
+ * so that it can be saved as a {@link RecordedTrace}.
+ *
+ * @param <M> the model type
+ */
+public final class Trace<M> extends AbstractList<Transition<M>> implements RandomAccess {
+    private final String[] actionNames;
+    private Object[] states;
+    private int[] actions;
+    private int[] attempts;
+    private int size;
+    private final ChoiceLog choices;
+    private int[] choiceEnds;
+    private boolean violation;
+
+    /**
+     * Constructs an empty trace starting from the given state.
+     *
+     * @param actionNames the names of the actions, indexed by action index
+     * @param initialState the state the trace starts from
+     * @param initialCapacity the number of transitions the trace can hold before growing
+     */
+    Trace(String[] actionNames, M initialState, int initialCapacity) {
+        this(actionNames, initialState, initialCapacity, null);
+    }
+
+    /**
+     * Constructs an empty trace starting from the given state, keeping track of the choices recorded by the given log.
+     * The choices recorded so far are the ones made to create the initial state.
+     *
+     * @param actionNames the names of the actions, indexed by action index
+     * @param initialState the state the trace starts from
+     * @param initialCapacity the number of transitions the trace can hold before growing
+     * @param choices the log of the choices, or null if they are not recorded
+     */
+    Trace(String[] actionNames, M initialState, int initialCapacity, ChoiceLog choices) {
+        this.actionNames = actionNames;
+        this.states = new Object[Math.max(initialCapacity, 1) + 1];
+        this.actions = new int[Math.max(initialCapacity, 1)];
+        this.attempts = new int[Math.max(initialCapacity, 1)];
+        this.states[0] = Objects.requireNonNull(initialState);
+        this.choices = choices;
+        if (choices != null) {
+            this.choiceEnds = new int[states.length];
+            this.choiceEnds[0] = choices.size();
+        }
+    }
+
+    /**
+     * Appends a transition from the last state of the trace.
+     *
+     * @param to the state reached
+     * @param actionIndex the index of the applied action
+     * @param attemptNumber the number of the attempt that produced the transition
+     */
+    void append(M to, int actionIndex, int attemptNumber) {
+        store(to, actionIndex, attemptNumber);
+        size++;
+    }
+
+    /**
+     * Stores a transition that violated a state property after the last one, without making it part of the list.
+     *
+     * @param to the state reached
+     * @param actionIndex the index of the applied action
+     * @param attemptNumber the number of the attempt that produced the transition
+     */
+    void appendViolation(M to, int actionIndex, int attemptNumber) {
+        store(to, actionIndex, attemptNumber);
+        violation = true;
+    }
+
+    /**
+     * Removes the transitions after the given number of them, and the violating transition if any,
+     * so that the trace can hold the current path of a depth-first search.
+     *
+     * @param size the number of transitions to keep
+     */
+    void truncate(int size) {
+        Objects.checkIndex(size, this.size + 1);
+        this.size = size;
+        this.violation = false;
+    }
+
+    private void store(M to, int actionIndex, int attemptNumber) {
+        if (size == actions.length) {
+            var capacity = size + (size >> 1) + 1;
+            states = Arrays.copyOf(states, capacity + 1);
+            actions = Arrays.copyOf(actions, capacity);
+            attempts = Arrays.copyOf(attempts, capacity);
+            if (choiceEnds != null) {
+                choiceEnds = Arrays.copyOf(choiceEnds, capacity + 1);
+            }
+        }
+        actions[size] = actionIndex;
+        attempts[size] = attemptNumber;
+        states[size + 1] = Objects.requireNonNull(to);
+        if (choiceEnds != null) {
+            choiceEnds[size + 1] = choices.size();
+        }
+    }
+
+    /**
+     * Returns the transition at the given index.
+     *
+     * @param index the zero-based index of the transition
+     * @return a new Transition describing it
+     */
+    @Override
+    public Transition<M> get(int index) {
+        Objects.checkIndex(index, size);
+        return new Transition<>(state(index), state(index + 1), actionNames[actions[index]], index + 1, attempts[index]);
+    }
+
+    /**
+     * Returns the number of transitions.
+     *
+     * @return the number of transitions
+     */
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns the state at the given position: the initial state at 0, and the state reached by the i-th transition at i.
+     *
+     * @param index the position of the state, between 0 and {@link #size()}
+     * @return the state
+     */
+    @SuppressWarnings("unchecked")
+    public M state(int index) {
+        Objects.checkIndex(index, size + 1);
+        return (M) states[index];
+    }
+
+    /**
+     * Returns the name of the action applied by the transition at the given index, without creating the transition.
+     *
+     * @param index the zero-based index of the transition
+     * @return the action name
+     */
+    public String actionName(int index) {
+        Objects.checkIndex(index, size);
+        return actionNames[actions[index]];
+    }
+
+    /**
+     * Returns the attempt number of the transition at the given index, without creating the transition.
+     *
+     * @param index the zero-based index of the transition
+     * @return the attempt number
+     */
+    public int attemptNumber(int index) {
+        Objects.checkIndex(index, size);
+        return attempts[index];
+    }
+
+    /**
+     * Returns the number of transitions to record, including the one that violated a state property, if any.
+     *
+     * @return the number of recorded transitions
+     */
+    int recordedSize() {
+        return violation ? size + 1 : size;
+    }
+
+    /**
+     * Returns the transition that violated a state property after the last one of the list.
+     *
+     * @return the violating transition, or null if there is none
+     */
+    Transition<M> violation() {
+        if (!violation) {
+            return null;
+        }
+        @SuppressWarnings("unchecked")
+        var to = (M) states[size + 1];
+        return new Transition<>(state(size), to, actionNames[actions[size]], size + 1, attempts[size]);
+    }
+
+    /**
+     * Returns the log of the choices made along the trace.
+     *
+     * @return the choice log, or null if the choices were not recorded
+     */
+    ChoiceLog choices() {
+        return choices;
+    }
+
+    /**
+     * Returns the recorded states, the initial one first.
+     *
+     * @return a copy of the state column
+     */
+    Object[] recordedStates() {
+        return Arrays.copyOf(states, recordedSize() + 1);
+    }
+
+    /**
+     * Returns the action indexes of the recorded transitions.
+     *
+     * @return a copy of the action column
+     */
+    int[] recordedActions() {
+        return Arrays.copyOf(actions, recordedSize());
+    }
+
+    /**
+     * Returns the attempt numbers of the recorded transitions.
+     *
+     * @return a copy of the attempt column
+     */
+    int[] recordedAttempts() {
+        return Arrays.copyOf(attempts, recordedSize());
+    }
+
+    /**
+     * Returns where the choices of the initialization, then of every recorded transition, end in the choice log.
+     *
+     * @return a copy of the choice end column
+     * @throws IllegalStateException if the choices were not recorded
+     */
+    int[] recordedChoiceEnds() {
+        if (choiceEnds == null) {
+            throw new IllegalStateException("The choices of the trace were not recorded");
+        }
+        return Arrays.copyOf(choiceEnds, recordedSize() + 1);
+    }
+
+    /**
+     * Returns the names of the actions, indexed by action index.
+     *
+     * @return the action names
+     */
+    String[] actionNames() {
+        return actionNames;
+    }
+}
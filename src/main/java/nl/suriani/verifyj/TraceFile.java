@@ -0,0 +1,277 @@
+package nl.suriani.verifyj;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads and writes {@link RecordedTrace}s in a compact binary format.
+ * <p>
+ * A file starts with a header holding the seed, the simulation index, the name of the status and the action names,
+ * followed by
+ * the action index and attempt number of every transition, the number of choices made by the initialization and by
+ * every transition, and the choices themselves, all as variable-length integers, so that a transition usually takes a few bytes.
+ * The states come last, in a section of their own written by a {@link StateCodec}, which is skipped when the file
+ * is read without one.
+ * <p>
+ * The columns are encoded into a single buffer written with one gathering write to a file channel,
+ * and the whole file is read back into a heap buffer, so that no mapping outlives the read.
+ */
+public final class TraceFile {
+    private static final int MAGIC = 0x564a5452;
+    private static final int VERSION = 2;
+    private static final int MAX_VAR_INT_BYTES = 5;
+    private static final int MAX_VAR_LONG_BYTES = 10;
+
+    private TraceFile() {
+    }
+
+    /**
+     * Writes the given trace to the given file, without its states.
+     *
+     * @param file the file to write, replaced if it exists
+     * @param trace the trace to write
+     * @param <M> the model type
+     */
+    public static <M> void write(Path file, RecordedTrace<M> trace) {
+        write(file, trace, null);
+    }
+
+    /**
+     * Writes the given trace to the given file, with its states if a codec is given and the trace has them.
+     *
+     * @param file the file to write, replaced if it exists
+     * @param trace the trace to write
+     * @param codec the codec of the states, or null to leave them out
+     * @param <M> the model type
+     */
+    public static <M> void write(Path file, RecordedTrace<M> trace, StateCodec<M> codec) {
+        var actionNames = trace.actionNames().stream()
+                .map(actionName -> actionName.getBytes(StandardCharsets.UTF_8))
+                .toList();
+        var status = trace.status().name().getBytes(StandardCharsets.UTF_8);
+        var choiceCount = trace.choiceEnd(trace.size());
+        var capacity = 32L + status.length + MAX_VAR_INT_BYTES * (4L + actionNames.size() + 3L * trace.size())
+                + MAX_VAR_LONG_BYTES * (long) choiceCount;
+        for (var actionName : actionNames) {
+            capacity += actionName.length;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("The trace is too long to be written");
+        }
+
+        var columns = ByteBuffer.allocate((int) capacity);
+        columns.putInt(MAGIC);
+        columns.put((byte) VERSION);
+        columns.putLong(trace.seed());
+        putVarInt(columns, trace.simulationIndex());
+        putVarInt(columns, status.length);
+        columns.put(status);
+        putVarInt(columns, actionNames.size());
+        for (var actionName : actionNames) {
+            putVarInt(columns, actionName.length);
+            columns.put(actionName);
+        }
+
+        putVarInt(columns, trace.size());
+        for (var i = 0; i < trace.size(); i++) {
+            putVarInt(columns, trace.action(i));
+            putVarInt(columns, trace.attemptNumber(i));
+        }
+        var previousEnd = 0;
+        for (var i = 0; i <= trace.size(); i++) {
+            putVarInt(columns, trace.choiceEnd(i) - previousEnd);
+            previousEnd = trace.choiceEnd(i);
+        }
+        var choices = trace.choices();
+        for (var i = 0; i < choiceCount; i++) {
+            putVarLong(columns, choices[i]);
+        }
+
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            var states = encodeStates(trace, codec);
+            columns.putInt(states.length);
+            columns.flip();
+            var buffers = new ByteBuffer[] {columns, ByteBuffer.wrap(states)};
+            while (buffers[0].hasRemaining() || buffers[1].hasRemaining()) {
+                channel.write(buffers);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static <M> byte[] encodeStates(RecordedTrace<M> trace, StateCodec<M> codec) throws IOException {
+        if (codec == null || !trace.hasStates()) {
+            return new byte[0];
+        }
+        var states = new ByteArrayOutputStream();
+        var out = new DataOutputStream(states);
+        for (var i = 0; i <= trace.size(); i++) {
+            codec.encode(trace.state(i), out);
+        }
+        return states.toByteArray();
+    }
+
+    /**
+     * Reads a trace from the given file, without its states.
+     *
+     * @param file the file to read
+     * @return the trace
+     * @param <M> the model type
+     */
+    public static <M> RecordedTrace<M> read(Path file) {
+        return read(file, null);
+    }
+
+    /**
+     * Reads a trace from the given file, with its states if a codec is given and the file has them.
+     *
+     * @param file the file to read
+     * @param codec the codec of the states, or null to skip them
+     * @return the trace
+     * @param <M> the model type
+     * @throws IllegalArgumentException if the file is not a trace file
+     */
+    public static <M> RecordedTrace<M> read(Path file, StateCodec<M> codec) {
+        try {
+            var in = ByteBuffer.wrap(Files.readAllBytes(file));
+            if (in.remaining() < 5 || in.getInt() != MAGIC) {
+                throw new IllegalArgumentException(file + " is not a trace file");
+            }
+            var version = in.get() & 0xff;
+            if (version != VERSION) {
+                throw new IllegalArgumentException("Unsupported trace file version " + version);
+            }
+            var seed = in.getLong();
+            var simulationIndex = getVarInt(in);
+            var status = status(in, file);
+            var actionNames = new String[getVarInt(in)];
+            for (var i = 0; i < actionNames.length; i++) {
+                var bytes = new byte[getVarInt(in)];
+                in.get(bytes);
+                actionNames[i] = new String(bytes, StandardCharsets.UTF_8);
+            }
+
+            var size = getVarInt(in);
+            var actions = new int[size];
+            var attempts = new int[size];
+            for (var i = 0; i < size; i++) {
+                actions[i] = getVarInt(in);
+                attempts[i] = getVarInt(in);
+            }
+            var choiceEnds = new int[size + 1];
+            var end = 0;
+            for (var i = 0; i <= size; i++) {
+                end += getVarInt(in);
+                choiceEnds[i] = end;
+            }
+            var choices = new long[end];
+            for (var i = 0; i < end; i++) {
+                choices[i] = getVarLong(in);
+            }
+
+            var statesLength = in.getInt();
+            Object[] states = null;
+            if (statesLength > 0 && codec != null) {
+                var statesIn = new DataInputStream(new ByteBufferInputStream(in.slice(in.position(), statesLength)));
+                states = new Object[size + 1];
+                for (var i = 0; i <= size; i++) {
+                    states[i] = codec.decode(statesIn);
+                }
+            }
+            return new RecordedTrace<>(seed, simulationIndex, status, actionNames, actions, attempts, choices, choiceEnds, states);
+        } catch (BufferUnderflowException | IndexOutOfBoundsException e) {
+            throw new IllegalArgumentException(file + " is truncated or corrupted", e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static OutcomeSimulationStatus status(ByteBuffer in, Path file) {
+        var bytes = new byte[getVarInt(in)];
+        in.get(bytes);
+        var name = new String(bytes, StandardCharsets.UTF_8);
+        try {
+            return OutcomeSimulationStatus.valueOf(name);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException(file + " has an unknown status " + name, e);
+        }
+    }
+
+    private static void putVarInt(ByteBuffer out, int value) {
+        while ((value & ~0x7f) != 0) {
+            out.put((byte) ((value & 0x7f) | 0x80));
+            value >>>= 7;
+        }
+        out.put((byte) value);
+    }
+
+    private static void putVarLong(ByteBuffer out, long value) {
+        var zigZag = (value << 1) ^ (value >> 63);
+        while ((zigZag & ~0x7fL) != 0) {
+            out.put((byte) ((zigZag & 0x7f) | 0x80));
+            zigZag >>>= 7;
+        }
+        out.put((byte) zigZag);
+    }
+
+    private static int getVarInt(ByteBuffer in) {
+        var value = 0;
+        for (var shift = 0; ; shift += 7) {
+            var b = in.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+    }
+
+    private static long getVarLong(ByteBuffer in) {
+        var zigZag = 0L;
+        for (var shift = 0; ; shift += 7) {
+            var b = in.get();
+            zigZag |= (long) (b & 0x7f) << shift;
+            if (b >= 0) {
+                return (zigZag >>> 1) ^ -(zigZag & 1);
+            }
+        }
+    }
+
+    /**
+     * An input stream reading a byte buffer.
+     */
+    private static final class ByteBufferInputStream extends InputStream {
+        private final ByteBuffer buffer;
+
+        ByteBufferInputStream(ByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+
+        @Override
+        public int read() {
+            return buffer.hasRemaining() ? buffer.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] bytes, int offset, int length) {
+            if (!buffer.hasRemaining()) {
+                return -1;
+            }
+            var count = Math.min(length, buffer.remaining());
+            buffer.get(bytes, offset, count);
+            return count;
+        }
+    }
+}
@@ -0,0 +1,107 @@
+package nl.suriani.verifyj;
+
+import java.nio.file.Path;
+import java.util.Objects;
+
+/**
+ * Represents whether and where a {@link Simulator} saves the traces of its simulations, as {@link TraceFile}s.
+ * Recording a simulation only logs its {@link NonDet} choices as it goes, so it is cheap enough to be left on,
+ * and only the simulations matching the retention are written, each to a file of its own named after its index.
+ * Simulations failing their initialization have no trace, and are replayed from the seed instead.
+ *
+ * @param directory the directory the trace files are written to, or null to record nothing
+ * @param traceRetention which simulations are written
+ * @param codec the codec of the states written along with the choices, or null to write the choices only
+ * @param <M> the model type
+ */
+public record TraceRecording<M>(Path directory, TraceRetention traceRetention, StateCodec<M> codec) {
+    /**
+     * Constructs a TraceRecording record with validation.
+     *
+     * @param directory the directory of the trace files, or null
+     * @param traceRetention which simulations are written
+     * @param codec the codec of the states, or null
+     * @throws IllegalArgumentException if a codec is given without a directory
+     */
+    public TraceRecording {
+        Objects.requireNonNull(traceRetention, "traceRetention is null");
+        if (codec != null && directory == null) {
+            throw new IllegalArgumentException("a codec requires a directory to write to");
+        }
+    }
+
+    /**
+     * Returns a recording that records nothing.
+     *
+     * @return a disabled recording
+     * @param <M> the model type
+     */
+    public static <M> TraceRecording<M> disabled() {
+        return new TraceRecording<>(null, TraceRetention.FAILURES, null);
+    }
+
+    /**
+     * Returns a recording writing the traces of the failing simulations to the given directory, without their states.
+     *
+     * @param directory the directory of the trace files
+     * @return a recording to the directory
+     * @param <M> the model type
+     */
+    public static <M> TraceRecording<M> to(Path directory) {
+        return new TraceRecording<>(Objects.requireNonNull(directory), TraceRetention.FAILURES, null);
+    }
+
+    /**
+     * Returns a new TraceRecording writing the simulations matching the given retention.
+     *
+     * @param traceRetention which simulations are written
+     * @return a new TraceRecording with updated retention
+     */
+    public TraceRecording<M> withTraceRetention(TraceRetention traceRetention) {
+        return new TraceRecording<>(directory, traceRetention, codec);
+    }
+
+    /**
+     * Returns a new TraceRecording writing the states along with the choices, so that a replay can check them.
+     *
+     * @param codec the codec of the states
+     * @return a new TraceRecording with states
+     */
+    public TraceRecording<M> withStates(StateCodec<M> codec) {
+        return new TraceRecording<>(directory, traceRetention, codec);
+    }
+
+    /**
+     * Returns true if traces are recorded.
+     *
+     * @return true if a directory is set
+     */
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Returns the file the trace of the given simulation is written to.
+     *
+     * @param simulationIndex the zero-based index of the simulation
+     * @return the trace file
+     * @throws IllegalStateException if traces are not recorded
+     */
+    public Path fileOf(int simulationIndex) {
+        if (directory == null) {
+            throw new IllegalStateException("Traces are not recorded");
+        }
+        return directory.resolve("simulation-" + simulationIndex + ".trace");
+    }
+
+    /**
+     * Returns true if the simulation that ended with the given status is written.
+     *
+     * @param status the status of the simulation
+     * @return true if its trace is written
+     */
+    boolean retains(OutcomeSimulationStatus status) {
+        return directory != null && status != OutcomeSimulationStatus.FAILED_INIT
+                && (traceRetention == TraceRetention.ALL || !status.isSuccess());
+    }
+}
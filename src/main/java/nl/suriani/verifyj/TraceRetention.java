@@ -0,0 +1,12 @@
+package nl.suriani.verifyj;
+
+/**
+ * Enum representing which outcome simulations, with their full traces, are kept in the {@link Report}.
+ * Outcomes that are not kept are still counted.
+ */
+public enum TraceRetention {
+    /** Every outcome simulation is kept. */
+    ALL,
+    /** Only outcome simulations whose status is not a success are kept. */
+    FAILURES
+}
@@ -2,8 +2,27 @@ package nl.suriani.verifyj;
 
 import java.util.Objects;
 
+/**
+ * Represents a transition of a simulation from one state to the next.
+ *
+ * @param from the state before the transition
+ * @param to the state after the transition
+ * @param actionName the name of the action that was applied
+ * @param transitionNumber the one-based number of the transition in its simulation
+ * @param attemptNumber the one-based number of the attempt that produced the transition
+ * @param <M> the model type
+ */
 public record Transition<M>(M from, M to, String actionName, Integer transitionNumber, Integer attemptNumber) {
 
+    /**
+     * Constructs a Transition with validation.
+     *
+     * @param from the state before the transition
+     * @param to the state after the transition
+     * @param actionName the name of the action
+     * @param transitionNumber the number of the transition
+     * @param attemptNumber the number of the attempt
+     */
     public Transition {
         Objects.requireNonNull(from);
         Objects.requireNonNull(to);
@@ -0,0 +1,188 @@
+package nl.suriani.verifyj;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.random.RandomGenerator;
+
+/**
+ * Memoizes the transitions of the memoized actions of a specification, shared by the simulations of a run,
+ * possibly across threads. A transition is keyed by the {@link Object#hashCode()} of the state it starts from and its
+ * action, and only taken from the cache if that state equals the cached one, so that hash collisions are harmless.
+ * The key is not the {@link Specification#fingerprint()} of the state, which may be far more expensive to compute
+ * than the hash code, and would be computed on every lookup.
+ * <p>
+ * The cache is split into stripes picked by key, each guarded by its own lock and evicting its least
+ * recently used transition when full, so that simulations running in parallel seldom contend on the same stripe.
+ *
+ * @param <M> the model type
+ */
+final class TransitionCache<M> {
+    private static final int MAX_STRIPES = 64;
+    private static final long GOLDEN_GAMMA = 0x9e3779b97f4a7c15L;
+
+    private final Stripe<M>[] stripes;
+    private final int stripeShift;
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder uncacheable = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    /**
+     * Constructs a TransitionCache holding up to about the given number of transitions.
+     *
+     * @param capacity the number of transitions, at least 1
+     * @param parallelism the number of simulations running at once, which the number of stripes grows with
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    TransitionCache(int capacity, int parallelism) {
+        var stripeCount = Integer.highestOneBit(Math.max(1, Math.min(Math.min(parallelism * 4, MAX_STRIPES), capacity)));
+        this.stripes = new Stripe[stripeCount];
+        this.stripeShift = 64 - Integer.numberOfTrailingZeros(stripeCount);
+        var stripeCapacity = (capacity + stripeCount - 1) / stripeCount;
+        for (var i = 0; i < stripeCount; i++) {
+            stripes[i] = new Stripe<>(stripeCapacity, evictions);
+        }
+    }
+
+    /**
+     * Looks up the transition of the given action from the given state.
+     *
+     * @param action the index of the action
+     * @param state the state
+     * @return the cached transition, or null if it is not in the cache
+     */
+    Entry<M> get(int action, M state) {
+        var key = key(state, action);
+        var stripe = stripeOf(key);
+        Entry<M> entry;
+        stripe.lock.lock();
+        try {
+            entry = stripe.entries.get(key);
+        } finally {
+            stripe.lock.unlock();
+        }
+        if (entry != null && entry.action() == action && entry.from().equals(state)) {
+            hits.increment();
+            return entry;
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Caches the transition of the given action from the given state.
+     *
+     * @param action the index of the action
+     * @param from the state
+     * @param outcome the outcome of the action, applied or rejected
+     * @param to the next state, or null if the action was rejected
+     */
+    void put(int action, M from, ActionOutcome outcome, M to) {
+        var key = key(from, action);
+        var stripe = stripeOf(key);
+        stripe.lock.lock();
+        try {
+            stripe.entries.put(key, new Entry<>(action, from, outcome, to));
+        } finally {
+            stripe.lock.unlock();
+        }
+    }
+
+    /**
+     * Records that a missed transition could not be cached.
+     */
+    void uncacheable() {
+        uncacheable.increment();
+    }
+
+    /**
+     * Returns the statistics of the cache so far.
+     *
+     * @return the statistics
+     */
+    TransitionCacheStatistics statistics() {
+        var size = 0L;
+        for (var stripe : stripes) {
+            stripe.lock.lock();
+            try {
+                size += stripe.entries.size();
+            } finally {
+                stripe.lock.unlock();
+            }
+        }
+        return new TransitionCacheStatistics(hits.sum(), misses.sum(), uncacheable.sum(), evictions.sum(), size);
+    }
+
+    private static long key(Object state, int action) {
+        return Fingerprint.mix(state.hashCode() ^ (action + 1L) * GOLDEN_GAMMA);
+    }
+
+    private Stripe<M> stripeOf(long key) {
+        return stripes.length == 1 ? stripes[0] : stripes[(int) (key >>> stripeShift)];
+    }
+
+    /**
+     * A choice source recording whether a choice was drawn from the source it delegates to,
+     * which makes the transition being evaluated uncacheable.
+     */
+    static final class Draws implements ChoiceSource {
+        private final ChoiceSource delegate;
+        private boolean drawn;
+
+        Draws(ChoiceSource delegate) {
+            this.delegate = delegate;
+        }
+
+        @Override
+        public int choose(int bound) {
+            drawn = true;
+            return delegate.choose(bound);
+        }
+
+        @Override
+        public RandomGenerator random() {
+            drawn = true;
+            return delegate.random();
+        }
+
+        boolean drawn() {
+            return drawn;
+        }
+    }
+
+    /**
+     * A cached transition.
+     *
+     * @param action the index of the action
+     * @param from the state the action was applied to
+     * @param outcome the outcome of the action, applied or rejected
+     * @param to the next state, or null if the action was rejected
+     * @param <M> the model type
+     */
+    record Entry<M>(int action, M from, ActionOutcome outcome, M to) { }
+
+    /**
+     * A part of the cache, in least recently used order.
+     *
+     * @param <M> the model type
+     */
+    private static final class Stripe<M> {
+        private final ReentrantLock lock = new ReentrantLock();
+        private final Map<Long, Entry<M>> entries;
+
+        Stripe(int capacity, LongAdder evictions) {
+            this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<Long, Entry<M>> eldest) {
+                    if (size() > capacity) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+}
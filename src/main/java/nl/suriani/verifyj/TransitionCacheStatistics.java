@@ -0,0 +1,44 @@
+package nl.suriani.verifyj;
+
+/**
+ * Represents how the transition cache of a simulation run was used, see {@link SimulationOptions#withTransitionCache(int)}.
+ *
+ * @param hits the number of transitions of memoized actions taken from the cache
+ * @param misses the number of transitions of memoized actions evaluated because they were not in the cache
+ * @param uncacheable the number of missed transitions that were not cached, as their evaluation drew from {@link NonDet}
+ *                    or threw an error
+ * @param evictions the number of transitions evicted from the cache, least recently used first, to make room for others
+ * @param size the number of transitions in the cache at the end of the run
+ */
+public record TransitionCacheStatistics(long hits, long misses, long uncacheable, long evictions, long size) {
+    /**
+     * The statistics of a run without transition cache.
+     */
+    public static final TransitionCacheStatistics NONE = new TransitionCacheStatistics(0, 0, 0, 0, 0);
+
+    /**
+     * Constructs a TransitionCacheStatistics record with validation.
+     *
+     * @param hits the number of hits
+     * @param misses the number of misses
+     * @param uncacheable the number of uncacheable misses
+     * @param evictions the number of evictions
+     * @param size the number of cached transitions
+     * @throws IllegalArgumentException if any count is negative
+     */
+    public TransitionCacheStatistics {
+        if (hits < 0 || misses < 0 || uncacheable < 0 || evictions < 0 || size < 0) {
+            throw new IllegalArgumentException("counts must be non-negative");
+        }
+    }
+
+    /**
+     * Returns the share of the lookups that hit the cache.
+     *
+     * @return the hit rate between 0 and 1, or 0 if the cache was never looked up
+     */
+    public double hitRate() {
+        var lookups = hits + misses;
+        return lookups == 0 ? 0.0 : (double) hits / lookups;
+    }
+}
@@ -0,0 +1,21 @@
+package nl.suriani.verifyj;
+
+/**
+ * Enum representing the verdict of a {@link TemporalMonitor} after observing a transition.
+ */
+public enum Verdict {
+    /** The property holds whatever transitions follow. */
+    SATISFIED,
+    /** The property is violated whatever transitions follow. */
+    VIOLATED,
+    /** The verdict depends on the transitions that follow. */
+    PENDING;
+
+    /**
+     * Returns true if the verdict cannot change anymore.
+     * @return true if satisfied or violated
+     */
+    public boolean isFinal() {
+        return this != PENDING;
+    }
+}
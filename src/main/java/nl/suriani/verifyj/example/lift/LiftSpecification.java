@@ -10,6 +10,20 @@ import java.util.stream.Stream;
 
 class LiftSpecification {
     public static void main(String[] args) {
+        var runner = new Simulator<Lift>(new SimulationOptions(1,
+                6000,
+                2000,
+                true));
+
+        var report = runner.run(specification());
+        System.out.println(report);
+
+        System.out.println(new StateSpaceDigraphGenerator<Lift>(
+                lift -> "Floor_" + lift.currentFloor()
+        ).run(report));
+    }
+
+    static Specification<Lift> specification() {
         var minFloor = -2;
         var maxFloor = 8;
 
@@ -79,16 +93,6 @@ class LiftSpecification {
                 step
         );
 
-        var runner = new Simulator<Lift>(new SimulationOptions(1,
-                6000,
-                2000,
-                true));
-
-        var report = runner.run(specification.withTemporalProperties(temporalProperties));
-        System.out.println(report);
-
-        System.out.println(new StateSpaceDigraphGenerator<Lift>(
-                lift -> "Floor_" + lift.currentFloor()
-        ).run(report));
+        return specification.withTemporalProperties(temporalProperties);
     }
 }
@@ -4,6 +4,20 @@ import nl.suriani.verifyj.*;
 
 class RockingJackSpecification {
     public static void main(String... args) {
+        var runner = new Simulator<RockingJack>(
+                new SimulationOptions(50, 500, 250, true)
+        );
+
+        var report = runner.run(specification());
+        System.out.println(report);
+
+        System.out.println(new StateSpaceDigraphGenerator<RockingJack>(
+                jack -> getStatus(jack)
+
+        ).run(report));
+    }
+
+    static Specification<RockingJack> specification() {
         var init = new Init<>(
                 () -> RockingJack.init(NonDet.withinRange(-20, 120),
                         NonDet.withinRange(-20, 120),
@@ -73,7 +87,7 @@ class RockingJackSpecification {
         );
 
 
-        var specification = new Specification<>(init, step)
+        return new Specification<>(init, step)
                 .withTemporalProperties(
                     jackWillEventuallyReachNirvana,
                     jackWillAtLastTopSexAndRockAndRoll,
@@ -83,18 +97,6 @@ class RockingJackSpecification {
                     jackWillNeverGoLowerThan0InAnyCategory,
                     whenSumIsLessThan50RockingJackIsTakenAbackUnlessSexIs60OrMoreOrHeFoundNirvana
                 );
-
-        var runner = new Simulator<RockingJack>(
-                new SimulationOptions(50, 500, 250, true)
-        );
-
-        var report = runner.run(specification);
-        System.out.println(report);
-
-        System.out.println(new StateSpaceDigraphGenerator<RockingJack>(
-                jack -> getStatus(jack)
-
-        ).run(report));
     }
 
     private static String getStatus(RockingJack jack) {
@@ -0,0 +1,199 @@
+package nl.suriani.verifyj.redesign;
+
+import nl.suriani.verifyj.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class BreadthFirstExplorerTest {
+
+    private final Specification<Integer> counterModuloTen = new Specification<>(
+            new Init<>(() -> NonDet.withinRange(0, 2)),
+            new Step<>(
+                    new NamedAction<Integer>("add", n -> (n + NonDet.withinRange(1, 3)) % 10),
+                    new NamedAction<Integer>("reset", n -> 0, n -> n > 5)
+            ));
+
+    @Test
+    void visitsEveryReachableState() {
+        var report = new BreadthFirstExplorer<Integer>(ExplorationOptions.DEFAULT).run(counterModuloTen);
+
+        assertEquals(ExplorationStatus.COMPLETE, report.status());
+        assertEquals(10L, report.distinctStates());
+        assertTrue(report.counterExample().isEmpty());
+    }
+
+    @Test
+    void reportsAShortestCounterExample() {
+        var specification = counterModuloTen
+                .withStateProperty(new StateProperty<Integer>("neverSeven", n -> n != 7));
+
+        var report = new BreadthFirstExplorer<Integer>(ExplorationOptions.DEFAULT).run(specification);
+
+        assertEquals(ExplorationStatus.FAILED_STATE_PROPERTIES, report.status());
+        assertEquals("neverSeven", report.failedStateProperties().getFirst());
+        assertEquals(3, report.counterExample().size());
+        assertEquals(7, report.counterExample().getLast().to());
+    }
+
+    @Test
+    void stopsAtItsBounds() {
+        var report = new BreadthFirstExplorer<Integer>(new ExplorationOptions(Long.MAX_VALUE, 1)).run(counterModuloTen);
+
+        assertEquals(ExplorationStatus.INCOMPLETE, report.status());
+        assertEquals(1, report.depth());
+    }
+
+    private record Hidden(int value) {
+        @Override
+        public String toString() {
+            return "Hidden";
+        }
+    }
+
+    private static final class Box {
+        private final Set<String> values;
+
+        Box(Set<String> values) {
+            this.values = values;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            return other instanceof Box box && values.equals(box.values);
+        }
+
+        @Override
+        public int hashCode() {
+            return values.hashCode();
+        }
+    }
+
+    @Test
+    void deduplicatesStatesOnEqualityRatherThanStrings() {
+        var hidden = new Specification<>(new Init<>(() -> new Hidden(0)),
+                new Step<>(new NamedAction<Hidden>("next", h -> new Hidden((h.value() + 1) % 7))));
+        var boxes = new Specification<>(new Init<>(() -> new Box(Set.of())),
+                new Step<>(new NamedAction<Box>("add", b -> {
+                    var values = new HashSet<>(b.values);
+                    values.add(NonDet.oneOf("a", "b", "c"));
+                    return new Box(values);
+                })));
+
+        var hiddenReport = new BreadthFirstExplorer<Hidden>(ExplorationOptions.DEFAULT).run(hidden);
+        var boxesReport = new BreadthFirstExplorer<Box>(new ExplorationOptions(1_000, 100)).run(boxes);
+
+        assertEquals(ExplorationStatus.COMPLETE, hiddenReport.status());
+        assertEquals(7L, hiddenReport.distinctStates());
+        assertEquals(ExplorationStatus.COMPLETE, boxesReport.status());
+        assertEquals(8L, boxesReport.distinctStates());
+    }
+
+    @Test
+    void checksTheInitialStates() {
+        var specification = counterModuloTen
+                .withStateProperty(new StateProperty<Integer>("neverOne", n -> n != 1));
+
+        var report = new BreadthFirstExplorer<Integer>(ExplorationOptions.DEFAULT).run(specification);
+
+        assertEquals(ExplorationStatus.FAILED_STATE_PROPERTIES, report.status());
+        assertEquals("neverOne", report.failedStateProperties().getFirst());
+        assertTrue(report.counterExample().isEmpty());
+    }
+
+    @Test
+    void completesWhenTheStatesFitTheLimitExactly() {
+        var exact = new BreadthFirstExplorer<Integer>(new ExplorationOptions(10, 100)).run(counterModuloTen);
+        var tooFew = new BreadthFirstExplorer<Integer>(new ExplorationOptions(9, 100)).run(counterModuloTen);
+
+        assertEquals(ExplorationStatus.COMPLETE, exact.status());
+        assertEquals(10L, exact.distinctStates());
+        assertEquals(ExplorationStatus.INCOMPLETE, tooFew.status());
+        assertEquals(9L, tooFew.distinctStates());
+    }
+
+    @Test
+    void reportsTheDepthOfTheDeepestState() {
+        var chain = new Specification<>(new Init<>(() -> 0),
+                new Step<>(new NamedAction<Integer>("next", n -> n + 1, n -> n < 4)));
+
+        var report = new BreadthFirstExplorer<Integer>(new ExplorationOptions(100, 100)).run(chain);
+
+        assertEquals(ExplorationStatus.COMPLETE, report.status());
+        assertEquals(5L, report.distinctStates());
+        assertEquals(4, report.depth());
+    }
+
+    @Test
+    void deduplicatesSymmetricStates() {
+        var actions = new ArrayList<NamedAction<List<Integer>>>();
+        for (var process = 0; process < 3; process++) {
+            var index = process;
+            actions.add(new NamedAction<>("advance" + process, counters -> {
+                var next = new ArrayList<>(counters);
+                next.set(index, counters.get(index) + 1);
+                return List.copyOf(next);
+            }, counters -> counters.get(index) < 2));
+        }
+        var processes = new Specification<>(new Init<>(() -> List.of(0, 0, 0)), new Step<>(actions))
+                .withStateProperty(new StateProperty<List<Integer>>("notAllApart",
+                        counters -> new HashSet<>(counters).size() < 3));
+        var symmetric = processes.withSymmetry(counters -> counters.stream().sorted().toList());
+
+        var report = new BreadthFirstExplorer<List<Integer>>(ExplorationOptions.DEFAULT).run(symmetric);
+        var withoutProperty = new BreadthFirstExplorer<List<Integer>>(ExplorationOptions.DEFAULT)
+                .run(symmetric.withStateProperty(List.of()));
+
+        assertEquals(ExplorationStatus.FAILED_STATE_PROPERTIES, report.status());
+        assertEquals(3, new HashSet<>(report.counterExample().getLast().to()).size());
+        assertEquals(ExplorationStatus.COMPLETE, withoutProperty.status());
+        assertEquals(10L, withoutProperty.distinctStates());
+    }
+
+    private record Point(int x, int y) { }
+
+    @Test
+    void spillingStorageVisitsTheSameStatesAsTheHeap() throws IOException {
+        var grid = new Specification<>(
+                new Init<>(() -> new Point(0, 0)),
+                new Step<>(
+                        new NamedAction<Point>("right", p -> new Point(p.x() + NonDet.withinRange(1, 3), p.y()), p -> p.x() < 60),
+                        new NamedAction<Point>("up", p -> new Point(p.x(), p.y() + 1), p -> p.y() < 60),
+                        new NamedAction<Point>("home", p -> new Point(0, 0))
+                ));
+        var codec = new StateCodec<Point>() {
+            @Override
+            public void encode(Point state, DataOutput out) throws IOException {
+                out.writeInt(state.x());
+                out.writeInt(state.y());
+            }
+
+            @Override
+            public Point decode(DataInput in) throws IOException {
+                return new Point(in.readInt(), in.readInt());
+            }
+        };
+        var directory = Files.createTempDirectory("verifyj-");
+        var storage = StateStorage.<Point>spilling(directory, 200 * 48).withFrontier(64, codec);
+
+        var inMemory = new BreadthFirstExplorer<Point>(ExplorationOptions.DEFAULT).run(grid);
+        var spilled = new BreadthFirstExplorer<Point>(ExplorationOptions.DEFAULT, storage).run(grid);
+
+        assertEquals(inMemory.distinctStates(), spilled.distinctStates());
+        assertEquals(inMemory.transitions(), spilled.transitions());
+        assertTrue(spilled.storage().merges() > 0);
+        assertTrue(spilled.storage().bytesRead() > spilled.storage().bytesWritten());
+        try (var files = Files.list(directory)) {
+            assertEquals(0L, files.count());
+        }
+    }
+}
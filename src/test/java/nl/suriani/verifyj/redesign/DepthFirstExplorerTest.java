@@ -0,0 +1,89 @@
+package nl.suriani.verifyj.redesign;
+
+import nl.suriani.verifyj.*;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class DepthFirstExplorerTest {
+
+    private final Specification<Integer> counterModuloTen = new Specification<>(
+            new Init<>(() -> NonDet.withinRange(0, 2)),
+            new Step<>(
+                    new NamedAction<Integer>("add", n -> (n + NonDet.withinRange(1, 3)) % 10),
+                    new NamedAction<Integer>("reset", n -> 0, n -> n > 5)
+            ));
+
+    @Test
+    void visitsEveryReachableState() {
+        var report = new DepthFirstExplorer<Integer>(new ExplorationOptions(Long.MAX_VALUE, 20)).run(counterModuloTen);
+
+        assertEquals(10L, report.distinctStates());
+        assertTrue(report.counterExample().isEmpty());
+    }
+
+    @Test
+    void checksTheInitialStates() {
+        var specification = new Specification<>(new Init<>(() -> -1),
+                new Step<>(new NamedAction<Integer>("next", n -> n + 1, n -> n < 4)))
+                .withStateProperty(new StateProperty<Integer>("natural", n -> n >= 0));
+
+        for (var pruning : new boolean[] {true, false}) {
+            var report = new DepthFirstExplorer<Integer>(new ExplorationOptions(Long.MAX_VALUE, 20), pruning, false)
+                    .run(specification);
+
+            assertEquals(ExplorationStatus.FAILED_STATE_PROPERTIES, report.status());
+            assertEquals("natural", report.failedStateProperties().getFirst());
+            assertTrue(report.counterExample().isEmpty());
+        }
+    }
+
+    @Test
+    void completesWhenTheStatesFitTheLimitExactly() {
+        var chain = new Specification<>(new Init<>(() -> 0),
+                new Step<>(new NamedAction<Integer>("next", n -> n + 1, n -> n < 4)));
+
+        var exact = new DepthFirstExplorer<Integer>(new ExplorationOptions(5, 100)).run(chain);
+        var tooFew = new DepthFirstExplorer<Integer>(new ExplorationOptions(4, 100)).run(chain);
+
+        assertEquals(ExplorationStatus.COMPLETE, exact.status());
+        assertEquals(5L, exact.distinctStates());
+        assertEquals(ExplorationStatus.INCOMPLETE, tooFew.status());
+        assertEquals(4L, tooFew.distinctStates());
+    }
+
+    @Test
+    void iterativeDeepeningReportsAShortestCounterExample() {
+        var specification = counterModuloTen
+                .withStateProperty(new StateProperty<Integer>("neverSeven", n -> n != 7));
+
+        var report = new DepthFirstExplorer<Integer>(new ExplorationOptions(Long.MAX_VALUE, 20), true, true)
+                .run(specification);
+
+        assertEquals(ExplorationStatus.FAILED_STATE_PROPERTIES, report.status());
+        assertEquals("neverSeven", report.failedStateProperties().getFirst());
+        assertEquals(3, report.counterExample().size());
+        assertEquals(7, report.counterExample().getLast().to());
+    }
+
+    @Test
+    void stopsAtItsBounds() {
+        var report = new DepthFirstExplorer<Integer>(new ExplorationOptions(Long.MAX_VALUE, 1)).run(counterModuloTen);
+
+        assertEquals(ExplorationStatus.INCOMPLETE, report.status());
+        assertEquals(1, report.depth());
+    }
+
+    @Test
+    void checksTemporalPropertiesOnEveryPathWithoutPruning() {
+        var specification = counterModuloTen
+                .withTemporalProperties(TemporalProperties.<Integer>eventually("reachesNine", n -> n == 9));
+
+        var report = new DepthFirstExplorer<Integer>(new ExplorationOptions(Long.MAX_VALUE, 2), false, false)
+                .run(specification);
+
+        assertEquals(ExplorationStatus.FAILED_TEMPORAL_PROPERTIES, report.status());
+        assertEquals("reachesNine", report.failedTemporalProperties().getFirst());
+        assertEquals(2, report.counterExample().size());
+    }
+}
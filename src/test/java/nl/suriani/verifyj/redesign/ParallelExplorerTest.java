@@ -0,0 +1,108 @@
+package nl.suriani.verifyj.redesign;
+
+import nl.suriani.verifyj.*;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ParallelExplorerTest {
+
+    private record Point(int x, int y) { }
+
+    private final Specification<Point> grid = new Specification<>(
+            new Init<>(() -> new Point(0, 0)),
+            new Step<>(
+                    new NamedAction<Point>("right", p -> new Point(p.x() + NonDet.withinRange(1, 3), p.y()), p -> p.x() < 60),
+                    new NamedAction<Point>("up", p -> new Point(p.x(), p.y() + 1), p -> p.y() < 60),
+                    new NamedAction<Point>("home", p -> new Point(0, 0))
+            ));
+
+    @Test
+    void visitsTheSameStatesAsTheBreadthFirstExplorer() {
+        var sequential = new BreadthFirstExplorer<Point>(ExplorationOptions.DEFAULT).run(grid);
+        var parallel = new ParallelExplorer<Point>(ExplorationOptions.DEFAULT, 4).run(grid);
+
+        assertEquals(ExplorationStatus.COMPLETE, parallel.status());
+        assertEquals(sequential.distinctStates(), parallel.distinctStates());
+        assertEquals(sequential.transitions(), parallel.transitions());
+    }
+
+    @Test
+    void checksTheInitialStates() {
+        var specification = new Specification<>(new Init<>(() -> -1),
+                new Step<>(new NamedAction<Integer>("next", n -> n + 1, n -> n < 4)))
+                .withStateProperty(new StateProperty<Integer>("natural", n -> n >= 0));
+
+        var report = new ParallelExplorer<Integer>(ExplorationOptions.DEFAULT, 4).run(specification);
+
+        assertEquals(ExplorationStatus.FAILED_STATE_PROPERTIES, report.status());
+        assertEquals("natural", report.failedStateProperties().getFirst());
+        assertTrue(report.counterExample().isEmpty());
+    }
+
+    @Test
+    void completesWhenTheStatesFitTheLimitExactly() {
+        var chain = new Specification<>(new Init<>(() -> 0),
+                new Step<>(new NamedAction<Integer>("next", n -> n + 1, n -> n < 4)));
+
+        var exact = new ParallelExplorer<Integer>(new ExplorationOptions(5, 100), 4).run(chain);
+        var tooFew = new ParallelExplorer<Integer>(new ExplorationOptions(4, 100), 4).run(chain);
+
+        assertEquals(ExplorationStatus.COMPLETE, exact.status());
+        assertEquals(5L, exact.distinctStates());
+        assertEquals(ExplorationStatus.INCOMPLETE, tooFew.status());
+        assertEquals(4L, tooFew.distinctStates());
+    }
+
+    @Test
+    void reportsAValidCounterExample() {
+        var specification = grid.withStateProperty(new StateProperty<Point>("notInTheCorner",
+                p -> p.x() < 55 || p.y() < 55));
+
+        var report = new ParallelExplorer<Point>(ExplorationOptions.DEFAULT, 4).run(specification);
+
+        assertEquals(ExplorationStatus.FAILED_STATE_PROPERTIES, report.status());
+        var counterExample = report.counterExample();
+        assertEquals(new Point(0, 0), counterExample.getFirst().from());
+        for (var i = 1; i < counterExample.size(); i++) {
+            assertEquals(counterExample.get(i - 1).to(), counterExample.get(i).from());
+        }
+        var last = counterExample.getLast().to();
+        assertTrue(last.x() >= 55 && last.y() >= 55);
+    }
+
+    @Test
+    void expandsAgainTheStatesReachedThroughAShorterPath() {
+        var shortcut = new Specification<>(
+                new Init<>(() -> 0),
+                new Step<>(
+                        new NamedAction<Integer>("shortcut", n -> n == 0 ? 10 : 3, n -> n == 0 || n == 10),
+                        new NamedAction<Integer>("step", n -> n + 1, n -> n < 10)
+                ));
+        var options = new ExplorationOptions(Long.MAX_VALUE, 3);
+
+        var sequential = new BreadthFirstExplorer<Integer>(options).run(shortcut);
+        var parallel = new ParallelExplorer<Integer>(options, 1).run(shortcut);
+
+        assertEquals(6L, sequential.distinctStates());
+        assertEquals(sequential.distinctStates(), parallel.distinctStates());
+    }
+
+    @Test
+    void spillingStorageVisitsTheSameStatesAsTheHeap() throws IOException {
+        var directory = Files.createTempDirectory("verifyj-");
+        var storage = StateStorage.<Point>spilling(directory, 200 * 48);
+
+        var inMemory = new ParallelExplorer<Point>(ExplorationOptions.DEFAULT, 4).run(grid);
+        var spilled = new ParallelExplorer<Point>(ExplorationOptions.DEFAULT, 4, storage).run(grid);
+
+        assertEquals(inMemory.distinctStates(), spilled.distinctStates());
+        assertTrue(spilled.storage().runs() > 0);
+        try (var files = Files.list(directory)) {
+            assertEquals(0L, files.count());
+        }
+    }
+}
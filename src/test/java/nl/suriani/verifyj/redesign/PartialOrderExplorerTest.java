@@ -0,0 +1,80 @@
+package nl.suriani.verifyj.redesign;
+
+import nl.suriani.verifyj.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PartialOrderExplorerTest {
+
+    private static NamedAction<List<Integer>> increment(int counter) {
+        return new NamedAction<>("increment" + counter, counters -> {
+            var next = new ArrayList<>(counters);
+            next.set(counter, counters.get(counter) + 1);
+            return List.copyOf(next);
+        }, counters -> counters.get(counter) < 2);
+    }
+
+    private final Specification<List<Integer>> fourCounters = new Specification<>(
+            new Init<>(() -> List.of(0, 0, 0, 0)),
+            new Step<>(increment(0), increment(1), increment(2), increment(3)));
+
+    private final Independence<List<Integer>> countersAreIndependent =
+            Independence.among("increment0", "increment1", "increment2", "increment3");
+
+    @Test
+    void checksTheInitialStates() {
+        var specification = fourCounters
+                .withStateProperty(new StateProperty<List<Integer>>("started", counters -> counters.contains(1)));
+
+        var report = new PartialOrderExplorer<>(ExplorationOptions.DEFAULT, countersAreIndependent).run(specification);
+
+        assertEquals(ExplorationStatus.FAILED_STATE_PROPERTIES, report.status());
+        assertEquals("started", report.failedStateProperties().getFirst());
+        assertTrue(report.counterExample().isEmpty());
+    }
+
+    @Test
+    void visitsEveryStateThroughFewerTransitions() {
+        var full = new PartialOrderExplorer<>(ExplorationOptions.DEFAULT, Independence.<List<Integer>>none())
+                .run(fourCounters);
+        var reduced = new PartialOrderExplorer<>(ExplorationOptions.DEFAULT, countersAreIndependent)
+                .run(fourCounters);
+
+        assertEquals(ExplorationStatus.COMPLETE, reduced.status());
+        assertEquals(81L, full.distinctStates());
+        assertEquals(81L, reduced.distinctStates());
+        assertEquals(216L, full.transitions());
+        assertTrue(reduced.transitions() < full.transitions() / 2);
+    }
+
+    @Test
+    void findsTheStatePropertyViolations() {
+        var specification = fourCounters.withStateProperty(new StateProperty<List<Integer>>("neverAllTwo",
+                counters -> !counters.equals(List.of(2, 2, 2, 2))));
+
+        var report = new PartialOrderExplorer<>(ExplorationOptions.DEFAULT, countersAreIndependent).run(specification);
+
+        assertEquals(ExplorationStatus.FAILED_STATE_PROPERTIES, report.status());
+        assertEquals(List.of(2, 2, 2, 2), report.counterExample().getLast().to());
+    }
+
+    @Test
+    void samplesWhichActionsCommute() {
+        var reset = new NamedAction<List<Integer>>("reset", counters -> List.of(0, 0, 0, 0));
+        var specification = new Specification<>(fourCounters.init(),
+                new Step<>(increment(0), increment(1), increment(2), increment(3), reset));
+
+        var independence = Independence.sampled(specification, 20, 10, 42L);
+
+        var actions = specification.step().actions();
+        assertTrue(independence.independent(actions.get(0), actions.get(3)));
+        assertFalse(independence.independent(actions.get(0), actions.get(4)));
+        assertFalse(independence.independent(actions.get(0), actions.get(0)));
+        assertEquals(81L, new PartialOrderExplorer<>(ExplorationOptions.DEFAULT, independence)
+                .run(specification).distinctStates());
+    }
+}
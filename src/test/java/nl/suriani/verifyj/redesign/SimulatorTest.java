@@ -3,6 +3,17 @@ package nl.suriani.verifyj.redesign;
 import nl.suriani.verifyj.*;
 import org.junit.jupiter.api.Test;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
 import static org.junit.jupiter.api.Assertions.*;
 
 class SimulatorTest {
@@ -59,6 +70,22 @@ class SimulatorTest {
         assertEquals("stringMustBeEventuallyUpperCase", outcomeSimulation.failedTemporalProperties().getFirst());
     }
 
+    @Test
+    void aViolatedTemporalPropertyDoesNotFailThePropertiesStillPending() {
+        var specification = new Specification<>(new Init<>(() -> 0),
+                new Step<>(new NamedAction<Integer>("inc", n -> n + 1)))
+                .withTemporalProperties(
+                        TemporalProperties.<Integer>always("belowThree", n -> n < 3),
+                        TemporalProperties.<Integer>eventually("reachesFive", n -> n == 5));
+
+        var outcomeSimulation = new Simulator<Integer>(simulationOptionsFailAtTheEnd).run(specification)
+                .outcomeSimulations().getFirst();
+
+        assertEquals(OutcomeSimulationStatus.FAILED_TEMPORAL_PROPERTIES, outcomeSimulation.status());
+        assertEquals(List.of("belowThree"), outcomeSimulation.failedTemporalProperties());
+        assertEquals(3, outcomeSimulation.transitions().size());
+    }
+
     @Test
     void noProperties() {
         var runner = new Simulator<String>(simulationOptionsFailAtTheEnd);
@@ -77,4 +104,515 @@ class SimulatorTest {
         assertEquals(OutcomeSimulationStatus.SUCCESS, outcomeSimulation.status());
     }
 
-}
\ No newline at end of file
+    @Test
+    void parallelRunKeepsOneOutcomePerSimulation() {
+        var runner = new Simulator<String>(new SimulationOptions(200, 50, 10, false)
+                .withConcurrency(Concurrency.FORK_JOIN, 4));
+        var init = new Init<>(() -> "Initial State");
+
+        var toUpperCase = new NamedAction<String>("toUpperCase", String::toUpperCase);
+        var toLowerCase = new NamedAction<String>("toLowerCase", String::toLowerCase);
+
+        var specification = new Specification<>(init, new Step<>(toUpperCase, toLowerCase));
+
+        var report = runner.run(specification);
+
+        assertEquals(200, report.outcomeSimulations().size());
+        assertTrue(report.outcomeSimulations().stream()
+                .allMatch(outcomeSimulation -> outcomeSimulation.status().isSuccess()));
+    }
+
+    @Test
+    void seededRunsAreReproducibleAcrossConcurrencyModes() {
+        var options = new SimulationOptions(50, 50, 20, false).withSeed(42L);
+        var init = new Init<>(() -> NonDet.withinRange(0, 10));
+
+        var add = new NamedAction<Integer>("add", n -> n + NonDet.withinRange(1, 5));
+        var subtract = new NamedAction<Integer>("subtract", n -> n - NonDet.withinRange(1, 5));
+
+        var specification = new Specification<>(init, new Step<>(add, subtract));
+
+        var sequentialReport = new Simulator<Integer>(options).run(specification);
+        var parallelReport = new Simulator<Integer>(options.withConcurrency(Concurrency.FORK_JOIN, 4))
+                .run(specification);
+
+        assertEquals(sequentialReport.outcomeSimulations(), parallelReport.outcomeSimulations());
+        assertEquals(sequentialReport.outcomeSimulations().get(17),
+                new Simulator<Integer>(options).replay(specification, 17));
+    }
+
+    @Test
+    void onlyFailuresAreRetainedButAllSimulationsAreCounted() {
+        var options = new SimulationOptions(100, 50, 10, false)
+                .withSeed(7L)
+                .withTraceRetention(TraceRetention.FAILURES, 3);
+        var init = new Init<>(() -> 0);
+
+        var increment = new NamedAction<Integer>("increment", n -> n + NonDet.withinRange(0, 2));
+
+        var neverReachesTen = TemporalProperties.<Integer>never("neverReachesTen", n -> n >= 10);
+
+        var specification = new Specification<>(init, new Step<>(increment))
+                .withTemporalProperties(neverReachesTen);
+
+        var streamed = new AtomicInteger();
+        var report = new Simulator<Integer>(options).run(specification, outcome -> streamed.incrementAndGet());
+
+        assertEquals(100, streamed.get());
+        assertEquals(100L, report.numberOfSimulations());
+        assertTrue(report.outcomeSimulations().size() <= 3);
+        assertTrue(report.outcomeSimulations().stream()
+                .noneMatch(outcomeSimulation -> outcomeSimulation.status().isSuccess()));
+        assertEquals(report.count(OutcomeSimulationStatus.FAILED_TEMPORAL_PROPERTIES) > 0,
+                !report.outcomeSimulations().isEmpty());
+    }
+
+    @Test
+    void coverageCountsDistinctStatesAcrossSimulations() {
+        var options = new SimulationOptions(20, 50, 10, false)
+                .withConcurrency(Concurrency.FORK_JOIN, 4)
+                .withCoverage(true);
+        var init = new Init<>(() -> 0);
+
+        var increment = new NamedAction<Integer>("increment", n -> (n + 1) % 5);
+
+        var report = new Simulator<Integer>(options).run(new Specification<>(init, new Step<>(increment)));
+
+        assertEquals(5L, report.coverage().distinctStates());
+        assertEquals(Coverage.NONE, new Simulator<Integer>(options.withCoverage(false))
+                .run(new Specification<>(init, new Step<>(increment)))
+                .coverage());
+    }
+
+    @Test
+    void disabledActionsDoNotConsumeAttemptsAndDeadlocksAreReported() {
+        var options = new SimulationOptions(1, 6, 100, false);
+        var init = new Init<>(() -> 0);
+
+        var increment = new NamedAction<Integer>("increment", n -> n + 1, n -> n < 5);
+        var neverEnabled = new NamedAction<Integer>("neverEnabled", n -> -1, n -> false);
+
+        var report = new Simulator<Integer>(options).run(new Specification<>(init, new Step<>(increment, neverEnabled)));
+
+        var outcomeSimulation = report.outcomeSimulations().getFirst();
+        assertEquals(OutcomeSimulationStatus.DEADLOCK, outcomeSimulation.status());
+        assertEquals(5, outcomeSimulation.transitions().size());
+        assertEquals(5, outcomeSimulation.transitions().getLast().to());
+    }
+
+    @Test
+    void actionOutcomesAreCountedWithoutRequiringExceptions() {
+        var options = new SimulationOptions(10, 20, 20, false).withSeed(3L);
+        var init = new Init<>(() -> 0);
+
+        ActionExpression<Integer> decrement = n -> n > 0
+                ? ActionResult.applied(n - 1)
+                : ActionResult.preconditionRejected();
+        var increment = new NamedAction<Integer>("increment", n -> n + 1, n -> n < 3);
+        var fail = new NamedAction<Integer>("fail", n -> {
+            throw new UnsupportedOperationException();
+        });
+
+        var report = new Simulator<Integer>(options)
+                .run(new Specification<>(init, new Step<>(increment, new NamedAction<>("decrement", decrement), fail)));
+
+        assertEquals(10L, report.count(ActionOutcome.APPLIED) - transitions(report));
+        assertTrue(report.count(ActionOutcome.ERROR) > 0);
+        assertTrue(report.count(ActionOutcome.PRECONDITION_REJECTED) > 0);
+        assertTrue(report.count(ActionOutcome.GUARD_REJECTED) > 0);
+        assertEquals(ActionOutcome.PRECONDITION_REJECTED,
+                new NamedAction<>("decrement", decrement).tryApply(0).outcome());
+        assertEquals(ActionOutcome.GUARD_REJECTED, increment.tryApply(3).outcome());
+    }
+
+    @Test
+    void throwingAttemptsAreErrors() {
+        var options = new SimulationOptions(5, 10, 10, false).withSeed(3L);
+        ActionExpression<Integer> broken = n -> {
+            throw new ArithmeticException();
+        };
+        var brokenInit = Init.<Integer>attempting(() -> {
+            throw new ArithmeticException();
+        });
+        var step = new Step<>(new NamedAction<>("broken", broken), new NamedAction<Integer>("increment", n -> n + 1));
+
+        var report = new Simulator<Integer>(options).run(new Specification<>(new Init<>(() -> 0), step));
+        var failedInit = new Simulator<Integer>(options).run(new Specification<>(brokenInit, step));
+
+        assertTrue(report.count(ActionOutcome.ERROR) > 0);
+        assertEquals(5L, report.outcomeSimulations().size());
+        assertEquals(ActionOutcome.ERROR, new NamedAction<>("broken", broken).tryApply(0).outcome());
+        assertEquals(ActionOutcome.ERROR, brokenInit.tryApply().outcome());
+        assertEquals(OutcomeSimulationStatus.FAILED_INIT, failedInit.outcomeSimulations().getFirst().status());
+    }
+
+    @Test
+    void throwingPropertiesEndTheSimulationWithAnError() {
+        var options = new SimulationOptions(3, 10, 10, false).withSeed(5L);
+        var simulator = new Simulator<Integer>(options);
+        var step = new Step<>(new NamedAction<Integer>("increment", n -> n + 1));
+        var throwingStateProperty = new Specification<>(new Init<>(() -> 0), step)
+                .withStateProperty(new StateProperty<Integer>("throwsAtThree", n -> 10 / (n - 3) != 0 || n >= 0));
+        var throwingTemporalProperty = new Specification<>(new Init<>(() -> 0), step)
+                .withTemporalProperties(new TemporalProperty<Integer>("throwsAtTheEnd", transitions -> {
+                    throw new IllegalStateException();
+                }));
+
+        var stateReport = simulator.run(throwingStateProperty);
+        var temporalReport = simulator.run(throwingTemporalProperty);
+
+        assertEquals(3L, stateReport.count(OutcomeSimulationStatus.ERROR));
+        var stateOutcome = stateReport.outcomeSimulations().getFirst();
+        assertEquals(List.of("throwsAtThree"), stateOutcome.failedStateProperties());
+        assertEquals(2, stateOutcome.transitions().size());
+        assertEquals(stateOutcome, simulator.replay(throwingStateProperty, stateOutcome.simulationIndex()));
+
+        assertEquals(3L, temporalReport.count(OutcomeSimulationStatus.ERROR));
+        var temporalOutcome = temporalReport.outcomeSimulations().getFirst();
+        assertEquals(List.of("throwsAtTheEnd"), temporalOutcome.failedTemporalProperties());
+        assertEquals(10, temporalOutcome.transitions().size());
+    }
+
+    @Test
+    void failingStatePropertiesAreReportedOnceInDeclarationOrder() {
+        var specification = new Specification<>(new Init<>(() -> 0),
+                new Step<>(new NamedAction<Integer>("increment", n -> n + 1)))
+                .withStateProperty(
+                        new StateProperty<Integer>("zero", n -> n == 0),
+                        new StateProperty<Integer>("natural", n -> n >= 0),
+                        new StateProperty<Integer>("aboveFive", n -> n > 5));
+
+        var report = new Simulator<Integer>(simulationOptionsFailAtTheEnd).run(specification);
+
+        assertEquals(List.of("zero", "aboveFive"), report.outcomeSimulations().getFirst().failedStateProperties());
+    }
+
+    @Test
+    void expressionsAreClassifiedByWhatTheyReturnOrThrow() {
+        var options = new SimulationOptions(1, 4, 10, false);
+        ActionExpression<Integer> throwingAttempt = n -> {
+            throw new IllegalArgumentException();
+        };
+        var expressions = List.<Expression<Integer, Integer>>of(
+                n -> null,
+                n -> {
+                    throw new IllegalArgumentException();
+                },
+                n -> {
+                    throw new IllegalStateException();
+                },
+                n -> {
+                    throw new ArithmeticException();
+                },
+                throwingAttempt);
+        var outcomes = List.of(ActionOutcome.PRECONDITION_REJECTED, ActionOutcome.PRECONDITION_REJECTED,
+                ActionOutcome.PRECONDITION_REJECTED, ActionOutcome.ERROR, ActionOutcome.ERROR);
+
+        for (var i = 0; i < expressions.size(); i++) {
+            var specification = new Specification<>(new Init<>(() -> 0),
+                    new Step<>(new NamedAction<>("action", expressions.get(i))));
+
+            var report = new Simulator<Integer>(options).run(specification);
+
+            assertEquals(4L, report.count(outcomes.get(i)), "expression " + i);
+            assertEquals(1L, report.count(ActionOutcome.APPLIED), "expression " + i);
+        }
+    }
+
+    @Test
+    void recordedTracesAreReplayedWithoutTheSeed() throws IOException {
+        var directory = Files.createTempDirectory("verifyj-");
+        var options = new SimulationOptions(30, 50, 20, false).withSeed(11L);
+        var init = new Init<>(() -> NonDet.withinRange(0, 10));
+
+        var add = new NamedAction<Integer>("add", n -> n + NonDet.withinRange(1, 5));
+        var jitter = new NamedAction<Integer>("jitter", n -> n + (int) Math.round(NonDet.random().nextGaussian()));
+        var subtract = new NamedAction<Integer>("subtract", n -> n - NonDet.oneOf(1, 2), n -> n > 0);
+
+        var specification = new Specification<>(init, new Step<>(add, jitter, subtract))
+                .withStateProperty(new StateProperty<>("belowTwenty", n -> n < 20));
+
+        var recording = TraceRecording.<Integer>to(directory)
+                .withTraceRetention(TraceRetention.ALL)
+                .withStates(StateCodec.ofSerializable());
+        var report = new Simulator<>(options, recording).run(specification);
+
+        var replayer = new Simulator<Integer>(new SimulationOptions(1, 1, 1, false));
+        for (var outcomeSimulation : report.outcomeSimulations()) {
+            var file = recording.fileOf(outcomeSimulation.simulationIndex());
+            var trace = TraceFile.read(file, StateCodec.<Integer>ofSerializable());
+            assertEquals(outcomeSimulation, replayer.replay(specification, trace));
+            assertTrue(new String(Files.readAllBytes(file), StandardCharsets.ISO_8859_1)
+                    .contains(outcomeSimulation.status().name()));
+        }
+        assertTrue(report.count(OutcomeSimulationStatus.FAILED_STATE_PROPERTIES) > 0);
+    }
+
+    @Test
+    void failingTracesAreShrunkToMinimalCounterExamples() {
+        var options = new SimulationOptions(20, 400, 200, false)
+                .withSeed(5L)
+                .withTraceRetention(TraceRetention.FAILURES, 1);
+        var init = new Init<>(() -> 0);
+
+        var increment = new NamedAction<Integer>("increment", n -> n + NonDet.withinRange(1, 3));
+        var stay = new NamedAction<Integer>("stay", n -> n);
+        var decrement = new NamedAction<Integer>("decrement", n -> n - 1, n -> n > 0);
+
+        var belowTen = new StateProperty<Integer>("belowTen", n -> n < 10);
+        var specification = new Specification<>(init, new Step<>(increment, stay, decrement))
+                .withStateProperty(belowTen);
+
+        var simulator = new Simulator<Integer>(options);
+        var failing = simulator.run(specification).outcomeSimulations().getFirst();
+        var trace = simulator.record(specification, failing.simulationIndex());
+        var counterExample = new Shrinker<>(specification, 4).shrink(trace).orElseThrow();
+
+        assertEquals(belowTen, counterExample.failedProperty());
+        assertTrue(counterExample.transitions().size() < trace.size());
+        assertTrue(counterExample.transitions().stream().allMatch(t -> t.actionName().equals("increment")));
+        assertTrue(counterExample.transition().to() >= 10);
+    }
+
+    @Test
+    void timeBudgetsStopLoopingActionsAndBoundTheRun() {
+        var init = new Init<>(() -> 0);
+        var increment = new NamedAction<Integer>("increment", n -> {
+            while (n == 3) {
+                NonDet.withinRange(0, 2);
+            }
+            return n + 1;
+        });
+        var specification = new Specification<>(init, new Step<>(increment));
+
+        var timedOut = new Simulator<Integer>(new SimulationOptions(2, 50, 10, false)
+                .withTimeouts(Duration.ofMillis(50), null))
+                .run(specification);
+
+        assertEquals(2L, timedOut.count(OutcomeSimulationStatus.TIMEOUT));
+        assertEquals(3, timedOut.outcomeSimulations().getFirst().transitions().size());
+
+        var budgeted = new Simulator<Integer>(new SimulationOptions(1, 50, 2, false)
+                .withConcurrency(Concurrency.FORK_JOIN, 2)
+                .withTraceRetention(TraceRetention.FAILURES, 1)
+                .runningFor(Duration.ofMillis(200)))
+                .run(specification);
+
+        assertTrue(budgeted.numberOfSimulations() > 1);
+        assertEquals(budgeted.numberOfSimulations(), budgeted.count(OutcomeSimulationStatus.SUCCESS));
+        assertTrue(budgeted.elapsed().compareTo(Duration.ofSeconds(10)) < 0);
+        assertTrue(budgeted.simulationsPerSecond() > 0);
+    }
+
+    @Test
+    void theFirstFailureStopsTheWholeRun() {
+        var init = new Init<>(() -> 0);
+        var increment = new NamedAction<Integer>("increment", n -> n + NonDet.withinRange(0, 2));
+        var specification = new Specification<>(init, new Step<>(increment))
+                .withStateProperty(new StateProperty<>("belowFifteen", n -> n < 15));
+
+        for (var options : List.of(new SimulationOptions(5_000, 50, 20, true).withSeed(1L),
+                new SimulationOptions(5_000, 50, 20, true).withSeed(1L).withConcurrency(Concurrency.FORK_JOIN, 4))) {
+            var report = new Simulator<Integer>(options).run(specification);
+
+            assertTrue(report.numberOfSimulations() < 5_000);
+            assertTrue(report.count(OutcomeSimulationStatus.FAILED_STATE_PROPERTIES) >= 1);
+            assertTrue(report.outcomeSimulations().stream()
+                    .anyMatch(outcomeSimulation -> outcomeSimulation.status().isFailedStateProperties()));
+        }
+    }
+
+    @Test
+    void coverageGuidedSimulationsStayReplayableAndDeterministic() {
+        var options = new SimulationOptions(200, 50, 30, false)
+                .withSeed(5L)
+                .withGuidance(Guidance.COVERAGE);
+        var init = new Init<>(() -> NonDet.withinRange(0, 3));
+
+        var add = new NamedAction<Integer>("add", n -> n + NonDet.withinRange(1, 4));
+        var halve = new NamedAction<Integer>("halve", n -> n / 2, n -> n > 1);
+        var specification = new Specification<>(init, new Step<>(add, halve))
+                .withStateProperty(new StateProperty<>("belowSixty", n -> n < 60));
+
+        var simulator = new Simulator<Integer>(options);
+        var report = simulator.run(specification);
+
+        assertTrue(report.coverage().distinctStates() > 0);
+        var again = simulator.run(specification);
+        assertEquals(report.outcomeSimulations(), again.outcomeSimulations());
+        assertEquals(report.coverage(), again.coverage());
+        for (var outcomeSimulation : report.outcomeSimulations()) {
+            assertEquals(outcomeSimulation, simulator.replay(specification, RecordedTrace.of(outcomeSimulation, 5L)));
+        }
+        var simulationIndex = report.outcomeSimulations().getFirst().simulationIndex();
+        var error = assertThrows(IllegalStateException.class, () -> simulator.replay(specification, simulationIndex));
+        assertTrue(error.getMessage().contains("RecordedTrace"));
+        assertThrows(IllegalStateException.class, () -> simulator.record(specification, simulationIndex));
+    }
+
+    @Test
+    void profilingCountsEveryEvaluationOfTheActionsAndProperties() {
+        var options = new SimulationOptions(10, 50, 20, false).withSeed(3L);
+        var init = new Init<>(() -> 0);
+
+        var increment = new NamedAction<Integer>("increment", n -> n + 1, n -> n % 2 == 0);
+        var decrement = new NamedAction<Integer>("decrement", n -> n - 1);
+        var specification = new Specification<>(init, new Step<>(increment, decrement))
+                .withStateProperty(new StateProperty<>("aboveMinusFifty", n -> n > -50))
+                .withTemporalProperties(TemporalProperties.<Integer>eventually("reachesThree", n -> n == 3));
+
+        var report = new Simulator<Integer>(options.withProfiling(true)).run(specification);
+        var profile = report.profile();
+
+        var transitions = transitions(report);
+        var actions = profile.of(ProfiledPart.ACTION, "increment").orElseThrow().invocations()
+                + profile.of(ProfiledPart.ACTION, "decrement").orElseThrow().invocations();
+        assertEquals(report.count(ActionOutcome.APPLIED) - 10, actions);
+        assertEquals(transitions, profile.of(ProfiledPart.STATE_PROPERTY, "aboveMinusFifty").orElseThrow().invocations());
+        assertEquals(10, profile.of(ProfiledPart.TEMPORAL_FINAL, "reachesThree").orElseThrow().invocations());
+        var guards = profile.of(ProfiledPart.GUARDS, "increment").orElseThrow();
+        assertEquals(guards.invocations(), profile.of(ProfiledPart.GUARDS, "decrement").orElseThrow().invocations());
+        assertTrue(guards.rejections() > 0);
+        assertEquals(guards.timedInvocations(), guards.histogram().stream().mapToLong(Long::longValue).sum());
+        assertEquals(Profile.NONE, new Simulator<Integer>(options).run(specification).profile());
+    }
+
+    @Test
+    void metricsAreExportedWhileRunningAndOnceAtTheEnd() throws IOException {
+        var file = Files.createTempDirectory("verifyj-").resolve("metrics.csv");
+        var snapshots = new CopyOnWriteArrayList<RunMetrics>();
+        var toFile = MetricsExporter.toFile(file);
+        MetricsExporter exporter = metrics -> {
+            snapshots.add(metrics);
+            toFile.export(metrics);
+        };
+        var options = new SimulationOptions(200, 50, 20, false)
+                .withSeed(9L)
+                .withConcurrency(Concurrency.FORK_JOIN, 4)
+                .withCoverage(true);
+        var init = new Init<>(() -> 0);
+        var increment = new NamedAction<Integer>("increment", n -> n + NonDet.withinRange(0, 3));
+        var specification = new Specification<>(init, new Step<>(increment))
+                .withStateProperty(new StateProperty<>("belowThirty", n -> n < 30));
+
+        var report = new Simulator<Integer>(options, TraceRecording.disabled(),
+                MetricsReporting.every(Duration.ofMillis(1), exporter)).run(specification);
+
+        var last = snapshots.getLast();
+        assertEquals(report.numberOfSimulations(), last.simulations());
+        assertEquals(transitions(report), last.transitions());
+        assertEquals(report.count(OutcomeSimulationStatus.FAILED_STATE_PROPERTIES), last.failures());
+        assertEquals(report.coverage().distinctStates(), last.distinctStates());
+        var lines = Files.readAllLines(file);
+        assertEquals(snapshots.size() + 1, lines.size());
+        assertTrue(lines.getFirst().startsWith("elapsedMillis,simulations"));
+    }
+
+    @Test
+    void metricsCountTheTransitionsOfRunningSimulationsAndOnlyPropertyFailures() {
+        var seenWhileRunning = new CountDownLatch(1);
+        var snapshots = new CopyOnWriteArrayList<RunMetrics>();
+        MetricsExporter exporter = metrics -> {
+            snapshots.add(metrics);
+            if (metrics.simulations() == 0 && metrics.transitions() >= 2048) {
+                seenWhileRunning.countDown();
+            }
+        };
+        var waited = new AtomicBoolean();
+        var increment = new NamedAction<Integer>("increment", n -> {
+            if (n == 2500) {
+                try {
+                    waited.set(seenWhileRunning.await(10, TimeUnit.SECONDS));
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            return n + 1;
+        }, n -> n < 3000);
+        var specification = new Specification<>(new Init<>(() -> 0), new Step<>(increment));
+
+        var report = new Simulator<Integer>(new SimulationOptions(1, 5000, 5000, false), TraceRecording.disabled(),
+                MetricsReporting.every(Duration.ofMillis(1), exporter)).run(specification);
+
+        assertTrue(waited.get());
+        assertEquals(1L, report.count(OutcomeSimulationStatus.DEADLOCK));
+        var last = snapshots.getLast();
+        assertEquals(3000L, last.transitions());
+        assertEquals(0L, last.failures());
+    }
+
+    @Test
+    void virtualThreadsRunBlockingSimulationsConcurrentlyAndDeterministically() {
+        var running = new AtomicInteger();
+        var maxRunning = new AtomicInteger();
+        var blockedTogether = new CountDownLatch(50);
+        var allBlockedTogether = new AtomicBoolean(true);
+        var init = new Init<>(() -> 0);
+        var blockingIncrement = new NamedAction<Integer>("blockingIncrement", n -> {
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            try {
+                blockedTogether.countDown();
+                if (!blockedTogether.await(10, TimeUnit.SECONDS)) {
+                    allBlockedTogether.set(false);
+                }
+            } catch (InterruptedException e) {
+                throw new IllegalStateException(e);
+            } finally {
+                running.decrementAndGet();
+            }
+            return n + NonDet.withinRange(0, 2);
+        });
+        var specification = new Specification<>(init, new Step<>(blockingIncrement));
+        var options = new SimulationOptions(200, 10, 5, false).withSeed(21L);
+
+        var report = new Simulator<Integer>(options.withConcurrency(Concurrency.VIRTUAL_THREADS, 100)).run(specification);
+
+        assertEquals(200, report.numberOfSimulations());
+        assertTrue(allBlockedTogether.get());
+        assertTrue(maxRunning.get() <= 100);
+        assertEquals(new Simulator<Integer>(options).run(specification).outcomeSimulations(), report.outcomeSimulations());
+    }
+
+    @Test
+    void errorsThrownOnVirtualThreadsAreRethrown() {
+        var specification = new Specification<>(new Init<>(() -> 0),
+                new Step<>(new NamedAction<Integer>("overflow", n -> {
+                    throw new StackOverflowError();
+                })));
+        var options = new SimulationOptions(20, 10, 5, false).withConcurrency(Concurrency.VIRTUAL_THREADS, 4);
+
+        assertThrows(StackOverflowError.class, () -> new Simulator<Integer>(options).run(specification));
+    }
+
+    @Test
+    void memoizedActionsTakeRepeatedTransitionsFromTheCache() {
+        var evaluations = new AtomicInteger();
+        var init = new Init<>(() -> 0);
+        var square = new NamedAction<Integer>("square", n -> {
+            evaluations.incrementAndGet();
+            return (n * n + 1) % 7;
+        }).withMemoization(true);
+        var jump = new NamedAction<Integer>("jump", n -> (n + NonDet.withinRange(1, 3)) % 7).withMemoization(true);
+        var specification = new Specification<>(init, new Step<>(square, jump))
+                .withStateProperty(new StateProperty<Integer>("neverSix", n -> n != 6));
+        var options = new SimulationOptions(100, 50, 20, false).withSeed(5L);
+
+        var uncached = new Simulator<Integer>(options).run(specification);
+        var evaluationsWithoutCache = evaluations.getAndSet(0);
+        var cached = new Simulator<Integer>(options.withTransitionCache(64).parallel()).run(specification);
+
+        assertEquals(uncached.outcomeSimulations(), cached.outcomeSimulations());
+        assertEquals(uncached.actionOutcomeCounts(), cached.actionOutcomeCounts());
+        assertTrue(evaluationsWithoutCache > 100);
+        assertTrue(evaluations.get() < evaluationsWithoutCache / 10);
+        assertTrue(cached.transitionCache().hits() > 0);
+        assertTrue(cached.transitionCache().uncacheable() > 0);
+        assertEquals(TransitionCacheStatistics.NONE, uncached.transitionCache());
+    }
+
+    private static long transitions(Report<Integer> report) {
+        return report.outcomeSimulations().stream()
+                .mapToLong(outcomeSimulation -> outcomeSimulation.transitions().size())
+                .sum();
+    }
+}
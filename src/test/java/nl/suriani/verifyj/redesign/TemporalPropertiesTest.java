@@ -0,0 +1,77 @@
+package nl.suriani.verifyj.redesign;
+
+import nl.suriani.verifyj.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TemporalPropertiesTest {
+
+    private static List<Transition<Integer>> trace(int... states) {
+        var transitions = new ArrayList<Transition<Integer>>();
+        var from = 0;
+        for (var i = 0; i < states.length; i++) {
+            transitions.add(new Transition<>(from, states[i], "step", i + 1, i + 1));
+            from = states[i];
+        }
+        return transitions;
+    }
+
+    @Test
+    void builtInPropertiesOnEmptyTraces() {
+        var empty = trace();
+
+        assertTrue(TemporalProperties.<Integer>always("always", n -> n > 0).test(empty));
+        assertTrue(TemporalProperties.<Integer>never("never", n -> n > 0).test(empty));
+        assertFalse(TemporalProperties.<Integer>eventually("eventually", n -> n > 0).test(empty));
+        assertFalse(TemporalProperties.<Integer>initially("initially", n -> n > 0).test(empty));
+        assertFalse(TemporalProperties.<Integer>atLast("atLast", n -> n > 0).test(empty));
+        assertFalse(TemporalProperties.<Integer>exactlyOnce("exactlyOnce", n -> n > 0).test(empty));
+    }
+
+    @Test
+    void monitorsReachFinalVerdictsAsSoonAsPossible() {
+        var never = TemporalProperties.<Integer>never("never", n -> n == 3).monitor().get();
+        var eventually = TemporalProperties.<Integer>eventually("eventually", n -> n == 3).monitor().get();
+        var transitions = trace(1, 2, 3, 4);
+
+        assertEquals(Verdict.PENDING, never.next(transitions.get(0)));
+        assertEquals(Verdict.PENDING, eventually.next(transitions.get(0)));
+        assertEquals(Verdict.PENDING, never.next(transitions.get(1)));
+        assertEquals(Verdict.PENDING, eventually.next(transitions.get(1)));
+        assertEquals(Verdict.VIOLATED, never.next(transitions.get(2)));
+        assertEquals(Verdict.SATISFIED, eventually.next(transitions.get(2)));
+    }
+
+    @Test
+    void monitorsAgreeWithTheDefinitionsOverWholeTraces() {
+        var transitions = trace(1, 2, 3, 2, 5);
+
+        assertTrue(TemporalProperties.<Integer>exactlyOnce("exactlyOnce", n -> n == 3).test(transitions));
+        assertFalse(TemporalProperties.<Integer>exactlyOnce("exactlyOnce", n -> n == 2).test(transitions));
+        assertTrue(TemporalProperties.<Integer>atLast("atLast", n -> n == 5).test(transitions));
+        assertTrue(TemporalProperties.<Integer>xAndThenThenEventuallyY("xThenY", n -> n == 3, n -> n == 2)
+                .test(transitions));
+        assertFalse(TemporalProperties.<Integer>xAndThenThenEventuallyY("xThenY", n -> n == 5, n -> n == 1)
+                .test(transitions));
+        assertTrue(TemporalProperties.<Integer>whenXThenAlwaysImmediatelyY("whenXThenY",
+                t -> t.to() == 2, t -> t.to() > 2).test(transitions));
+        assertFalse(TemporalProperties.<Integer>xAndThenAlwaysImmediatelyY("xThenImmediatelyY",
+                t -> t.to() == 5, t -> true).test(transitions));
+    }
+
+    @Test
+    void combinedPropertiesKeepTheirMeaning() {
+        var transitions = trace(1, 2, 3);
+        var alwaysPositive = TemporalProperties.<Integer>always("alwaysPositive", n -> n > 0);
+        var eventuallyFour = TemporalProperties.<Integer>eventually("eventuallyFour", n -> n == 4);
+
+        assertFalse(alwaysPositive.and(eventuallyFour).test(transitions));
+        assertTrue(alwaysPositive.or(eventuallyFour).test(transitions));
+        assertTrue(eventuallyFour.not().test(transitions));
+        assertTrue(TemporalMonitor.evaluate(eventuallyFour.not().monitor().get(), transitions));
+    }
+}
@@ -0,0 +1,70 @@
+package nl.suriani.verifyj.redesign;
+
+import nl.suriani.verifyj.*;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class TraceTest {
+
+    private static Trace<Integer> countTo(int transitions) {
+        var specification = new Specification<>(new Init<>(() -> 0),
+                new Step<>(new NamedAction<Integer>("increment", n -> n + 1)));
+        var report = new Simulator<Integer>(new SimulationOptions(1, transitions, transitions, false))
+                .run(specification);
+        return assertInstanceOf(Trace.class, report.outcomeSimulations().getFirst().transitions());
+    }
+
+    @Test
+    void keepsEveryTransitionWhenGrowingPastItsInitialCapacity() {
+        var trace = countTo(3000);
+
+        assertEquals(3000, trace.size());
+        for (var index : new int[] {0, 1023, 1024, 1025, 2999}) {
+            var transition = trace.get(index);
+            assertEquals(index, transition.from());
+            assertEquals(index + 1, transition.to());
+            assertEquals("increment", transition.actionName());
+            assertEquals(index + 1, transition.transitionNumber());
+            assertEquals(index + 1, trace.attemptNumber(index));
+        }
+        assertEquals(0, trace.state(0));
+        assertEquals(3000, trace.state(3000));
+        assertThrows(IndexOutOfBoundsException.class, () -> trace.get(3000));
+        assertThrows(IndexOutOfBoundsException.class, () -> trace.state(3001));
+    }
+
+    @Test
+    void equalsTheListOfItsTransitions() {
+        var trace = countTo(1500);
+        var copy = new ArrayList<Transition<Integer>>(trace);
+
+        assertEquals(copy, trace);
+        assertEquals(trace, copy);
+        assertEquals(copy.hashCode(), trace.hashCode());
+        copy.removeLast();
+        assertNotEquals(copy, trace);
+    }
+
+    @Test
+    void bufferedPropertiesSeeTheSameTransitionsFromATraceAsFromAList() {
+        var trace = countTo(1500);
+        var seen = new ArrayList<List<Transition<Integer>>>();
+        var property = new TemporalProperty<Integer>("endsEven", transitions -> {
+            seen.add(List.copyOf(transitions));
+            return transitions.getLast().to() % 2 == 0;
+        });
+
+        var fromTrace = TemporalMonitor.evaluate(property.monitor().get(), trace);
+        var fromList = TemporalMonitor.evaluate(property.monitor().get(), new ArrayList<>(trace));
+
+        assertTrue(fromTrace);
+        assertTrue(fromList);
+        assertEquals(2, seen.size());
+        assertEquals(seen.get(1), seen.get(0));
+        assertEquals(1500, seen.get(0).size());
+    }
+}